@@ -0,0 +1,41 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.common.util.EscapeUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Escapes and unescapes message tag values, with and without characters that need to be replaced
+ */
+@State(Scope.Thread)
+public class EscapeUtilsBenchmark {
+
+    @Param({ "plain", "escaped" })
+    public String kind;
+
+    private String unescaped;
+
+    private String escaped;
+
+    @Setup
+    public void setup() {
+        unescaped = "plain".equals(kind)
+            ? "Viewer_One-subscribed-with-Prime.-They've-subscribed-for-8-months!"
+            : "Viewer_One subscribed with Prime. They've subscribed for 8 months; C:\\path\\to\\file";
+        escaped = EscapeUtils.escapeTagValue(unescaped);
+    }
+
+    @Benchmark
+    public String escape() {
+        return EscapeUtils.escapeTagValue(unescaped);
+    }
+
+    @Benchmark
+    public String unescape() {
+        return EscapeUtils.unescapeTagValue(escaped);
+    }
+
+}
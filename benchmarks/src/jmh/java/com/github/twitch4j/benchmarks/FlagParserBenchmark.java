@@ -0,0 +1,31 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.chat.flag.AutoModFlag;
+import com.github.twitch4j.chat.flag.FlagParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Parses the AutoMod flags tag of a message, compared to the former split based parser
+ */
+@State(Scope.Thread)
+public class FlagParserBenchmark {
+
+    @Param({ "0-4:P.6", "0-4:A.3/P.6,10-15:S.7,21-26:I.6/P.5/S.4" })
+    public String flags;
+
+    @Benchmark
+    public List<AutoModFlag> parseFlags() {
+        return FlagParser.parseFlags(flags);
+    }
+
+    @Benchmark
+    public List<AutoModFlag> legacyParseFlags() {
+        return LegacyFlagParser.parseFlags(flags);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.IRCEventHandler;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.util.EventManagerUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Routes the parsed events of the corpus through the {@link IRCEventHandler}, one event per operation.
+ * <p>
+ * The derived events are published to an event manager without listeners, so only the routing and event creation is measured.
+ */
+@State(Scope.Thread)
+public class IRCEventHandlerBenchmark {
+
+    private IRCMessageEvent[] events;
+
+    private int index;
+
+    private IRCEventHandler handler;
+
+    @Setup
+    public void setup() {
+        events = IrcCorpus.events();
+        EventManager eventManager = EventManagerUtils.initializeEventManager(SimpleEventHandler.class);
+        handler = new IRCEventHandler(eventManager);
+    }
+
+    @Benchmark
+    public void dispatch() {
+        IRCMessageEvent event = events[index];
+        if (++index == events.length) index = 0;
+        handler.onMessage(event);
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the lines of the corpus into {@link IRCMessageEvent}s, one line per operation
+ */
+@State(Scope.Thread)
+public class IRCMessageEventBenchmark {
+
+    private String[] lines;
+
+    private int index;
+
+    private Map<String, String> channelIdToChannelName;
+
+    private Map<String, String> channelNameToChannelId;
+
+    private Collection<String> botOwnerIds;
+
+    @Setup
+    public void setup() {
+        lines = IrcCorpus.lines();
+        channelIdToChannelName = new HashMap<>();
+        channelNameToChannelId = new HashMap<>();
+        channelIdToChannelName.put("12345678", "somechannel");
+        channelNameToChannelId.put("somechannel", "12345678");
+        botOwnerIds = Collections.singleton("11111111");
+    }
+
+    @Benchmark
+    public IRCMessageEvent parse() {
+        String line = lines[index];
+        if (++index == lines.length) index = 0;
+        return new IRCMessageEvent(line, channelIdToChannelName, channelNameToChannelId, botOwnerIds);
+    }
+
+}
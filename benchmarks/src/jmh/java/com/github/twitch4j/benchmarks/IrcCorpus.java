@@ -0,0 +1,55 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * The captured irc lines shared by the benchmarks
+ */
+final class IrcCorpus {
+
+    private static final String RESOURCE = "/irc-corpus.txt";
+
+    private IrcCorpus() {
+    }
+
+    /**
+     * @return the non-empty raw lines of the corpus
+     */
+    static String[] lines() {
+        try (InputStream in = IrcCorpus.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) throw new IllegalStateException("Missing corpus: " + RESOURCE);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            List<String> lines = reader.lines().filter(line -> !line.isEmpty()).collect(Collectors.toList());
+            return lines.toArray(new String[0]);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return the valid parsed events of the corpus
+     */
+    static IRCMessageEvent[] events() {
+        String[] lines = lines();
+        IRCMessageEvent[] events = new IRCMessageEvent[lines.length];
+        int n = 0;
+        for (String line : lines) {
+            IRCMessageEvent event = new IRCMessageEvent(line, Collections.emptyMap(), Collections.emptyMap(), null);
+            if (event.isValid()) events[n++] = event;
+        }
+        IRCMessageEvent[] valid = new IRCMessageEvent[n];
+        System.arraycopy(events, 0, valid, 0, n);
+        return valid;
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.chat.flag.AutoModFlag;
+import com.github.twitch4j.chat.flag.FlagType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The former split based {@link com.github.twitch4j.chat.flag.FlagParser}, kept as a baseline
+ */
+final class LegacyFlagParser {
+
+    private LegacyFlagParser() {
+    }
+
+    static List<AutoModFlag> parseFlags(String rawFlags) {
+        final String[] splitFlags = rawFlags.split(",");
+        final List<AutoModFlag> flags = new ArrayList<>(splitFlags.length);
+
+        for (String rawFlag : splitFlags) {
+            String[] parts = rawFlag.split(":", -1);
+            if (parts.length != 2)
+                continue;
+
+            String[] indices = parts[0].split("-");
+            if (indices.length != 2)
+                continue;
+            int start = Integer.parseInt(indices[0]);
+            int end = Integer.parseInt(indices[1]);
+
+            AutoModFlag.AutoModFlagBuilder builder = AutoModFlag.builder()
+                .startIndex(start)
+                .endIndex(end);
+
+            String[] scores = parts[1].split("/");
+            for (String score : scores) {
+                String[] scoreParts = score.split("\\.");
+                if (scoreParts.length != 2)
+                    continue;
+                FlagType type = FlagType.parse(scoreParts[0]);
+                if (type != null)
+                    builder.score(type, Integer.parseInt(scoreParts[1]));
+            }
+
+            flags.add(builder.build());
+        }
+
+        return Collections.unmodifiableList(flags);
+    }
+
+}
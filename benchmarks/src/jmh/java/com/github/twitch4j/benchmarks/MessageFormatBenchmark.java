@@ -0,0 +1,37 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.chat.TwitchChat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Formats the raw PRIVMSG command of an outgoing message, as done by {@link TwitchChat#sendMessage(String, String, Map)}
+ */
+@State(Scope.Thread)
+public class MessageFormatBenchmark {
+
+    private Map<String, Object> tags;
+
+    @Setup
+    public void setup() {
+        tags = new LinkedHashMap<>();
+        tags.put("client-nonce", "459e3142897c7a22b7d275178f2259e0");
+        tags.put("reply-parent-msg-id", "885196de-cb67-427a-baa8-82f9b0fcd05f");
+    }
+
+    @Benchmark
+    public String withoutTags() {
+        return TwitchChat.formatMessage("SomeChannel", "Kappa Keepo Kappa", null);
+    }
+
+    @Benchmark
+    public String withTags() {
+        return TwitchChat.formatMessage("SomeChannel", "Kappa Keepo Kappa", tags);
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.github.twitch4j.benchmarks;
+
+import com.github.twitch4j.common.enums.CommandPermission;
+import com.github.twitch4j.common.util.TwitchUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Resolves the permissions of a chatter from the message tags
+ */
+@State(Scope.Thread)
+public class PermissionsBenchmark {
+
+    @Param({ "", "subscriber/6,bits/1000", "broadcaster/1,subscriber/3012,partner/1" })
+    public String badges;
+
+    private Map<String, Object> tags;
+
+    private Collection<String> botOwnerIds;
+
+    @Setup
+    public void setup() {
+        tags = new HashMap<>();
+        tags.put("badges", badges);
+        tags.put("badge-info", "subscriber/8");
+        tags.put("mod", "0");
+        tags.put("user-id", "87654321");
+        botOwnerIds = Collections.singleton("11111111");
+    }
+
+    @Benchmark
+    public Set<CommandPermission> getPermissionsFromTags() {
+        return TwitchUtils.getPermissionsFromTags(tags, new HashMap<>(), "87654321", botOwnerIds);
+    }
+
+}
@@ -0,0 +1,994 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.credentialmanager.CredentialManager;
+import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.twitch4j.chat.capture.CaptureWriter;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import com.github.twitch4j.chat.enums.TMIConnectionState;
+import com.github.twitch4j.chat.events.IRCEventHandler;
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.metrics.ChatMetrics;
+import com.github.twitch4j.chat.util.CommandLaneConfig;
+import com.github.twitch4j.chat.util.CommandMatcher;
+import com.github.twitch4j.chat.util.IngressFilter;
+import com.github.twitch4j.chat.util.ParsePipelineConfig;
+import com.github.twitch4j.chat.util.SeenSet;
+import com.github.twitch4j.chat.util.SendAcknowledgment;
+import com.github.twitch4j.common.annotation.Unofficial;
+import com.github.twitch4j.common.config.ProxyConfig;
+import com.github.twitch4j.common.util.IdentityCache;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.local.LocalBucketBuilder;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Spreads channels across multiple {@link TwitchChat} connections (shards).
+ * <p>
+ * Channels are assigned to shards by consistent hashing, so that each shard holds a stable subset of the channels,
+ * and a reconnect of one shard only affects the channels of that shard.
+ * Each shard keeps its own connection state and reconnect backoff, while all shards publish to the same {@link EventManager}
+ * and share the (per-account) chat and whisper rate limits.
+ * <p>
+ * A shard that is not connected for longer than the failure timeout (while another shard is connected) is considered dead:
+ * its channels are rejoined on the remaining shards and the shard is replaced with a fresh connection.
+ * <p>
+ * In redundant mode, every channel is joined on every shard instead, so that a reconnect of one shard does not lose messages.
+ * Messages are published from whichever shard receives them first, while the copies received by the other shards
+ * are dropped based on their {@code id} tag. Lines without an id (e.g. notices and state updates) may legitimately repeat
+ * on one connection, so they are only dropped when the same line was recently received by another shard.
+ */
+@Slf4j
+public class ShardedTwitchChat implements AutoCloseable {
+
+    /**
+     * Number of points per shard on the hash ring
+     */
+    public static final int VIRTUAL_NODES_PER_SHARD = 100;
+
+    /**
+     * Interval between shard health checks, in milliseconds
+     */
+    private static final long HEALTH_CHECK_INTERVAL = Duration.ofSeconds(10L).toMillis();
+
+    /**
+     * Marks channels that are joined on all shards
+     */
+    private static final int ALL_SHARDS = -1;
+
+    /**
+     * EventManager
+     */
+    @Getter
+    private final EventManager eventManager;
+
+    /**
+     * IRC Event Handler, shared by all shards
+     */
+    @Getter
+    private final IRCEventHandler ircEventHandler;
+
+    /**
+     * IRC Message Bucket, shared by all shards
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Bucket ircMessageBucket;
+
+    /**
+     * IRC Account Bucket, shared by all shards
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Bucket ircAccountBucket;
+
+    /**
+     * IRC Whisper Bucket, shared by all shards
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Bucket ircWhisperBucket;
+
+    /**
+     * IRC Join Bucket, shared by all shards
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final Bucket ircJoinBucket;
+
+    /**
+     * Maximum number of channels per shard, or a negative value for no limit
+     */
+    @Getter
+    private final int maxChannelsPerShard;
+
+    /**
+     * Milliseconds a shard may be disconnected before its channels are moved to other shards
+     */
+    @Getter
+    private final long shardFailureTimeout;
+
+    /**
+     * Whether every channel is joined on every shard
+     */
+    @Getter
+    private final boolean redundant;
+
+    /**
+     * Recently published messages with an id, in redundant mode
+     */
+    private final SeenSet seenMessages;
+
+    /**
+     * Recently published lines without an id with the shard that received them, in redundant mode
+     */
+    private final SeenSet seenLines;
+
+    /**
+     * The shards
+     */
+    private final TwitchChat[] shards;
+
+    /**
+     * Whether a shard may receive new channels; false between the failure of a shard and the connection of its replacement
+     */
+    private final boolean[] available;
+
+    /**
+     * Time since which a shard is not connected, or 0 if connected
+     */
+    private final long[] disconnectedSince;
+
+    /**
+     * Number of channels assigned per shard
+     */
+    private final int[] channelCounts;
+
+    /**
+     * Hash ring: point to shard index
+     */
+    private final NavigableMap<Integer, Integer> ring = new TreeMap<>();
+
+    /**
+     * Channel name to shard index
+     */
+    private final Map<String, Integer> channelToShard = new ConcurrentHashMap<>();
+
+    /**
+     * Channels of failed shards that did not fit on the other shards, to be assigned once a shard is available again
+     */
+    private final Set<String> pendingChannels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Guards channel assignments and shard replacements
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Whether the shards have been closed
+     */
+    private volatile boolean closed;
+
+    /**
+     * Health Check Task
+     */
+    private final ScheduledFuture<?> healthCheck;
+
+    /**
+     * Routes the commands of events (e.g. {@link com.github.twitch4j.chat.events.CommandEvent#respondToUser(String)}) to the shards
+     */
+    private final TwitchChat routingChat;
+
+    /*
+     * Shard settings
+     */
+    private final CredentialManager credentialManager;
+    private final OAuth2Credential chatCredential;
+    private final String baseUrl;
+    private final boolean sendCredentialToThirdPartyHost;
+    private final List<String> commandPrefixes;
+    private final Collection<String> commandNames;
+    private final Integer chatQueueSize;
+    private final Map<CommandPriority, CommandLaneConfig> commandLanes;
+    private final Bandwidth chatRateLimit;
+    private final Bandwidth chatAccountRateLimit;
+    private final Bandwidth chatChannelRateLimit;
+    private final Bandwidth[] whisperRateLimit;
+    private final Bandwidth joinRateLimit;
+    private final ScheduledThreadPoolExecutor taskExecutor;
+    private final long chatQueueTimeout;
+    private final ProxyConfig proxyConfig;
+    private final Collection<String> botOwnerIds;
+    private final ParsePipelineConfig parsePipelineConfig;
+    private final IngressFilter ingressFilter;
+    private final CaptureWriter captureWriter;
+    private final ChatMetrics chatMetrics;
+
+    /**
+     * Constructor
+     *
+     * @param eventManager EventManager
+     * @param credentialManager CredentialManager
+     * @param chatCredential Chat Credential
+     * @param baseUrl The websocket url for the chat client to connect to
+     * @param sendCredentialToThirdPartyHost Whether the password should be sent when the baseUrl is not official
+     * @param commandPrefixes Command Prefixes
+     * @param commandNames Registered command names, or an empty collection to publish any command
+     * @param chatQueueSize Chat Queue Size
+     * @param commandLanes Configurations of the command queue lanes, which override the defaults based on the chat queue size
+     * @param chatRateLimit Bandwidth / Bucket for chat in channels where the account is neither broadcaster, moderator nor vip
+     * @param chatAccountRateLimit Bandwidth / Bucket for chat in all channels
+     * @param chatChannelRateLimit Bandwidth / Bucket for chat per channel where the account is neither broadcaster, moderator nor vip
+     * @param whisperRateLimit Bandwidth / Buckets for whispers
+     * @param joinRateLimit Bandwidth / Bucket for joining channels
+     * @param taskExecutor ScheduledThreadPoolExecutor
+     * @param chatQueueTimeout Timeout to wait for events in Chat Queue
+     * @param proxyConfig Proxy Configuration
+     * @param botOwnerIds Bot Owner IDs
+     * @param parsePipelineConfig Configuration of the parse pipeline of each connection, or null to parse and publish incoming lines on the websocket reader threads
+     * @param ingressFilter Filter that decides which incoming lines are parsed and published, or null to accept all lines
+     * @param captureWriter Records the incoming lines of all connections, or null
+     * @param chatMetrics Receives the measurements of all connections, or null to record nothing
+     * @param shardCount Number of connections
+     * @param maxChannelsPerShard Maximum number of channels per connection, or a negative value for no limit
+     * @param shardFailureTimeout Milliseconds a connection may be disconnected before its channels are moved to other connections
+     * @param redundant Whether every channel is joined on every connection, with duplicate messages being dropped
+     */
+    public ShardedTwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Collection<String> commandNames, Integer chatQueueSize, Map<CommandPriority, CommandLaneConfig> commandLanes, Bandwidth chatRateLimit, Bandwidth chatAccountRateLimit, Bandwidth chatChannelRateLimit, Bandwidth[] whisperRateLimit, Bandwidth joinRateLimit, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig, Collection<String> botOwnerIds, ParsePipelineConfig parsePipelineConfig, IngressFilter ingressFilter, CaptureWriter captureWriter, ChatMetrics chatMetrics, int shardCount, int maxChannelsPerShard, long shardFailureTimeout, boolean redundant) {
+        if (shardCount < 1)
+            throw new IllegalArgumentException("shardCount must be positive");
+        if (redundant && shardCount < 2)
+            throw new IllegalArgumentException("redundant mode requires at least two shards");
+        if (redundant && shardCount > SeenSet.MAX_SOURCES)
+            throw new IllegalArgumentException("redundant mode supports at most " + SeenSet.MAX_SOURCES + " shards");
+
+        this.eventManager = eventManager;
+        this.credentialManager = credentialManager;
+        this.chatCredential = TwitchChat.enrichCredential(credentialManager, chatCredential);
+        this.baseUrl = baseUrl;
+        this.sendCredentialToThirdPartyHost = sendCredentialToThirdPartyHost;
+        this.commandPrefixes = commandPrefixes;
+        this.commandNames = commandNames;
+        this.chatQueueSize = chatQueueSize;
+        this.commandLanes = commandLanes;
+        this.chatRateLimit = chatRateLimit;
+        this.chatAccountRateLimit = chatAccountRateLimit;
+        this.chatChannelRateLimit = chatChannelRateLimit;
+        this.whisperRateLimit = whisperRateLimit;
+        this.joinRateLimit = joinRateLimit;
+        this.taskExecutor = taskExecutor;
+        this.chatQueueTimeout = chatQueueTimeout;
+        this.proxyConfig = proxyConfig;
+        this.botOwnerIds = botOwnerIds;
+        this.parsePipelineConfig = parsePipelineConfig;
+        this.ingressFilter = ingressFilter;
+        this.captureWriter = captureWriter;
+        this.chatMetrics = chatMetrics;
+        this.maxChannelsPerShard = maxChannelsPerShard;
+        this.shardFailureTimeout = shardFailureTimeout;
+        this.redundant = redundant;
+        this.seenMessages = redundant ? new SeenSet() : null;
+        this.seenLines = redundant ? new SeenSet() : null;
+
+        // shared state
+        this.ircEventHandler = new IRCEventHandler(eventManager);
+        this.ircMessageBucket = Bucket4j.builder().addLimit(chatRateLimit).build();
+        this.ircAccountBucket = Bucket4j.builder().addLimit(chatAccountRateLimit).build();
+        final LocalBucketBuilder whisperBucketBuilder = Bucket4j.builder();
+        for (Bandwidth bandwidth : whisperRateLimit) {
+            whisperBucketBuilder.addLimit(bandwidth);
+        }
+        this.ircWhisperBucket = whisperBucketBuilder.build();
+        this.ircJoinBucket = Bucket4j.builder().addLimit(joinRateLimit).build();
+
+        // hash ring
+        for (int i = 0; i < shardCount; i++) {
+            for (int v = 0; v < VIRTUAL_NODES_PER_SHARD; v++) {
+                ring.putIfAbsent(hash(i * VIRTUAL_NODES_PER_SHARD + v), i);
+            }
+        }
+
+        // shards
+        this.shards = new TwitchChat[shardCount];
+        this.available = new boolean[shardCount];
+        this.disconnectedSince = new long[shardCount];
+        this.channelCounts = new int[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = createShard();
+            available[i] = true;
+        }
+
+        // register with serviceMediator, so the events can reply to their channel
+        this.routingChat = new RoutingChat(this);
+        eventManager.getServiceMediator().addService("twitch4j-chat", routingChat);
+
+        // register event handler
+        final CommandMatcher commandMatcher = new CommandMatcher(commandPrefixes, commandNames);
+        eventManager.onEvent(ChannelMessageEvent.class, event -> TwitchChat.onChannelMessage(eventManager, commandMatcher, event));
+
+        // join own channel - required for sending or receiving whispers
+        if (this.chatCredential != null && this.chatCredential.getUserName() != null) {
+            joinChannel(this.chatCredential.getUserName().toLowerCase());
+        } else {
+            log.warn("Chat: The whispers feature is currently not available because the provided credential does not hold information about the user.");
+        }
+
+        this.healthCheck = taskExecutor.scheduleWithFixedDelay(this::checkShards, HEALTH_CHECK_INTERVAL, HEALTH_CHECK_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Joining the channel
+     *
+     * @param channelName channel name
+     */
+    public void joinChannel(String channelName) {
+        String lowerChannelName = IdentityCache.lowerCase(channelName);
+
+        lock.lock();
+        try {
+            if (channelToShard.containsKey(lowerChannelName) || pendingChannels.contains(lowerChannelName)) {
+                log.warn("Already joined channel {}", channelName);
+                return;
+            }
+
+            if (redundant) {
+                channelToShard.put(lowerChannelName, ALL_SHARDS);
+                for (TwitchChat shard : shards) {
+                    shard.joinChannel(lowerChannelName);
+                }
+                return;
+            }
+
+            int shard = findShard(lowerChannelName);
+            if (shard < 0) {
+                log.warn("Cannot join channel {}: all shards are unavailable or at their capacity of {} channels", channelName, maxChannelsPerShard);
+                return;
+            }
+
+            assign(lowerChannelName, shard);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * leaving the channel
+     *
+     * @param channelName channel name
+     */
+    public void leaveChannel(String channelName) {
+        String lowerChannelName = IdentityCache.lowerCase(channelName);
+
+        lock.lock();
+        try {
+            Integer shard = channelToShard.remove(lowerChannelName);
+            if (shard != null && shard == ALL_SHARDS) {
+                for (TwitchChat s : shards) {
+                    s.leaveChannel(lowerChannelName);
+                }
+            } else if (shard != null) {
+                channelCounts[shard]--;
+                shards[shard].leaveChannel(lowerChannelName);
+            } else if (!pendingChannels.remove(lowerChannelName)) {
+                log.warn("Already left channel {}", channelName);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Check if a shard is currently in a channel
+     *
+     * @param channelName channel to check (without # prefix)
+     * @return boolean
+     */
+    public boolean isChannelJoined(String channelName) {
+        String lowerChannelName = IdentityCache.lowerCase(channelName);
+        return channelToShard.containsKey(lowerChannelName) || pendingChannels.contains(lowerChannelName);
+    }
+
+    /**
+     * Returns a set of all currently joined channels (without # prefix)
+     * <p>
+     * This includes the channels of failed shards that wait for a shard with spare capacity.
+     *
+     * @return a set of channel names
+     */
+    public Set<String> getChannels() {
+        if (pendingChannels.isEmpty())
+            return Collections.unmodifiableSet(channelToShard.keySet());
+
+        Set<String> channels = new HashSet<>(channelToShard.keySet());
+        channels.addAll(pendingChannels);
+        return Collections.unmodifiableSet(channels);
+    }
+
+    /**
+     * @return the number of channels waiting to be joined, over all shards
+     */
+    public int getPendingJoinCount() {
+        int n = 0;
+        for (TwitchChat shard : shards) {
+            n += shard.getPendingJoinCount();
+        }
+        return n;
+    }
+
+    /**
+     * @return the current shards, in order of their index
+     */
+    public List<TwitchChat> getShards() {
+        return Collections.unmodifiableList(Arrays.asList(shards.clone()));
+    }
+
+    /**
+     * Gets the shard that is responsible for a channel
+     *
+     * @param channelName channel name (without # prefix)
+     * @return the shard (in redundant mode, the first connected shard), or null if the channel is not joined
+     */
+    public TwitchChat getShard(String channelName) {
+        Integer shard = channelToShard.get(IdentityCache.lowerCase(channelName));
+        return shard != null ? shards[shard != ALL_SHARDS ? shard : primaryShard()] : null;
+    }
+
+    /**
+     * Send raw irc command over the first connected shard
+     *
+     * @param command raw irc command
+     * @return the outcome of adding the command to the queue
+     */
+    public EnqueueStatus sendRaw(String command) {
+        return shards[primaryShard()].sendRaw(command);
+    }
+
+    /**
+     * Sending message to the joined channel
+     *
+     * @param channel channel name
+     * @param message message
+     * @return the outcome of adding the message to the queue
+     */
+    public EnqueueStatus sendMessage(String channel, String message) {
+        return route(channel).sendMessage(channel, message);
+    }
+
+    /**
+     * Sends a message to the channel while including an optional nonce and/or reply parent.
+     *
+     * @param channel    the name of the channel to send the message to.
+     * @param message    the message to be sent.
+     * @param nonce      the cryptographic nonce (optional).
+     * @param replyMsgId the msgId of the parent message being replied to (optional).
+     * @return the outcome of adding the message to the queue
+     */
+    @Unofficial
+    public EnqueueStatus sendMessage(String channel, String message, String nonce, String replyMsgId) {
+        return route(channel).sendMessage(channel, message, nonce, replyMsgId);
+    }
+
+    /**
+     * Sends a message to the channel while including the specified message tags.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @param tags    the message tags (unofficial).
+     * @return the outcome of adding the message to the queue
+     */
+    public EnqueueStatus sendMessage(String channel, String message, @Unofficial Map<String, Object> tags) {
+        return route(channel).sendMessage(channel, message, tags);
+    }
+
+    /**
+     * Sends a message to the channel through the specified lane of the command queue.
+     *
+     * @param channel  the name of the channel to send the message to.
+     * @param message  the message to be sent.
+     * @param tags     the message tags (unofficial).
+     * @param priority the lane of the command queue.
+     * @return the outcome of adding the message to the queue
+     */
+    public EnqueueStatus sendMessage(String channel, String message, @Unofficial Map<String, Object> tags, CommandPriority priority) {
+        return route(channel).sendMessage(channel, message, tags, priority);
+    }
+
+    /**
+     * Sends a message to the channel and tracks its delivery.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @return a future that is completed when twitch echoes the message, see {@link TwitchChat#sendMessageAsync(String, String, Map)}
+     */
+    @Unofficial
+    public CompletableFuture<SendAcknowledgment> sendMessageAsync(String channel, String message) {
+        return route(channel).sendMessageAsync(channel, message);
+    }
+
+    /**
+     * Sends a message to the channel while including the specified message tags, and tracks its delivery.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @param tags    the message tags (unofficial), may be null.
+     * @return a future that is completed when twitch echoes the message, see {@link TwitchChat#sendMessageAsync(String, String, Map)}
+     */
+    @Unofficial
+    public CompletableFuture<SendAcknowledgment> sendMessageAsync(String channel, String message, @Unofficial Map<String, Object> tags) {
+        return route(channel).sendMessageAsync(channel, message, tags);
+    }
+
+    /**
+     * Sends a user a private message
+     *
+     * @param targetUser username
+     * @param message message
+     * @return the outcome of adding the whisper to the queue
+     */
+    public EnqueueStatus sendPrivateMessage(String targetUser, String message) {
+        return route(chatCredential != null ? chatCredential.getUserName() : null).sendPrivateMessage(targetUser, message);
+    }
+
+    /**
+     * Deletes a message.
+     *
+     * @param channel     the name of the channel to delete the message from.
+     * @param targetMsgId the unique id of the message to be deleted.
+     * @return the outcome of adding the command to the queue
+     * @see IRCMessageEvent#getMessageId()
+     */
+    public EnqueueStatus delete(String channel, String targetMsgId) {
+        return route(channel).delete(channel, targetMsgId);
+    }
+
+    /**
+     * Timeout a user
+     *
+     * @param channel channel
+     * @param user username
+     * @param duration duration
+     * @param reason reason
+     * @return the outcome of adding the command to the queue
+     */
+    public EnqueueStatus timeout(String channel, String user, Duration duration, String reason) {
+        return route(channel).timeout(channel, user, duration, reason);
+    }
+
+    /**
+     * Ban a user
+     *
+     * @param channel channel
+     * @param user username
+     * @param reason reason
+     * @return the outcome of adding the command to the queue
+     */
+    public EnqueueStatus ban(String channel, String user, String reason) {
+        return route(channel).ban(channel, user, reason);
+    }
+
+    /**
+     * Unban a user
+     *
+     * @param channel channel
+     * @param user username
+     * @return the outcome of adding the command to the queue
+     */
+    public EnqueueStatus unban(String channel, String user) {
+        return route(channel).unban(channel, user);
+    }
+
+    /**
+     * Close all shards
+     */
+    @Override
+    public void close() {
+        healthCheck.cancel(false);
+
+        lock.lock();
+        try {
+            closed = true;
+            for (TwitchChat shard : shards) {
+                closeShard(shard);
+            }
+        } finally {
+            lock.unlock();
+        }
+        closeShard(routingChat);
+
+        if (captureWriter != null) {
+            try {
+                captureWriter.close();
+            } catch (IOException e) {
+                log.warn("Failed to close chat capture", e);
+            }
+        }
+    }
+
+    /**
+     * Publishes a message received by a shard, dropping duplicates of messages that are delivered to every connection.
+     * <p>
+     * Messages of a channel are only published from the shard the channel is assigned to,
+     * and messages without a channel (including whispers) are only published from the first connected shard.
+     * In redundant mode, messages are published from any shard, unless they were published recently;
+     * lines without an id are only dropped if they were recently published from another shard.
+     *
+     * @param shard the receiving shard
+     * @param event the parsed message
+     */
+    void onShardMessage(TwitchChat shard, IRCMessageEvent event) {
+        if (redundant) {
+            final String id = event.getTags().get("id");
+            final boolean unseen;
+            if (id != null) {
+                unseen = seenMessages.add(SeenSet.hash(id));
+            } else {
+                final int index = indexOf(shard);
+                unseen = index >= 0 && seenLines.add(SeenSet.hash(event.getRawMessage()), index);
+            }
+            if (unseen) eventManager.publish(event);
+            return;
+        }
+
+        if ("WHISPER".equals(event.getCommandType()) || !event.getChannelName().isPresent()) {
+            if (shards[primaryShard()] != shard) return;
+        } else {
+            // unassigned channels (e.g. the confirmation of a part) are only received by the shard that was in the channel
+            Integer assigned = channelToShard.get(IdentityCache.lowerCase(event.getChannelName().get()));
+            if (assigned != null && shards[assigned] != shard) return;
+        }
+
+        eventManager.publish(event);
+    }
+
+    /**
+     * @return the index of the shard, or -1 if it was replaced
+     */
+    private int indexOf(TwitchChat shard) {
+        for (int i = 0; i < shards.length; i++) {
+            if (shards[i] == shard)
+                return i;
+        }
+        return -1;
+    }
+
+    /**
+     * @return the index of the first connected shard, or 0 if no shard is connected
+     */
+    private int primaryShard() {
+        for (int i = 0; i < shards.length; i++) {
+            final TwitchChat shard = shards[i];
+            if (shard != null && shard.getConnectionState() == TMIConnectionState.CONNECTED)
+                return i;
+        }
+        return 0;
+    }
+
+    /**
+     * @param channel the channel name, may be null
+     * @return the shard the channel is assigned to, or the first connected shard if the channel is not joined (or joined on all shards)
+     */
+    private TwitchChat route(String channel) {
+        Integer shard = channel != null ? channelToShard.get(IdentityCache.lowerCase(channel)) : null;
+        return shards[shard != null && shard != ALL_SHARDS ? shard : primaryShard()];
+    }
+
+    /**
+     * Walks the hash ring clockwise from the point of the channel, until a shard with spare capacity is found.
+     * <p>
+     * Must be called while holding the lock.
+     *
+     * @param channel the lower case channel name
+     * @return the shard index, or -1 if no shard may receive the channel
+     */
+    private int findShard(String channel) {
+        final Integer point = hash(channel.hashCode());
+        final boolean[] visited = new boolean[shards.length];
+        final int[] remaining = { shards.length };
+
+        int shard = findShard(ring.tailMap(point, true).values(), visited, remaining);
+        if (shard < 0 && remaining[0] > 0)
+            shard = findShard(ring.headMap(point, false).values(), visited, remaining);
+        return shard;
+    }
+
+    private int findShard(Collection<Integer> candidates, boolean[] visited, int[] remaining) {
+        for (Integer shard : candidates) {
+            if (visited[shard]) continue;
+            if (available[shard] && (maxChannelsPerShard < 0 || channelCounts[shard] < maxChannelsPerShard))
+                return shard;
+
+            visited[shard] = true;
+            if (--remaining[0] == 0) break;
+        }
+        return -1;
+    }
+
+    /**
+     * Must be called while holding the lock.
+     */
+    private void assign(String channel, int shard) {
+        channelToShard.put(channel, shard);
+        channelCounts[shard]++;
+        shards[shard].joinChannel(channel);
+    }
+
+    private void checkShards() {
+        checkShards(System.currentTimeMillis());
+    }
+
+    /**
+     * Detects failed shards, moves their channels to other shards and replaces them.
+     *
+     * @param now the current time in milliseconds
+     */
+    void checkShards(long now) {
+        try {
+            boolean anyConnected = false;
+            for (TwitchChat shard : shards) {
+                if (shard.getConnectionState() == TMIConnectionState.CONNECTED) {
+                    anyConnected = true;
+                    break;
+                }
+            }
+
+            final List<Integer> failed = new ArrayList<>();
+            lock.lock();
+            try {
+                for (int i = 0; i < shards.length; i++) {
+                    if (shards[i].getConnectionState() == TMIConnectionState.CONNECTED) {
+                        disconnectedSince[i] = 0L;
+                        available[i] = true;
+                    } else if (disconnectedSince[i] == 0L) {
+                        disconnectedSince[i] = now;
+                    } else if (anyConnected && available[i] && now - disconnectedSince[i] > shardFailureTimeout) {
+                        releaseShard(i);
+                        failed.add(i);
+                    }
+                }
+
+                if (!pendingChannels.isEmpty())
+                    assignPendingChannels();
+            } finally {
+                lock.unlock();
+            }
+
+            // the connection of a replacement may take a while (including its reconnect backoff), so it is created outside of the lock
+            for (int index : failed) {
+                replaceShard(index, createShard(), now);
+            }
+        } catch (Exception e) {
+            log.error("Failed to check the health of the chat shards", e);
+        }
+    }
+
+    /**
+     * Takes a failed shard out of rotation and moves its channels to the other shards, until it is replaced.
+     * <p>
+     * Must be called while holding the lock.
+     */
+    private void releaseShard(int index) {
+        available[index] = false;
+        if (redundant) {
+            // the other shards remain in all channels; the fresh shard joins them once it is created
+            log.warn("Chat shard {} has been disconnected for more than {} ms, replacing it", index, shardFailureTimeout);
+            return;
+        }
+
+        log.warn("Chat shard {} has been disconnected for more than {} ms, moving its channels to the other shards", index, shardFailureTimeout);
+
+        List<String> channels = new ArrayList<>();
+        channelToShard.forEach((channel, shard) -> {
+            if (shard == index) channels.add(channel);
+        });
+
+        // rejoin channels on the remaining shards
+        for (String channel : channels) {
+            channelToShard.remove(channel);
+            channelCounts[index]--;
+
+            int shard = findShard(channel);
+            if (shard >= 0) {
+                assign(channel, shard);
+            } else {
+                pendingChannels.add(channel);
+                log.warn("Postponed channel {} of failed chat shard {}: all other shards are unavailable or at their capacity", channel, index);
+            }
+        }
+    }
+
+    /**
+     * Assigns the pending channels of failed shards, as far as the shards have spare capacity.
+     * <p>
+     * Must be called while holding the lock.
+     */
+    private void assignPendingChannels() {
+        for (Iterator<String> it = pendingChannels.iterator(); it.hasNext(); ) {
+            final String channel = it.next();
+            final int shard = findShard(channel);
+            if (shard < 0) break;
+
+            it.remove();
+            assign(channel, shard);
+        }
+    }
+
+    /**
+     * Swaps the connection of a failed shard for a fresh one; in sharded mode, the fresh shard receives new channels once it is connected
+     *
+     * @param index       the shard index
+     * @param replacement the fresh connection
+     * @param now         the current time in milliseconds
+     */
+    private void replaceShard(int index, TwitchChat replacement, long now) {
+        final TwitchChat failed;
+        lock.lock();
+        try {
+            if (closed) {
+                failed = replacement;
+            } else {
+                failed = shards[index];
+                shards[index] = replacement;
+                disconnectedSince[index] = now;
+                if (redundant) channelToShard.keySet().forEach(replacement::joinChannel);
+            }
+        } finally {
+            lock.unlock();
+        }
+        closeShard(failed);
+    }
+
+    /**
+     * Creates the connection of a new or replaced shard
+     *
+     * @return the shard
+     */
+    TwitchChat createShard() {
+        return new TwitchChat(eventManager, credentialManager, chatCredential, baseUrl, sendCredentialToThirdPartyHost, commandPrefixes, commandNames, chatQueueSize, commandLanes, chatRateLimit, chatAccountRateLimit, chatChannelRateLimit, whisperRateLimit, joinRateLimit, taskExecutor, chatQueueTimeout, proxyConfig, botOwnerIds, parsePipelineConfig, ingressFilter, captureWriter, chatMetrics, this);
+    }
+
+    private static void closeShard(TwitchChat shard) {
+        try {
+            shard.close();
+        } catch (Exception e) {
+            log.debug("Failed to close chat shard", e);
+        }
+    }
+
+    /**
+     * A {@link TwitchChat} without a connection of its own, which forwards the commands and channel changes to the sharded chat.
+     * <p>
+     * It is registered as the chat service, so the helpers of the events (which send through {@link com.github.twitch4j.chat.events.TwitchEvent#getTwitchChat()})
+     * also work for a sharded chat.
+     */
+    private static final class RoutingChat extends TwitchChat {
+
+        private final ShardedTwitchChat shardedChat;
+
+        private RoutingChat(ShardedTwitchChat shardedChat) {
+            super(shardedChat.eventManager, shardedChat.credentialManager, shardedChat.chatCredential, shardedChat.baseUrl, shardedChat.sendCredentialToThirdPartyHost, shardedChat.commandPrefixes, shardedChat.commandNames, shardedChat.chatQueueSize, shardedChat.commandLanes, shardedChat.chatRateLimit, shardedChat.chatAccountRateLimit, shardedChat.chatChannelRateLimit, shardedChat.whisperRateLimit, shardedChat.joinRateLimit, shardedChat.taskExecutor, shardedChat.chatQueueTimeout, null, shardedChat.botOwnerIds, null, null, null, null, shardedChat);
+            this.shardedChat = shardedChat;
+        }
+
+        @Override
+        public void connect() {
+            // the shards hold the connections
+        }
+
+        @Override
+        public void disconnect() {
+            // the shards hold the connections
+        }
+
+        @Override
+        public TMIConnectionState getConnectionState() {
+            return shardedChat.shards[shardedChat.primaryShard()].getConnectionState();
+        }
+
+        @Override
+        public EnqueueStatus sendRaw(String command) {
+            return shardedChat.sendRaw(command);
+        }
+
+        @Override
+        public void joinChannel(String channelName) {
+            shardedChat.joinChannel(channelName);
+        }
+
+        @Override
+        public void leaveChannel(String channelName) {
+            shardedChat.leaveChannel(channelName);
+        }
+
+        @Override
+        public int getPendingJoinCount() {
+            return shardedChat.getPendingJoinCount();
+        }
+
+        @Override
+        public EnqueueStatus sendMessage(String channel, String message, Map<String, Object> tags, CommandPriority priority) {
+            return shardedChat.sendMessage(channel, message, tags, priority);
+        }
+
+        @Override
+        public CompletableFuture<SendAcknowledgment> sendMessageAsync(String channel, String message, Map<String, Object> tags) {
+            return shardedChat.sendMessageAsync(channel, message, tags);
+        }
+
+        @Override
+        public EnqueueStatus sendPrivateMessage(String targetUser, String message) {
+            return shardedChat.sendPrivateMessage(targetUser, message);
+        }
+
+        @Override
+        public EnqueueStatus delete(String channel, String targetMsgId) {
+            return shardedChat.delete(channel, targetMsgId);
+        }
+
+        @Override
+        public EnqueueStatus timeout(String channel, String user, Duration duration, String reason) {
+            return shardedChat.timeout(channel, user, duration, reason);
+        }
+
+        @Override
+        public EnqueueStatus ban(String channel, String user, String reason) {
+            return shardedChat.ban(channel, user, reason);
+        }
+
+        @Override
+        public EnqueueStatus unban(String channel, String user) {
+            return shardedChat.unban(channel, user);
+        }
+
+        @Override
+        public boolean isChannelJoined(String channelName) {
+            return shardedChat.isChannelJoined(channelName);
+        }
+
+        @Override
+        @Deprecated
+        public List<String> getCurrentChannels() {
+            return Collections.unmodifiableList(new ArrayList<>(shardedChat.getChannels()));
+        }
+
+        @Override
+        public Set<String> getChannels() {
+            return shardedChat.getChannels();
+        }
+
+    }
+
+    /**
+     * Scrambles the bits of a value, to spread the points of the hash ring (murmur3 finalizer)
+     */
+    private static int hash(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
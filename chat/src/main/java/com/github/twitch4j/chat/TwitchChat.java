@@ -5,18 +5,38 @@ import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.philippheuer.events4j.core.EventManager;
 import com.github.philippheuer.events4j.simple.SimpleEventHandler;
 import com.github.twitch4j.auth.providers.TwitchIdentityProvider;
+import com.github.twitch4j.chat.capture.CaptureReplayer;
+import com.github.twitch4j.chat.capture.CaptureWriter;
+import com.github.twitch4j.chat.enums.CommandPriority;
 import com.github.twitch4j.chat.enums.CommandSource;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
 import com.github.twitch4j.chat.enums.TMIConnectionState;
 import com.github.twitch4j.chat.events.CommandEvent;
 import com.github.twitch4j.chat.events.IRCEventHandler;
 import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
 import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.metrics.ChatMetrics;
+import com.github.twitch4j.chat.util.ChatRateLimiter;
+import com.github.twitch4j.chat.util.CommandLaneConfig;
+import com.github.twitch4j.chat.util.CommandMatcher;
+import com.github.twitch4j.chat.util.IRCFrameSplitter;
+import com.github.twitch4j.chat.util.IRCLine;
+import com.github.twitch4j.chat.util.IngressFilter;
+import com.github.twitch4j.chat.util.IngressFilters;
+import com.github.twitch4j.chat.util.MembershipBatcher;
+import com.github.twitch4j.chat.util.ParsePipeline;
+import com.github.twitch4j.chat.util.ParsePipelineConfig;
+import com.github.twitch4j.chat.util.PriorityCommandQueue;
+import com.github.twitch4j.chat.util.SendAcknowledgment;
+import com.github.twitch4j.chat.util.SendTracker;
 import com.github.twitch4j.common.annotation.Unofficial;
 import com.github.twitch4j.common.config.ProxyConfig;
+import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.util.ChatReply;
 import com.github.twitch4j.common.util.CryptoUtils;
 import com.github.twitch4j.common.util.EscapeUtils;
 import com.github.twitch4j.common.util.ExponentialBackoffStrategy;
+import com.github.twitch4j.common.util.IdentityCache;
 import com.neovisionaries.ws.client.WebSocket;
 import com.neovisionaries.ws.client.WebSocketAdapter;
 import com.neovisionaries.ws.client.WebSocketFactory;
@@ -24,14 +44,16 @@ import com.neovisionaries.ws.client.WebSocketFrame;
 import io.github.bucket4j.Bandwidth;
 import io.github.bucket4j.Bucket;
 import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
 import io.github.bucket4j.local.LocalBucketBuilder;
 import lombok.Getter;
+import lombok.NonNull;
 import lombok.Synchronized;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
@@ -39,22 +61,41 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Slf4j
 public class TwitchChat implements AutoCloseable {
 
-    public static final int REQUIRED_THREAD_COUNT = 2;
+    /**
+     * Number of executor threads required by one instance
+     * <p>
+     * The command queues are processed by short tasks that are only scheduled when a command is queued or a token is refilled,
+     * so no thread is occupied permanently.
+     */
+    public static final int REQUIRED_THREAD_COUNT = 1;
+
+    /**
+     * Maximum length of an irc line, excluding the line terminator
+     */
+    public static final int MAX_LINE_LENGTH = 510;
+
+    /**
+     * Prefix of the commands sent by {@link #sendMessageAsync(String, String, Map)}
+     */
+    private static final String NONCE_PREFIX = "@" + IRCMessageEvent.NONCE_TAG_NAME + "=";
+
+    /**
+     * Matches the NOTICEs that reject sent messages (e.g. msg_ratelimit or msg_duplicate)
+     */
+    private static final IngressFilter SEND_REJECTION = IngressFilters.commands("NOTICE").and(IngressFilters.tagValueStartsWith("msg-id", "msg_"));
 
     /**
      * EventManager
@@ -129,40 +170,82 @@ public class TwitchChat implements AutoCloseable {
     /**
      * IRC Message Bucket
      */
+    @Getter
     protected final Bucket ircMessageBucket;
 
     /**
      * IRC Whisper Bucket
      */
+    @Getter
     protected final Bucket ircWhisperBucket;
 
     /**
-     * IRC Command Queue
+     * IRC Account Bucket, consumed by the messages to all channels
+     */
+    @Getter
+    protected final Bucket ircAccountBucket;
+
+    /**
+     * Rate limits messages per channel, based on the privileges of the account in each channel
+     */
+    protected final ChatRateLimiter chatRateLimiter;
+
+    /**
+     * Whether a flush of the command queues is scheduled
      */
-    protected final BlockingQueue<String> ircCommandQueue;
+    private final AtomicBoolean commandFlushScheduled = new AtomicBoolean();
 
     /**
-     * Whisper-specific Command Queue
+     * IRC Join Bucket
      */
-    protected final BlockingQueue<String> whisperCommandQueue;
+    @Getter
+    protected final Bucket ircJoinBucket;
+
+    /**
+     * IRC Command Queue, with one lane per {@link CommandPriority}
+     */
+    @Getter
+    protected final PriorityCommandQueue commandQueue;
 
     /**
-     * Custom RateLimit for ChatMessages
+     * Pending channel joins and parts, guarded by the channel cache lock
+     * <p>
+     * Only the latest request per channel is kept, and the requests are sent in batches by {@link #flushMemberships()}
+     */
+    protected final MembershipBatcher membershipBatcher;
+
+    /**
+     * Whether a flush of the pending joins and parts is scheduled
+     */
+    private final AtomicBoolean membershipFlushScheduled = new AtomicBoolean();
+
+    /**
+     * Custom RateLimit for ChatMessages in channels where the account is neither broadcaster, moderator nor vip
      */
     protected final Bandwidth chatRateLimit;
 
+    /**
+     * Custom RateLimit for ChatMessages in all channels
+     */
+    protected final Bandwidth chatAccountRateLimit;
+
+    /**
+     * Custom RateLimit for ChatMessages per channel where the account is neither broadcaster, moderator nor vip
+     */
+    protected final Bandwidth chatChannelRateLimit;
+
     /**
      * Custom RateLimit for Whispers
      */
     protected final Bandwidth[] whisperRateLimit;
 
     /**
-     * IRC Command Queue Thread
+     * Custom RateLimit for Joins
      */
-    protected final ScheduledFuture<?> queueThread;
+    protected final Bandwidth joinRateLimit;
 
     /**
-     * Command Queue Thread stop flag
+     * Stops the scheduled command flushes, set once the connection is closed
      */
     protected volatile Boolean stopQueueThread = false;
 
@@ -176,6 +259,11 @@ public class TwitchChat implements AutoCloseable {
      */
     protected final List<String> commandPrefixes;
 
+    /**
+     * Matches the command prefixes and registered command names
+     */
+    protected final CommandMatcher commandMatcher;
+
     /**
      * Thread Pool Executor
      */
@@ -183,8 +271,10 @@ public class TwitchChat implements AutoCloseable {
 
     /**
      * Time to wait for an item on the chat queue before continuing to next iteration
-     * If set too high your thread will be late check to shutdown
+     *
+     * @deprecated no longer used, as the command queues are processed as soon as a command is queued or a token is refilled
      */
+    @Deprecated
     protected final long chatQueueTimeout;
 
     /**
@@ -192,6 +282,12 @@ public class TwitchChat implements AutoCloseable {
      */
     protected final WebSocketFactory webSocketFactory;
 
+    /**
+     * IRC Event Handler, which allows registering parsers for additional commands or msg-ids
+     */
+    @Getter
+    protected final IRCEventHandler ircEventHandler;
+
     /**
      * Helper class to compute delays between connection retries.
      *
@@ -210,8 +306,74 @@ public class TwitchChat implements AutoCloseable {
      */
     private volatile Future<?> backoffClearer;
 
+    /**
+     * The sharded chat this connection belongs to, or null for a standalone connection
+     */
+    protected final ShardedTwitchChat shardedChat;
+
+    /**
+     * Decides which incoming lines are parsed and published, or null to accept all lines
+     */
+    protected final IngressFilter ingressFilter;
+
+    /**
+     * Records the incoming lines, or null
+     */
+    protected final CaptureWriter captureWriter;
+
+    /**
+     * Receives the measurements of this connection
+     */
+    @Getter
+    protected final ChatMetrics chatMetrics;
+
+    /**
+     * Correlates the messages sent by {@link #sendMessageAsync(String, String, Map)} with their acknowledgment
+     */
+    @Getter
+    protected final SendTracker sendTracker;
+
+    /**
+     * Parses and publishes incoming lines off the websocket reader thread, or null to do so on the reader thread
+     */
+    @Getter
+    protected final ParsePipeline parsePipeline;
+
+    /**
+     * Constructor
+     *
+     * @param eventManager EventManager
+     * @param credentialManager CredentialManager
+     * @param chatCredential Chat Credential
+     * @param baseUrl The websocket url for the chat client to connect to
+     * @param sendCredentialToThirdPartyHost Whether the password should be sent when the baseUrl is not official
+     * @param commandPrefixes Command Prefixes
+     * @param commandNames Registered command names, or an empty collection to publish any command
+     * @param chatQueueSize Chat Queue Size
+     * @param commandLanes Configurations of the command queue lanes, which override the defaults based on the chat queue size
+     * @param chatRateLimit Bandwidth / Bucket for chat in channels where the account is neither broadcaster, moderator nor vip
+     * @param chatAccountRateLimit Bandwidth / Bucket for chat in all channels
+     * @param chatChannelRateLimit Bandwidth / Bucket for chat per channel where the account is neither broadcaster, moderator nor vip
+     * @param whisperRateLimit Bandwidth / Buckets for whispers
+     * @param joinRateLimit Bandwidth / Bucket for joining channels
+     * @param taskExecutor ScheduledThreadPoolExecutor
+     * @param chatQueueTimeout Unused, see {@link #chatQueueTimeout}
+     * @param proxyConfig Proxy Configuration
+     * @param botOwnerIds Bot Owner IDs
+     * @param parsePipelineConfig Configuration of the parse pipeline, or null to parse and publish incoming lines on the websocket reader thread
+     * @param ingressFilter Filter that decides which incoming lines are parsed and published, or null to accept all lines
+     * @param captureWriter Records the incoming lines, or null
+     * @param chatMetrics Receives the measurements of the connection, or null to record nothing
+     */
+    public TwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Collection<String> commandNames, Integer chatQueueSize, Map<CommandPriority, CommandLaneConfig> commandLanes, Bandwidth chatRateLimit, Bandwidth chatAccountRateLimit, Bandwidth chatChannelRateLimit, Bandwidth[] whisperRateLimit, Bandwidth joinRateLimit, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig, Collection<String> botOwnerIds, ParsePipelineConfig parsePipelineConfig, IngressFilter ingressFilter, CaptureWriter captureWriter, ChatMetrics chatMetrics) {
+        this(eventManager, credentialManager, chatCredential, baseUrl, sendCredentialToThirdPartyHost, commandPrefixes, commandNames, chatQueueSize, commandLanes, chatRateLimit, chatAccountRateLimit, chatChannelRateLimit, whisperRateLimit, joinRateLimit, taskExecutor, chatQueueTimeout, proxyConfig, botOwnerIds, parsePipelineConfig, ingressFilter, captureWriter, chatMetrics, null);
+    }
+
     /**
      * Constructor
+     * <p>
+     * When this connection is a shard of a {@link ShardedTwitchChat}, the shared event handlers are registered by the sharded chat
+     * instead, irc messages are published through it, and the own channel is not joined automatically.
      *
      * @param eventManager EventManager
      * @param credentialManager CredentialManager
@@ -219,151 +381,178 @@ public class TwitchChat implements AutoCloseable {
      * @param baseUrl The websocket url for the chat client to connect to
      * @param sendCredentialToThirdPartyHost Whether the password should be sent when the baseUrl is not official
      * @param commandPrefixes Command Prefixes
+     * @param commandNames Registered command names, or an empty collection to publish any command
      * @param chatQueueSize Chat Queue Size
-     * @param chatRateLimit Bandwidth / Bucket for chat
+     * @param commandLanes Configurations of the command queue lanes, which override the defaults based on the chat queue size
+     * @param chatRateLimit Bandwidth / Bucket for chat in channels where the account is neither broadcaster, moderator nor vip
+     * @param chatAccountRateLimit Bandwidth / Bucket for chat in all channels
+     * @param chatChannelRateLimit Bandwidth / Bucket for chat per channel where the account is neither broadcaster, moderator nor vip
      * @param whisperRateLimit Bandwidth / Buckets for whispers
+     * @param joinRateLimit Bandwidth / Bucket for joining channels
      * @param taskExecutor ScheduledThreadPoolExecutor
-     * @param chatQueueTimeout Timeout to wait for events in Chat Queue
+     * @param chatQueueTimeout Unused, see {@link #chatQueueTimeout}
      * @param proxyConfig Proxy Configuration
      * @param botOwnerIds Bot Owner IDs
+     * @param parsePipelineConfig Configuration of the parse pipeline, or null to parse and publish incoming lines on the websocket reader thread
+     * @param ingressFilter Filter that decides which incoming lines are parsed and published, or null to accept all lines
+     * @param captureWriter Records the incoming lines, or null
+     * @param chatMetrics Receives the measurements of the connection, or null to record nothing
+     * @param shardedChat The sharded chat this connection belongs to, or null
      */
-    public TwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Integer chatQueueSize, Bandwidth chatRateLimit, Bandwidth[] whisperRateLimit, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig, Collection<String> botOwnerIds) {
+    TwitchChat(EventManager eventManager, CredentialManager credentialManager, OAuth2Credential chatCredential, String baseUrl, boolean sendCredentialToThirdPartyHost, List<String> commandPrefixes, Collection<String> commandNames, Integer chatQueueSize, Map<CommandPriority, CommandLaneConfig> commandLanes, Bandwidth chatRateLimit, Bandwidth chatAccountRateLimit, Bandwidth chatChannelRateLimit, Bandwidth[] whisperRateLimit, Bandwidth joinRateLimit, ScheduledThreadPoolExecutor taskExecutor, long chatQueueTimeout, ProxyConfig proxyConfig, Collection<String> botOwnerIds, ParsePipelineConfig parsePipelineConfig, IngressFilter ingressFilter, CaptureWriter captureWriter, ChatMetrics chatMetrics, ShardedTwitchChat shardedChat) {
         this.eventManager = eventManager;
         this.credentialManager = credentialManager;
-        this.chatCredential = chatCredential;
+        // the sharded chat enriches the credential once for all shards
+        this.chatCredential = shardedChat == null ? enrichCredential(credentialManager, chatCredential) : chatCredential;
         this.baseUrl = baseUrl;
         this.sendCredentialToThirdPartyHost = sendCredentialToThirdPartyHost;
         this.commandPrefixes = commandPrefixes;
+        this.commandMatcher = new CommandMatcher(commandPrefixes, commandNames);
         this.botOwnerIds = botOwnerIds;
-        this.ircCommandQueue = new ArrayBlockingQueue<>(chatQueueSize, true);
-        this.whisperCommandQueue = new LinkedBlockingQueue<>();
+        this.commandQueue = new PriorityCommandQueue(chatQueueSize, commandLanes);
         this.chatRateLimit = chatRateLimit;
+        this.chatAccountRateLimit = chatAccountRateLimit;
+        this.chatChannelRateLimit = chatChannelRateLimit;
         this.whisperRateLimit = whisperRateLimit;
+        this.joinRateLimit = joinRateLimit;
         this.taskExecutor = taskExecutor;
         this.chatQueueTimeout = chatQueueTimeout;
+        this.shardedChat = shardedChat;
+        this.ingressFilter = ingressFilter;
+        this.captureWriter = captureWriter;
+        this.chatMetrics = chatMetrics != null ? chatMetrics : ChatMetrics.NOOP;
+        this.sendTracker = new SendTracker(taskExecutor, SendTracker.DEFAULT_TIMEOUT);
 
         // Create WebSocketFactory and apply proxy settings
         this.webSocketFactory = new WebSocketFactory();
         if (proxyConfig != null)
             proxyConfig.applyWs(webSocketFactory.getProxySettings());
 
-        // credential validation
-        if (this.chatCredential == null) {
+        // register with serviceMediator
+        if (shardedChat == null)
+            this.eventManager.getServiceMediator().addService("twitch4j-chat", this);
+
+        // register event listeners
+        this.ircEventHandler = shardedChat == null ? new IRCEventHandler(this) : shardedChat.getIrcEventHandler();
+
+        // initialize rate-limiting (twitch applies these limits per account, so shards share the buckets of the sharded chat)
+        if (shardedChat != null) {
+            this.ircMessageBucket = shardedChat.getIrcMessageBucket();
+            this.ircAccountBucket = shardedChat.getIrcAccountBucket();
+            this.ircWhisperBucket = shardedChat.getIrcWhisperBucket();
+            this.ircJoinBucket = shardedChat.getIrcJoinBucket();
+        } else {
+            this.ircMessageBucket = Bucket4j.builder()
+                .addLimit(this.chatRateLimit)
+                .build();
+
+            this.ircAccountBucket = Bucket4j.builder()
+                .addLimit(this.chatAccountRateLimit)
+                .build();
+
+            final LocalBucketBuilder whisperBucketBuilder = Bucket4j.builder();
+            for (Bandwidth bandwidth : whisperRateLimit) {
+                whisperBucketBuilder.addLimit(bandwidth);
+            }
+            this.ircWhisperBucket = whisperBucketBuilder.build();
+
+            this.ircJoinBucket = Bucket4j.builder()
+                .addLimit(this.joinRateLimit)
+                .build();
+        }
+
+        this.chatRateLimiter = new ChatRateLimiter(ircAccountBucket, ircMessageBucket, chatChannelRateLimit);
+        this.membershipBatcher = new MembershipBatcher(ircJoinBucket, MAX_LINE_LENGTH);
+        this.chatMetrics.bindGauges(this);
+
+        // parse and publish incoming lines off the websocket reader thread
+        this.parsePipeline = parsePipelineConfig == null ? null : new ParsePipeline("twitch4j-chat-ingress", parsePipelineConfig, this::parseLine, this::dispatchEvent);
+
+        // connect to irc
+        this.connect();
+
+        // Event Handlers
+        log.debug("Registering the following command triggers: " + commandPrefixes.toString());
+
+        // register event handler (shards are served by the listeners of the sharded chat, and update their channel cache directly)
+        if (shardedChat == null) {
+            eventManager.onEvent(ChannelMessageEvent.class, this::onChannelMessage);
+            eventManager.onEvent(IRCMessageEvent.class, this::updateChannelState);
+        }
+    }
+
+    /**
+     * Validates the chat credential and fetches its user information, if missing
+     *
+     * @param credentialManager CredentialManager
+     * @param chatCredential Chat Credential, or null to join anonymously
+     * @return the credential with the user information, or the provided credential if it could not be enriched
+     */
+    static OAuth2Credential enrichCredential(CredentialManager credentialManager, OAuth2Credential chatCredential) {
+        if (chatCredential == null) {
             log.info("TwitchChat: No ChatAccount provided, Chat will be joined anonymously! Please look at the docs Twitch4J -> Chat if this is unintentional");
-        } else if (this.chatCredential.getUserName() == null) {
+        } else if (chatCredential.getUserName() == null) {
             log.info("TwitchChat: AccessToken does not contain any user information, fetching using the CredentialManager ...");
 
             // credential manager
             Optional<OAuth2Credential> credential = credentialManager.getOAuth2IdentityProviderByName("twitch")
                 .orElse(new TwitchIdentityProvider(null, null, null))
-                .getAdditionalCredentialInformation(this.chatCredential);
+                .getAdditionalCredentialInformation(chatCredential);
             if (credential.isPresent()) {
-                this.chatCredential = credential.get();
+                return credential.get();
             } else {
                 log.error("TwitchChat: Failed to get AccessToken Information, the token is probably not valid. Please check the docs Twitch4J -> Chat on how to obtain a valid token.");
             }
         }
+        return chatCredential;
+    }
 
-        // register with serviceMediator
-        this.eventManager.getServiceMediator().addService("twitch4j-chat", this);
-
-        // register event listeners
-        IRCEventHandler ircEventHandler = new IRCEventHandler(this);
-
-        // initialize rate-limiting
-        this.ircMessageBucket = Bucket4j.builder()
-            .addLimit(this.chatRateLimit)
-            .build();
-
-        final LocalBucketBuilder whisperBucketBuilder = Bucket4j.builder();
-        for (Bandwidth bandwidth : whisperRateLimit) {
-            whisperBucketBuilder.addLimit(bandwidth);
-        }
-        this.ircWhisperBucket = whisperBucketBuilder.build();
-
-        // connect to irc
-        this.connect();
-
-        // queue command worker
-        Runnable queueTask = () -> {
-            while (!stopQueueThread) {
-                String command = null;
-                Bucket bucket;
+    /**
+     * Caches the channel id and name of joined channels, and applies the rate limits for the privileges of the account in the channel
+     *
+     * @param event IRCMessageEvent
+     */
+    private void updateChannelState(IRCMessageEvent event) {
+        // we get at least one room state event with channel name + id when we join a channel, so we cache that to provide channel id + name for all events
+        if ("ROOMSTATE".equalsIgnoreCase(event.getCommandType())) {
+            // check that channel id / name are present and that we didn't leave the channel yet
+            if (event.getChannelId() != null) {
+                channelCacheLock.lock();
                 try {
-                    // wait for queue, only have a timeout set to allow multiple loops to check stopQueueThread
-                    // attempt to grab command from whisper queue before falling back to the general queue
-                    if (!whisperCommandQueue.isEmpty() && ircWhisperBucket.tryConsume(1L)) {
-                        ircWhisperBucket.addTokens(1L);
-                        command = whisperCommandQueue.poll(this.chatQueueTimeout, TimeUnit.MILLISECONDS);
-                        bucket = ircWhisperBucket;
-                    } else {
-                        command = ircCommandQueue.poll(this.chatQueueTimeout, TimeUnit.MILLISECONDS);
-                        bucket = ircMessageBucket;
-                    }
-
-                    if (command != null) {
-                        // Send the message, retrying forever until we are connected.
-                        while (!stopQueueThread) {
-                            if (connectionState.equals(TMIConnectionState.CONNECTED)) {
-                                // block thread, until we can continue
-                                bucket.asScheduler().consume(1);
-
-                                sendTextToWebSocket(command, false);
-                                break;
-                            }
-                            // Sleep for 25 milliseconds to wait for reconnection
-                            TimeUnit.MILLISECONDS.sleep(25L);
+                    // store mapping info into channelIdToChannelName / channelNameToChannelId
+                    event.getChannelName().map(IdentityCache::lowerCase).filter(currentChannels::contains).ifPresent(name -> {
+                        String oldName = channelIdToChannelName.put(event.getChannelId(), name);
+                        if (!name.equals(oldName)) {
+                            if (oldName != null) channelNameToChannelId.remove(oldName, event.getChannelId());
+                            channelNameToChannelId.put(name, event.getChannelId());
                         }
-                        // Logging
-                        log.debug("Processed command from queue: [{}].", command.startsWith("PASS") ? "***OAUTH TOKEN HIDDEN***" : command);
-                        log.debug("{} messages left before hitting the rate-limit!", ircMessageBucket.getAvailableTokens());
-                    }
-                } catch (Exception ex) {
-                    log.error("Failed to process message from command queue", ex);
-
-                    // Reschedule command for processing
-                    if (command != null) {
-                        try {
-                            ircCommandQueue.put(command);
-                        } catch (InterruptedException e) {
-                            log.error("Failed to reschedule command", e);
-                        }
-                    }
-
+                    });
+                } finally {
+                    channelCacheLock.unlock();
                 }
             }
-        };
-
-        // Thread will start right now
-        this.queueThread = taskExecutor.schedule(queueTask, 1L, TimeUnit.MILLISECONDS);
-        log.debug("Started IRC Queue Worker");
-
-        // Event Handlers
-        log.debug("Registering the following command triggers: " + commandPrefixes.toString());
-
-        // register event handler
-        eventManager.onEvent(ChannelMessageEvent.class, this::onChannelMessage);
-        eventManager.onEvent(IRCMessageEvent.class, event -> {
-            // we get at least one room state event with channel name + id when we join a channel, so we cache that to provide channel id + name for all events
-            if ("ROOMSTATE".equalsIgnoreCase(event.getCommandType())) {
-                // check that channel id / name are present and that we didn't leave the channel yet
-                if (event.getChannelId() != null) {
-                    channelCacheLock.lock();
-                    try {
-                        // store mapping info into channelIdToChannelName / channelNameToChannelId
-                        event.getChannelName().map(String::toLowerCase).filter(currentChannels::contains).ifPresent(name -> {
-                            String oldName = channelIdToChannelName.put(event.getChannelId(), name);
-                            if (!name.equals(oldName)) {
-                                if (oldName != null) channelNameToChannelId.remove(oldName, event.getChannelId());
-                                channelNameToChannelId.put(name, event.getChannelId());
-                            }
-                        });
-                    } finally {
-                        channelCacheLock.unlock();
-                    }
+        } else if ("USERSTATE".equalsIgnoreCase(event.getCommandType())) {
+            // upgrade (or downgrade) the message rate limit based on the badges of the account
+            event.getChannelName().map(IdentityCache::lowerCase).filter(currentChannels::contains).ifPresent(name -> {
+                Set<CommandPermission> permissions = event.getClientPermissions();
+                boolean privileged = permissions.contains(CommandPermission.BROADCASTER) || permissions.contains(CommandPermission.MODERATOR) || permissions.contains(CommandPermission.VIP);
+                if (privileged != chatRateLimiter.isPrivileged(name)) {
+                    chatRateLimiter.setPrivileged(name, privileged);
+                    log.debug("Applying the {} message rate limit to channel [{}].", privileged ? "privileged" : "default", name);
                 }
+            });
+        }
+
+        // correlate the echoed nonces and rejections with the tracked messages
+        if (!sendTracker.isEmpty()) {
+            if ("USERSTATE".equals(event.getCommandType()) || "PRIVMSG".equals(event.getCommandType())) {
+                event.getTagValue(IRCMessageEvent.NONCE_TAG_NAME).ifPresent(nonce -> sendTracker.acknowledge(nonce, event.getTagValue("id").orElse(null)));
+            } else if ("NOTICE".equals(event.getCommandType())) {
+                event.getTagValue("msg-id")
+                    .filter(msgId -> msgId.startsWith("msg_"))
+                    .ifPresent(msgId -> event.getChannelName().ifPresent(name -> sendTracker.reject(IdentityCache.lowerCase(name), msgId, event.getMessage().orElse(null))));
             }
-        });
+        }
     }
 
     /**
@@ -419,6 +608,7 @@ public class TwitchChat implements AutoCloseable {
      */
     @Synchronized
     public void reconnect() {
+        chatMetrics.onReconnect();
         connectionState = TMIConnectionState.RECONNECTING;
         disconnect();
         connect();
@@ -459,12 +649,18 @@ public class TwitchChat implements AutoCloseable {
                     sendTextToWebSocket(String.format("nick %s", userName), true);
 
                     // Join defined channels, in case we reconnect or weren't connected yet when we called joinChannel
-                    for (String channel : currentChannels) {
-                        sendCommand("join", '#' + channel);
+                    channelCacheLock.lock();
+                    try {
+                        // a new connection is not in any channel, so pending parts are obsolete
+                        membershipBatcher.reset(currentChannels);
+                    } finally {
+                        channelCacheLock.unlock();
                     }
 
                     // then join to own channel - required for sending or receiving whispers
-                    if (chatCredential != null && chatCredential.getUserName() != null) {
+                    if (shardedChat != null) {
+                        // the sharded chat assigns the own channel to a single shard
+                    } else if (chatCredential != null && chatCredential.getUserName() != null) {
                         joinChannel(chatCredential.getUserName().toLowerCase());
                     } else {
                         log.warn("Chat: The whispers feature is currently not available because the provided credential does not hold information about the user. Please check the documentation on how to pass the token to the credentialManager where it will be enriched with the required information.");
@@ -472,6 +668,8 @@ public class TwitchChat implements AutoCloseable {
 
                     // Connection Success
                     connectionState = TMIConnectionState.CONNECTED;
+                    scheduleMembershipFlush(0L);
+                    scheduleCommandFlush(0L);
                     backoffClearer = taskExecutor.schedule(() -> {
                         if (connectionState == TMIConnectionState.CONNECTED)
                             backoff.reset();
@@ -480,46 +678,7 @@ public class TwitchChat implements AutoCloseable {
 
                 @Override
                 public void onTextMessage(WebSocket ws, String text) {
-                    Arrays.asList(text.replace("\n\r", "\n")
-                        .replace("\r", "\n").split("\n"))
-                        .forEach(message -> {
-                            if (!message.equals("")) {
-                                // Handle messages
-                                log.trace("Received WebSocketMessage: " + message);
-                                // - CAP
-                                if (message.contains(":req Invalid CAP command")) {
-                                    log.error("Failed to acquire requested IRC capabilities!");
-                                }
-                                else if (message.contains(":tmi.twitch.tv CAP * ACK :")) {
-                                    List<String> capabilities = Arrays.asList(message.replace(":tmi.twitch.tv CAP * ACK :", "").split(" "));
-                                    capabilities.forEach(cap -> log.debug("Acquired chat capability: " + cap ));
-                                }
-                                // - Ping
-                                else if(message.contains("PING :tmi.twitch.tv")) {
-                                    sendTextToWebSocket("PONG :tmi.twitch.tv", true);
-                                    log.debug("Responding to PING request!");
-                                }
-                                // - Login failed.
-                                else if(message.equals(":tmi.twitch.tv NOTICE * :Login authentication failed")) {
-                                    log.error("Invalid IRC Credentials. Login failed!");
-                                }
-                                // - Parse IRC Message
-                                else
-                                {
-                                    try {
-                                        IRCMessageEvent event = new IRCMessageEvent(message, channelIdToChannelName, channelNameToChannelId, botOwnerIds);
-
-                                        if (event.isValid()) {
-                                            eventManager.publish(event);
-                                        } else {
-                                            log.trace("Can't parse {}", event.getRawMessage());
-                                        }
-                                    } catch (Exception ex) {
-                                        log.error(ex.getMessage(), ex);
-                                    }
-                                }
-                            }
-                        });
+                    IRCFrameSplitter.forEachLine(text, TwitchChat.this::onLine);
                 }
 
                 @Override
@@ -545,23 +704,285 @@ public class TwitchChat implements AutoCloseable {
         }
     }
 
+    /**
+     * Records and handles a single line received from the websocket
+     *
+     * @param message the raw line
+     */
+    private void onLine(String message) {
+        if (captureWriter != null) {
+            try {
+                captureWriter.record(System.currentTimeMillis(), message);
+            } catch (IOException e) {
+                log.warn("Failed to record chat line", e);
+            }
+        }
+
+        receiveLine(message);
+    }
+
+    /**
+     * Handles a single line as if it was received from the websocket, without recording it
+     * <p>
+     * Connection-level commands (PING, CAP, failed logins) are handled directly, while all other lines are published as {@link IRCMessageEvent}.
+     * This is the entry point for replaying captured traffic, see {@link CaptureReplayer}.
+     *
+     * @param message the raw line
+     */
+    public void receiveLine(String message) {
+        log.trace("Received WebSocketMessage: {}", message);
+        final IRCLine line = IRCLine.tokenize(message);
+        if (chatMetrics != ChatMetrics.NOOP && line.hasCommand())
+            chatMetrics.onMessageReceived(line.getCommand());
+
+        // - Ping
+        if (line.isCommand("PING")) {
+            sendTextToWebSocket(line.hasTrailing() ? "PONG :" + line.getTrailing() : "PONG :tmi.twitch.tv", true);
+            log.debug("Responding to PING request!");
+        }
+        // - CAP
+        else if (line.isCommand("CAP")) {
+            final String subCommand = line.getMiddleParam(1);
+            if ("ACK".equals(subCommand) && line.hasTrailing()) {
+                for (String cap : line.getTrailing().split(" ")) {
+                    log.debug("Acquired chat capability: " + cap);
+                }
+            } else if ("NAK".equals(subCommand)) {
+                log.error("Failed to acquire requested IRC capabilities!");
+            }
+        }
+        // - Invalid CAP command (ERR_INVALIDCAPCMD)
+        else if (line.isCommand("410")) {
+            log.error("Failed to acquire requested IRC capabilities!");
+        }
+        // - Login failed.
+        else if (line.isCommand("NOTICE") && "*".equals(line.getMiddleParam(0)) && line.hasTrailing() && message.startsWith("Login authentication failed", line.getTrailingStart())) {
+            log.error("Invalid IRC Credentials. Login failed!");
+        }
+        // - Filtered before parsing (the lines that maintain the client state, and rejections of tracked messages, always pass)
+        else if (ingressFilter != null && !isStateLine(line) && !isSendRejection(line) && !ingressFilter.accept(line)) {
+            return;
+        }
+        // - Parse IRC Message
+        else if (parsePipeline != null) {
+            parsePipeline.submit(line);
+        } else {
+            try {
+                IRCMessageEvent event = parseLine(line);
+                if (event != null) dispatchEvent(event);
+            } catch (Exception ex) {
+                log.error(ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a line maintains the state of the client, so it may not be filtered
+     *
+     * @param line the tokenized line
+     * @return whether the line is a ROOMSTATE, USERSTATE, GLOBALUSERSTATE, RECONNECT or numeric reply
+     */
+    private static boolean isStateLine(IRCLine line) {
+        if (!line.hasCommand()) return false;
+        final char first = line.getRaw().charAt(line.getCommandStart());
+        return (first >= '0' && first <= '9') || line.isCommand("ROOMSTATE") || line.isCommand("USERSTATE") || line.isCommand("GLOBALUSERSTATE") || line.isCommand("RECONNECT");
+    }
+
+    /**
+     * Checks whether a line may reject a message tracked by {@link #sendMessageAsync(String, String, Map)}, so it may not be filtered
+     *
+     * @param line the tokenized line
+     * @return whether messages are pending and the line is a NOTICE with a msg_* msg-id
+     */
+    private boolean isSendRejection(IRCLine line) {
+        return !sendTracker.isEmpty() && SEND_REJECTION.accept(line);
+    }
+
+    /**
+     * Parses a line into an event
+     *
+     * @param line the tokenized line
+     * @return the event, or null if the line could not be parsed
+     */
+    private IRCMessageEvent parseLine(IRCLine line) {
+        final boolean timed = chatMetrics != ChatMetrics.NOOP;
+        final long start = timed ? System.nanoTime() : 0L;
+        IRCMessageEvent event = new IRCMessageEvent(line, channelIdToChannelName, channelNameToChannelId, botOwnerIds);
+        if (timed) chatMetrics.recordParseTime(System.nanoTime() - start);
+        if (!event.isValid()) {
+            log.trace("Can't parse {}", event.getRawMessage());
+            return null;
+        }
+        return event;
+    }
+
+    /**
+     * Publishes a parsed event
+     *
+     * @param event IRCMessageEvent
+     */
+    private void dispatchEvent(IRCMessageEvent event) {
+        final boolean timed = chatMetrics != ChatMetrics.NOOP;
+        final long start = timed ? System.nanoTime() : 0L;
+        if (shardedChat != null) {
+            updateChannelState(event);
+            shardedChat.onShardMessage(this, event);
+        } else {
+            eventManager.publish(event);
+        }
+        if (timed) chatMetrics.recordPublishTime(System.nanoTime() - start);
+    }
+
     /**
      * Send IRC Command
      *
      * @param command IRC Command
      * @param args command arguments
+     * @return the outcome of adding the command to the queue
+     */
+    protected EnqueueStatus sendCommand(String command, String... args) {
+        return queueCommand(CommandPriority.BULK, String.format("%s %s", command.toUpperCase(), String.join(" ", args)));
+    }
+
+    /**
+     * Adds a command to a lane of the command queue and schedules the processing of the queue
+     *
+     * @param priority the lane
+     * @param command  raw irc command
+     * @return the outcome, according to the overflow policy of the lane
+     */
+    private EnqueueStatus queueCommand(CommandPriority priority, String command) {
+        EnqueueStatus status = commandQueue.offer(priority, command, this::onCommandEvicted);
+        if (status != EnqueueStatus.QUEUED) chatMetrics.onCommandDropped(priority, status);
+        if (status.isQueued()) scheduleCommandFlush(0L);
+        return status;
+    }
+
+    /**
+     * Schedules {@link #flushCommands()}, unless a flush is already scheduled
+     *
+     * @param delayNanos the delay before the flush
+     */
+    private void scheduleCommandFlush(long delayNanos) {
+        if (!stopQueueThread && commandFlushScheduled.compareAndSet(false, true)) {
+            try {
+                taskExecutor.schedule(this::flushCommands, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                commandFlushScheduled.set(false);
+                log.error("Failed to schedule the processing of the command queue", e);
+            }
+        }
+    }
+
+    /**
+     * Sends queued commands until the queues are empty or the remaining commands are rate limited.
+     * <p>
+     * The lanes of the command queue are drained in weighted fair order, and within a lane the oldest command whose channel
+     * has tokens available is sent next, so a throttled channel does not block the others.
+     * Once rate limited, the flush is rescheduled for when the next token may be available.
+     * While disconnected, the commands are kept until {@code onConnected} schedules a new flush.
+     */
+    private void flushCommands() {
+        commandFlushScheduled.set(false);
+        if (stopQueueThread || !connectionState.equals(TMIConnectionState.CONNECTED))
+            return;
+
+        long waitNanos;
+        try {
+            waitNanos = commandQueue.drain(this::acquireTokens, this::sendQueuedCommand, chatMetrics::recordSendLatency);
+        } catch (Exception ex) {
+            log.error("Failed to process message from command queue", ex);
+            waitNanos = TimeUnit.SECONDS.toNanos(1L);
+        }
+
+        if (waitNanos >= 0L)
+            scheduleCommandFlush(waitNanos);
+    }
+
+    /**
+     * Consumes the rate limit tokens for a queued command
+     *
+     * @param priority the lane of the command
+     * @param command  raw irc command
+     * @return 0 if the tokens were consumed, or else the nanoseconds until the tokens may be available
+     */
+    private long acquireTokens(CommandPriority priority, String command) {
+        if (priority == CommandPriority.WHISPER) {
+            ConsumptionProbe probe = ircWhisperBucket.tryConsumeAndReturnRemaining(1L);
+            return probe.isConsumed() ? 0L : Math.max(probe.getNanosToWaitForRefill(), 1L);
+        }
+
+        return chatRateLimiter.tryConsume(ChatRateLimiter.getChannel(command));
+    }
+
+    /**
+     * Sends a command taken from the command queue
+     *
+     * @param command raw irc command
+     * @return whether the command was sent
+     */
+    private boolean sendQueuedCommand(String command) {
+        if (!sendTextToWebSocket(command, false))
+            return false; // disconnected in the meantime
+
+        // tracked messages start with their nonce, while other messages keep the order of the rejections
+        if (!sendTracker.isEmpty()) {
+            final String nonce = getNonce(command);
+            if (nonce != null) {
+                sendTracker.onSent(nonce);
+            } else {
+                final String channel = ChatRateLimiter.getChannel(command);
+                if (channel != null && !isChatCommand(command)) sendTracker.onSentUntracked(channel);
+            }
+        }
+
+        // Logging
+        log.debug("Processed command from queue: [{}].", command.startsWith("PASS") ? "***OAUTH TOKEN HIDDEN***" : command);
+        log.debug("{} messages left before hitting the rate-limit!", ircMessageBucket.getAvailableTokens());
+        return true;
+    }
+
+    /**
+     * Fails the tracked message of a command that the command queue dropped to make room for a newer command
+     *
+     * @param command raw irc command
+     */
+    private void onCommandEvicted(String command) {
+        if (!sendTracker.isEmpty()) {
+            final String nonce = getNonce(command);
+            if (nonce != null) sendTracker.reject(nonce, EnqueueStatus.QUEUED_DROPPED_OLDEST);
+        }
+    }
+
+    /**
+     * @param command raw PRIVMSG command
+     * @return whether the text is a chat command (e.g. /w or .timeout), whose failures are not reported as send rejections
+     */
+    private static boolean isChatCommand(String command) {
+        final int text = command.indexOf(" :") + 2;
+        return text > 1 && text < command.length() && (command.charAt(text) == '/' || command.charAt(text) == '.');
+    }
+
+    /**
+     * @param command raw irc command
+     * @return the client-nonce of a command sent by {@link #sendMessageAsync(String, String, Map)}, or null
      */
-    protected void sendCommand(String command, String... args) {
-        ircCommandQueue.offer(String.format("%s %s", command.toUpperCase(), String.join(" ", args)));
+    private static String getNonce(String command) {
+        if (!command.startsWith(NONCE_PREFIX)) return null;
+        final int space = command.indexOf(' ');
+        int end = command.indexOf(';');
+        if (end < 0 || (space >= 0 && space < end)) end = space;
+        return end > 0 ? EscapeUtils.unescapeTagValue(command, NONCE_PREFIX.length(), end) : null;
     }
 
     /**
      * Send raw irc command
      *
      * @param command raw irc command
+     * @return the outcome of adding the command to the queue
      */
-    public void sendRaw(String command) {
-        ircCommandQueue.offer(command);
+    public EnqueueStatus sendRaw(String command) {
+        return queueCommand(CommandPriority.BULK, command);
     }
 
     /**
@@ -585,6 +1006,10 @@ public class TwitchChat implements AutoCloseable {
 
         // command will be uppercase.
         this.webSocket.sendText(command);
+        if (chatMetrics != ChatMetrics.NOOP) {
+            final String sentCommand = IRCLine.tokenize(command).getCommand();
+            if (sentCommand != null) chatMetrics.onMessageSent(sentCommand.toUpperCase());
+        }
 
         return true;
     }
@@ -594,12 +1019,12 @@ public class TwitchChat implements AutoCloseable {
      * @param channelName channel name
      */
     public void joinChannel(String channelName) {
-        String lowerChannelName = channelName.toLowerCase();
+        String lowerChannelName = IdentityCache.lowerCase(channelName);
 
         channelCacheLock.lock();
         try {
             if (currentChannels.add(lowerChannelName)) {
-                sendCommand("join", "#" + lowerChannelName);
+                queueMembership(lowerChannelName, true);
                 log.debug("Joining Channel [{}].", lowerChannelName);
             } else {
                 log.warn("Already joined channel {}", channelName);
@@ -614,15 +1039,16 @@ public class TwitchChat implements AutoCloseable {
      * @param channelName channel name
      */
     public void leaveChannel(String channelName) {
-        String lowerChannelName = channelName.toLowerCase();
+        String lowerChannelName = IdentityCache.lowerCase(channelName);
 
         channelCacheLock.lock();
         try {
             if (currentChannels.remove(lowerChannelName)) {
-                sendCommand("part", "#" + lowerChannelName);
+                queueMembership(lowerChannelName, false);
                 log.debug("Leaving Channel [{}].", lowerChannelName);
 
                 // clear cache
+                chatRateLimiter.removeChannel(lowerChannelName);
                 String cachedId = channelNameToChannelId.remove(lowerChannelName);
                 if (cachedId != null) channelIdToChannelName.remove(cachedId);
             } else {
@@ -633,13 +1059,107 @@ public class TwitchChat implements AutoCloseable {
         }
     }
 
+    /**
+     * Queues a join or part, replacing any pending request for the same channel.
+     * <p>
+     * Must be called while holding the channel cache lock.
+     *
+     * @param channel the lower case channel name
+     * @param join    true to join, false to part
+     */
+    private void queueMembership(String channel, boolean join) {
+        membershipBatcher.queue(channel, join);
+        scheduleMembershipFlush(0L);
+    }
+
+    /**
+     * Schedules {@link #flushMemberships()}, unless a flush is already scheduled
+     *
+     * @param delayNanos the delay before the flush
+     */
+    private void scheduleMembershipFlush(long delayNanos) {
+        if (membershipFlushScheduled.compareAndSet(false, true)) {
+            try {
+                taskExecutor.schedule(this::flushMemberships, delayNanos, TimeUnit.NANOSECONDS);
+            } catch (Exception e) {
+                membershipFlushScheduled.set(false);
+                log.error("Failed to schedule the processing of channel joins", e);
+            }
+        }
+    }
+
+    /**
+     * Sends the pending joins and parts, combining multiple channels per command up to the irc line limit.
+     * <p>
+     * Parts are sent right away, while each joined channel consumes a token of the join bucket.
+     * Once the join bucket is empty, the flush is rescheduled for when it has been refilled.
+     * While disconnected, the pending requests are kept until {@code onConnected} schedules a new flush.
+     */
+    private void flushMemberships() {
+        membershipFlushScheduled.set(false);
+
+        long waitNanos = -1L;
+        channelCacheLock.lock();
+        try {
+            while (connectionState == TMIConnectionState.CONNECTED && !membershipBatcher.isEmpty()) {
+                final List<String> lines = membershipBatcher.nextBatch();
+                for (String line : lines) {
+                    sendTextToWebSocket(line, false);
+                }
+                log.debug("Processed channel joins and parts, {} joins and {} parts left.", membershipBatcher.getPendingJoinCount(), membershipBatcher.getPendingPartCount());
+
+                if (lines.isEmpty() && !membershipBatcher.isEmpty()) {
+                    // only joins are pending, but the join bucket is empty
+                    ConsumptionProbe probe = ircJoinBucket.tryConsumeAndReturnRemaining(1L);
+                    if (probe.isConsumed()) {
+                        // refilled in the meantime
+                        ircJoinBucket.addTokens(1L);
+                        continue;
+                    }
+                    waitNanos = Math.max(probe.getNanosToWaitForRefill(), 1L);
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to process channel joins and parts", e);
+            waitNanos = TimeUnit.SECONDS.toNanos(1L);
+        } finally {
+            channelCacheLock.unlock();
+        }
+
+        if (waitNanos >= 0L)
+            scheduleMembershipFlush(waitNanos);
+    }
+
+    /**
+     * @return the number of pending channel joins
+     */
+    public int getPendingJoinCount() {
+        return membershipBatcher.getPendingJoinCount();
+    }
+
+    /**
+     * @return the number of pending channel parts
+     */
+    public int getPendingPartCount() {
+        return membershipBatcher.getPendingPartCount();
+    }
+
+    /**
+     * @return the total number of channels that JOIN commands have been sent for
+     */
+    public long getSentJoinCount() {
+        return membershipBatcher.getSentJoinCount();
+    }
+
     /**
      * Sending message to the joined channel
      * @param channel channel name
      * @param message message
+     * @return the outcome of adding the message to the queue
      */
-    public void sendMessage(String channel, String message) {
-        this.sendMessage(channel, message, null);
+    public EnqueueStatus sendMessage(String channel, String message) {
+        return this.sendMessage(channel, message, null);
     }
 
     /**
@@ -649,13 +1169,14 @@ public class TwitchChat implements AutoCloseable {
      * @param message    the message to be sent.
      * @param nonce      the cryptographic nonce (optional).
      * @param replyMsgId the msgId of the parent message being replied to (optional).
+     * @return the outcome of adding the message to the queue
      */
     @Unofficial
-    public void sendMessage(String channel, String message, String nonce, String replyMsgId) {
+    public EnqueueStatus sendMessage(String channel, String message, String nonce, String replyMsgId) {
         final Map<String, Object> tags = new LinkedHashMap<>(); // maintain insertion order
         if (nonce != null) tags.put(IRCMessageEvent.NONCE_TAG_NAME, nonce);
         if (replyMsgId != null) tags.put(ChatReply.REPLY_MSG_ID_TAG_NAME, replyMsgId);
-        this.sendMessage(channel, message, tags);
+        return this.sendMessage(channel, message, tags);
     }
 
     /**
@@ -664,18 +1185,85 @@ public class TwitchChat implements AutoCloseable {
      * @param channel the name of the channel to send the message to.
      * @param message the message to be sent.
      * @param tags    the message tags (unofficial).
+     * @return the outcome of adding the message to the queue
      */
-    public void sendMessage(String channel, String message, @Unofficial Map<String, Object> tags) {
+    public EnqueueStatus sendMessage(String channel, String message, @Unofficial Map<String, Object> tags) {
+        CommandPriority priority = tags != null && tags.containsKey(ChatReply.REPLY_MSG_ID_TAG_NAME) ? CommandPriority.REPLY : CommandPriority.BULK;
+        return this.sendMessage(channel, message, tags, priority);
+    }
+
+    /**
+     * Sends a message to the channel through the specified lane of the command queue.
+     *
+     * @param channel  the name of the channel to send the message to.
+     * @param message  the message to be sent.
+     * @param tags     the message tags (unofficial).
+     * @param priority the lane of the command queue.
+     * @return the outcome of adding the message to the queue
+     */
+    public EnqueueStatus sendMessage(String channel, String message, @Unofficial Map<String, Object> tags, CommandPriority priority) {
+        log.debug("Adding message for channel [{}] with content [{}] to the queue.", channel, message);
+        return queueCommand(priority, formatMessage(channel, message, tags));
+    }
+
+    /**
+     * Formats the raw PRIVMSG command for a message, prefixed by its escaped message tags.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @param tags    the message tags (unofficial), may be null.
+     * @return the raw irc command
+     */
+    public static String formatMessage(@NonNull String channel, String message, @Unofficial Map<String, Object> tags) {
         StringBuilder sb = new StringBuilder();
         if (tags != null && !tags.isEmpty()) {
             sb.append('@');
             tags.forEach((k, v) -> sb.append(k).append('=').append(EscapeUtils.escapeTagValue(v)).append(';'));
             sb.setCharAt(sb.length() - 1, ' '); // replace last semi-colon with space
         }
-        sb.append("PRIVMSG #").append(channel.toLowerCase()).append(" :").append(message);
+        sb.append("PRIVMSG #").append(IdentityCache.lowerCase(channel)).append(" :").append(message);
+        return sb.toString();
+    }
+
+    /**
+     * Sends a message to the channel and tracks its delivery.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @return a future that is completed when twitch echoes the message, see {@link #sendMessageAsync(String, String, Map)}
+     */
+    @Unofficial
+    public CompletableFuture<SendAcknowledgment> sendMessageAsync(String channel, String message) {
+        return this.sendMessageAsync(channel, message, null);
+    }
 
-        log.debug("Adding message for channel [{}] with content [{}] to the queue.", channel.toLowerCase(), message);
-        ircCommandQueue.offer(sb.toString());
+    /**
+     * Sends a message to the channel while including the specified message tags, and tracks its delivery.
+     * <p>
+     * A client-nonce is generated unless one is included in the tags. Twitch echoes the nonce upon accepting the message,
+     * while rejections (i.e. NOTICEs such as msg_ratelimit or msg_duplicate) are attributed to the oldest unacknowledged message of the channel, tracked or not.
+     * Messages that are rejected may be sent again, as they were not delivered.
+     *
+     * @param channel the name of the channel to send the message to.
+     * @param message the message to be sent.
+     * @param tags    the message tags (unofficial), may be null.
+     * @return a future that is completed upon the acknowledgment, or failed with a {@link com.github.twitch4j.chat.exception.MessageRejectedException} or {@link java.util.concurrent.TimeoutException}
+     */
+    @Unofficial
+    public CompletableFuture<SendAcknowledgment> sendMessageAsync(String channel, String message, @Unofficial Map<String, Object> tags) {
+        final Map<String, Object> allTags = new LinkedHashMap<>(); // the nonce comes first, see sendQueuedCommand
+        final Object customNonce = tags != null ? tags.get(IRCMessageEvent.NONCE_TAG_NAME) : null;
+        final String nonce = customNonce != null ? customNonce.toString() : CryptoUtils.generateNonce(32);
+        allTags.put(IRCMessageEvent.NONCE_TAG_NAME, nonce);
+        if (tags != null) tags.forEach(allTags::putIfAbsent);
+
+        final String lowerChannel = IdentityCache.lowerCase(channel);
+        final CompletableFuture<SendAcknowledgment> future = sendTracker.track(lowerChannel, nonce);
+        if (!future.isDone()) {
+            final EnqueueStatus status = this.sendMessage(channel, message, allTags);
+            if (!status.isQueued()) sendTracker.reject(nonce, status);
+        }
+        return future;
     }
 
     /**
@@ -683,10 +1271,11 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param targetUser username
      * @param message message
+     * @return the outcome of adding the whisper to the queue
      */
-    public void sendPrivateMessage(String targetUser, String message) {
+    public EnqueueStatus sendPrivateMessage(String targetUser, String message) {
         log.debug("Adding private message for user [{}] with content [{}] to the queue.", targetUser, message);
-        whisperCommandQueue.offer(String.format("PRIVMSG #%s :/w %s %s", chatCredential.getUserName().toLowerCase(), targetUser, message));
+        return queueCommand(CommandPriority.WHISPER, String.format("PRIVMSG #%s :/w %s %s", chatCredential.getUserName().toLowerCase(), targetUser, message));
     }
 
     /**
@@ -694,10 +1283,11 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param channel     the name of the channel to delete the message from.
      * @param targetMsgId the unique id of the message to be deleted.
+     * @return the outcome of adding the command to the queue
      * @see IRCMessageEvent#getMessageId()
      */
-    public void delete(String channel, String targetMsgId) {
-        sendMessage(channel, String.format("/delete %s", targetMsgId));
+    public EnqueueStatus delete(String channel, String targetMsgId) {
+        return sendMessage(channel, String.format("/delete %s", targetMsgId), null, CommandPriority.MODERATION);
     }
 
     /**
@@ -707,14 +1297,15 @@ public class TwitchChat implements AutoCloseable {
      * @param user username
      * @param duration duration
      * @param reason reason
+     * @return the outcome of adding the command to the queue
      */
-    public void timeout(String channel, String user, Duration duration, String reason) {
+    public EnqueueStatus timeout(String channel, String user, Duration duration, String reason) {
         StringBuilder sb = new StringBuilder(user).append(' ').append(duration.getSeconds());
         if (reason != null) {
             sb.append(" ").append(reason);
         }
 
-        sendMessage(channel, String.format("/timeout %s", sb.toString()));
+        return sendMessage(channel, String.format("/timeout %s", sb.toString()), null, CommandPriority.MODERATION);
     }
 
     /**
@@ -723,14 +1314,15 @@ public class TwitchChat implements AutoCloseable {
      * @param channel channel
      * @param user username
      * @param reason reason
+     * @return the outcome of adding the command to the queue
      */
-    public void ban(String channel, String user, String reason) {
+    public EnqueueStatus ban(String channel, String user, String reason) {
         StringBuilder sb = new StringBuilder(user);
         if (reason != null) {
             sb.append(" ").append(reason);
         }
 
-        sendMessage(channel, String.format("/ban %s", sb.toString()));
+        return sendMessage(channel, String.format("/ban %s", sb.toString()), null, CommandPriority.MODERATION);
     }
 
     /**
@@ -738,9 +1330,10 @@ public class TwitchChat implements AutoCloseable {
      *
      * @param channel channel
      * @param user username
+     * @return the outcome of adding the command to the queue
      */
-    public void unban(String channel, String user) {
-        sendMessage(channel, String.format("/unban %s", user));
+    public EnqueueStatus unban(String channel, String user) {
+        return sendMessage(channel, String.format("/unban %s", user), null, CommandPriority.MODERATION);
     }
 
     /**
@@ -749,24 +1342,25 @@ public class TwitchChat implements AutoCloseable {
      * @param event ChannelMessageEvent
      */
     private void onChannelMessage(ChannelMessageEvent event) {
-        Optional<String> prefix = Optional.empty();
-        Optional<String> commandWithoutPrefix = Optional.empty();
-
-        // try to find a `command` based on the prefix
-        for (String commandPrefix : this.commandPrefixes) {
-            if (event.getMessage().startsWith(commandPrefix)) {
-                prefix = Optional.of(commandPrefix);
-                commandWithoutPrefix = Optional.of(event.getMessage().substring(commandPrefix.length()));
-                break;
-            }
-        }
+        onChannelMessage(eventManager, commandMatcher, event);
+    }
+
+    /**
+     * Publishes a {@link CommandEvent} if the channel message starts with one of the command prefixes, followed by a registered command
+     *
+     * @param eventManager   EventManager
+     * @param commandMatcher Command Matcher
+     * @param event          ChannelMessageEvent
+     */
+    static void onChannelMessage(EventManager eventManager, CommandMatcher commandMatcher, ChannelMessageEvent event) {
+        final CommandMatcher.Match match = commandMatcher.match(event.getMessage());
 
         // is command?
-        if (commandWithoutPrefix.isPresent()) {
-            log.debug("Detected a command in channel {} with content: {}", event.getChannel().getName(), commandWithoutPrefix.get());
+        if (match != null) {
+            log.debug("Detected a command in channel {} with content: {}", event.getChannel().getName(), match.getCommand());
 
             // dispatch command event
-            eventManager.publish(new CommandEvent(CommandSource.CHANNEL, event.getChannel().getName(), event.getUser(), prefix.get(), commandWithoutPrefix.get(), event.getPermissions()));
+            eventManager.publish(new CommandEvent(CommandSource.CHANNEL, event.getChannel().getName(), event.getUser(), match, event.getPermissions()));
         }
     }
 
@@ -775,8 +1369,18 @@ public class TwitchChat implements AutoCloseable {
      */
     public void close() {
         this.stopQueueThread = true;
-        queueThread.cancel(false);
         this.disconnect();
+        this.sendTracker.clear();
+        this.chatMetrics.unbindGauges(this);
+        if (parsePipeline != null)
+            parsePipeline.close();
+        if (captureWriter != null && shardedChat == null) {
+            try {
+                captureWriter.close();
+            } catch (IOException e) {
+                log.warn("Failed to close chat capture", e);
+            }
+        }
     }
 
     /**
@@ -786,7 +1390,7 @@ public class TwitchChat implements AutoCloseable {
      * @return boolean
      */
     public boolean isChannelJoined(String channelName) {
-        return currentChannels.contains(channelName.toLowerCase());
+        return currentChannels.contains(IdentityCache.lowerCase(channelName));
     }
 
     /**
@@ -6,6 +6,12 @@ import com.github.philippheuer.credentialmanager.domain.OAuth2Credential;
 import com.github.philippheuer.events4j.api.service.IEventHandler;
 import com.github.philippheuer.events4j.core.EventManager;
 import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.capture.CaptureWriter;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.metrics.ChatMetrics;
+import com.github.twitch4j.chat.util.CommandLaneConfig;
+import com.github.twitch4j.chat.util.IngressFilter;
+import com.github.twitch4j.chat.util.ParsePipelineConfig;
 import com.github.twitch4j.common.config.ProxyConfig;
 import com.github.twitch4j.common.config.Twitch4JGlobal;
 import com.github.twitch4j.common.util.EventManagerUtils;
@@ -19,8 +25,12 @@ import org.apache.commons.lang3.RandomStringUtils;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
 /**
@@ -104,6 +114,11 @@ public class TwitchChatBuilder {
      */
     protected final List<String> commandPrefixes = new ArrayList<>();
 
+    /**
+     * Registered command names; when empty, any command after a prefix is published as {@link com.github.twitch4j.chat.events.CommandEvent}
+     */
+    protected final Set<String> commandNames = new LinkedHashSet<>();
+
     /**
      * Size of the ChatQueue
      */
@@ -111,17 +126,42 @@ public class TwitchChatBuilder {
     protected Integer chatQueueSize = 200;
 
     /**
-     * Custom RateLimit for ChatMessages
+     * Configurations of the command queue lanes, which override the defaults based on {@link #chatQueueSize}
+     *
+     * @see CommandLaneConfig#defaults(CommandPriority, int)
+     */
+    protected final Map<CommandPriority, CommandLaneConfig> commandLanes = new EnumMap<>(CommandPriority.class);
+
+    /**
+     * Custom RateLimit for ChatMessages in channels where the account is neither broadcaster, moderator nor vip
      */
     @With
     protected Bandwidth chatRateLimit = Bandwidth.simple(20, Duration.ofSeconds(30));
 
+    /**
+     * Custom RateLimit for ChatMessages in all channels, which is the effective limit in channels where the account is broadcaster, moderator or vip
+     */
+    @With
+    protected Bandwidth chatAccountRateLimit = Bandwidth.simple(100, Duration.ofSeconds(30));
+
+    /**
+     * Custom RateLimit for ChatMessages per channel where the account is neither broadcaster, moderator nor vip, or null for no limit
+     */
+    @With
+    protected Bandwidth chatChannelRateLimit = Bandwidth.simple(1, Duration.ofSeconds(1));
+
     /**
      * Custom RateLimit for Whispers
      */
     @With
     protected Bandwidth[] whisperRateLimit = { Bandwidth.simple(100, Duration.ofSeconds(60)), Bandwidth.simple(3, Duration.ofSeconds(1)) };
 
+    /**
+     * Custom RateLimit for joining channels, where each channel of a batched JOIN counts as one attempt
+     */
+    @With
+    protected Bandwidth joinRateLimit = Bandwidth.simple(20, Duration.ofSeconds(10));
+
     /**
      * Scheduler Thread Pool Executor
      */
@@ -130,8 +170,11 @@ public class TwitchChatBuilder {
 
     /**
      * Millisecond wait time for taking items off chat queue. Default recommended
+     *
+     * @deprecated no longer used, as the chat queue is processed as soon as a message is queued or a token is refilled
      */
     @With
+    @Deprecated
     private long chatQueueTimeout = 1000L;
 
     /**
@@ -140,6 +183,53 @@ public class TwitchChatBuilder {
     @With
     private ProxyConfig proxyConfig = null;
 
+    /**
+     * Configuration of the pipeline that parses and publishes incoming messages off the websocket reader thread, or null to do so on the reader thread
+     */
+    @With
+    private ParsePipelineConfig parsePipelineConfig = null;
+
+    /**
+     * Filter that decides which incoming messages are parsed and published, before they are parsed, or null to accept all messages
+     *
+     * @see com.github.twitch4j.chat.util.IngressFilters
+     */
+    @With
+    private IngressFilter ingressFilter = null;
+
+    /**
+     * Records the incoming messages into a capture file, which can be replayed with {@link com.github.twitch4j.chat.capture.CaptureReplayer}, or null
+     */
+    @With
+    private CaptureWriter captureWriter = null;
+
+    /**
+     * Receives the queue depths, rate limit tokens, message counts and latencies of the connections, or null to record nothing
+     *
+     * @see com.github.twitch4j.chat.metrics.SimpleChatMetrics
+     * @see com.github.twitch4j.chat.metrics.MicrometerChatMetrics
+     */
+    @With
+    private ChatMetrics chatMetrics = null;
+
+    /**
+     * Number of connections used by {@link #buildSharded()}
+     */
+    @With
+    private int shardCount = 2;
+
+    /**
+     * Maximum number of channels per connection used by {@link #buildSharded()}, or a negative value for no limit
+     */
+    @With
+    private int maxChannelsPerShard = -1;
+
+    /**
+     * Milliseconds a connection of {@link #buildSharded()} may be disconnected before its channels are moved to other connections
+     */
+    @With
+    private long shardFailureTimeout = Duration.ofMinutes(1L).toMillis();
+
     /**
      * Initialize the builder
      *
@@ -164,7 +254,42 @@ public class TwitchChatBuilder {
         eventManager = EventManagerUtils.validateOrInitializeEventManager(eventManager, defaultEventHandler);
 
         log.debug("TwitchChat: Initializing Module ...");
-        return new TwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.chatQueueSize, this.chatRateLimit, this.whisperRateLimit, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig, this.botOwnerIds);
+        return new TwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.commandNames, this.chatQueueSize, this.commandLanes, this.chatRateLimit, this.chatAccountRateLimit, this.chatChannelRateLimit, this.whisperRateLimit, this.joinRateLimit, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig, this.botOwnerIds, this.parsePipelineConfig, this.ingressFilter, this.captureWriter, this.chatMetrics);
+    }
+
+    /**
+     * Twitch Chat, spread over {@link #getShardCount()} connections
+     *
+     * @return ShardedTwitchChat
+     */
+    public ShardedTwitchChat buildSharded() {
+        if (scheduledThreadPoolExecutor == null)
+            scheduledThreadPoolExecutor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-chat-"+ RandomStringUtils.random(4, true, true), TwitchChat.REQUIRED_THREAD_COUNT * shardCount + 1);
+
+        // Initialize/Check EventManager
+        eventManager = EventManagerUtils.validateOrInitializeEventManager(eventManager, defaultEventHandler);
+
+        log.debug("TwitchChat: Initializing {} Shards ...", shardCount);
+        return new ShardedTwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.commandNames, this.chatQueueSize, this.commandLanes, this.chatRateLimit, this.chatAccountRateLimit, this.chatChannelRateLimit, this.whisperRateLimit, this.joinRateLimit, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig, this.botOwnerIds, this.parsePipelineConfig, this.ingressFilter, this.captureWriter, this.chatMetrics, this.shardCount, this.maxChannelsPerShard, this.shardFailureTimeout, false);
+    }
+
+    /**
+     * Twitch Chat over two independent connections that are both in every channel, publishing each message once
+     * <p>
+     * While one connection reconnects, messages are still received over the other one,
+     * at the cost of joining every channel twice.
+     *
+     * @return ShardedTwitchChat in redundant mode
+     */
+    public ShardedTwitchChat buildRedundant() {
+        if (scheduledThreadPoolExecutor == null)
+            scheduledThreadPoolExecutor = ThreadUtils.getDefaultScheduledThreadPoolExecutor("twitch4j-chat-"+ RandomStringUtils.random(4, true, true), TwitchChat.REQUIRED_THREAD_COUNT * 2 + 1);
+
+        // Initialize/Check EventManager
+        eventManager = EventManagerUtils.validateOrInitializeEventManager(eventManager, defaultEventHandler);
+
+        log.debug("TwitchChat: Initializing redundant connections ...");
+        return new ShardedTwitchChat(this.eventManager, this.credentialManager, this.chatAccount, this.baseUrl, this.sendCredentialToThirdPartyHost, this.commandPrefixes, this.commandNames, this.chatQueueSize, this.commandLanes, this.chatRateLimit, this.chatAccountRateLimit, this.chatChannelRateLimit, this.whisperRateLimit, this.joinRateLimit, this.scheduledThreadPoolExecutor, this.chatQueueTimeout, this.proxyConfig, this.botOwnerIds, this.parsePipelineConfig, this.ingressFilter, this.captureWriter, this.chatMetrics, 2, -1, this.shardFailureTimeout, true);
     }
 
     /**
@@ -189,6 +314,40 @@ public class TwitchChatBuilder {
         return this;
     }
 
+    /**
+     * With a registered command name, so only registered commands are published as {@link com.github.twitch4j.chat.events.CommandEvent}
+     *
+     * @param commandName Command Name (without prefix)
+     * @return TwitchChatBuilder
+     */
+    public TwitchChatBuilder withCommandName(String commandName) {
+        this.commandNames.add(commandName);
+        return this;
+    }
+
+    /**
+     * With multiple registered command names, so only registered commands are published as {@link com.github.twitch4j.chat.events.CommandEvent}
+     *
+     * @param commandNames Command Names (without prefix)
+     * @return TwitchChatBuilder
+     */
+    public TwitchChatBuilder withCommandNames(Collection<String> commandNames) {
+        this.commandNames.addAll(commandNames);
+        return this;
+    }
+
+    /**
+     * With a custom configuration for a lane of the command queue
+     *
+     * @param priority the lane
+     * @param config   the lane configuration
+     * @return TwitchChatBuilder
+     */
+    public TwitchChatBuilder withCommandLane(CommandPriority priority, CommandLaneConfig config) {
+        this.commandLanes.put(priority, config);
+        return this;
+    }
+
     /**
      * With a Bot Owner's User ID
      *
@@ -0,0 +1,260 @@
+package com.github.twitch4j.chat.analytics;
+
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded-memory chat statistics per channel: messages per window, top chatters and top emotes.
+ * <p>
+ * Each channel counts its messages in tumbling windows, using space-saving top-k counters for the most active users and emotes,
+ * and count-min sketches for the estimated counts of any user or emote.
+ * Emotes are read from the {@code emotes} tag via {@link EmoteRanges}, without splitting the tag.
+ * The statistics of the previous window remain available until the next window ends.
+ * <p>
+ * The analytics are not subscribed to any chat by itself:
+ * <pre>{@code
+ * ChatAnalytics analytics = new ChatAnalytics(ChatAnalyticsConfig.builder().build());
+ * chat.getEventManager().onEvent(ChannelMessageEvent.class, analytics::onMessage);
+ * }</pre>
+ */
+@Slf4j
+public final class ChatAnalytics {
+
+    @Getter
+    private final ChatAnalyticsConfig config;
+
+    private final long windowMillis;
+
+    private final int maxChannels;
+
+    /**
+     * Statistics by channel id
+     */
+    private final Map<String, ChannelAnalytics> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param config the configuration
+     */
+    public ChatAnalytics(@NonNull ChatAnalyticsConfig config) {
+        this.config = config;
+        this.windowMillis = config.getWindow().toMillis();
+        this.maxChannels = config.getMaxChannels();
+        if (windowMillis < 1L)
+            throw new IllegalArgumentException("window must be at least one millisecond");
+    }
+
+    /**
+     * Counts a message
+     *
+     * @param event the message
+     */
+    public void onMessage(@NonNull ChannelMessageEvent event) {
+        onMessage(event, System.currentTimeMillis());
+    }
+
+    void onMessage(ChannelMessageEvent event, long now) {
+        final String channelId = event.getChannel().getId();
+        if (channelId == null) return;
+
+        ChannelAnalytics channel = channels.get(channelId);
+        if (channel == null) {
+            if (channels.size() >= maxChannels) {
+                log.debug("Not tracking the chat analytics of channel {}: the memory budget is exhausted", channelId);
+                return;
+            }
+            channel = channels.computeIfAbsent(channelId, id -> new ChannelAnalytics(id));
+        }
+
+        final String userId = event.getUser() != null ? event.getUser().getId() : null;
+        final EmoteRanges emotes = EmoteRanges.parse(event.getMessageEvent().getTags().get("emotes"));
+        channel.add(now / windowMillis, userId, emotes);
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @return the statistics of the running window so far
+     */
+    public Optional<WindowStats> getCurrentWindow(String channelId) {
+        final ChannelAnalytics channel = channels.get(channelId);
+        return channel != null ? channel.current(System.currentTimeMillis() / windowMillis) : Optional.empty();
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @return the statistics of the last completed window
+     */
+    public Optional<WindowStats> getLastWindow(String channelId) {
+        final ChannelAnalytics channel = channels.get(channelId);
+        return channel != null ? channel.last(System.currentTimeMillis() / windowMillis) : Optional.empty();
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @param userId    the id of the user
+     * @return the estimated number of messages of the user in the running window, which may exceed the true number
+     */
+    public int estimateMessages(String channelId, String userId) {
+        final ChannelAnalytics channel = channels.get(channelId);
+        return channel != null ? channel.estimateChatter(System.currentTimeMillis() / windowMillis, userId) : 0;
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @param emoteId   the id of the emote
+     * @return the estimated number of uses of the emote in the running window, which may exceed the true number
+     */
+    public int estimateEmoteUses(String channelId, String emoteId) {
+        final ChannelAnalytics channel = channels.get(channelId);
+        return channel != null ? channel.estimateEmote(System.currentTimeMillis() / windowMillis, emoteId) : 0;
+    }
+
+    /**
+     * @return the ids of the tracked channels
+     */
+    public Set<String> getChannelIds() {
+        return Collections.unmodifiableSet(channels.keySet());
+    }
+
+    /**
+     * Stops tracking a channel, freeing its share of the memory budget
+     *
+     * @param channelId the id of the channel
+     */
+    public void remove(String channelId) {
+        channels.remove(channelId);
+    }
+
+    /**
+     * Scrambles a string hash into 64 bits for the sketches (murmur3 finalizer)
+     */
+    private static long hash(String key) {
+        long h = key.hashCode() * 0x9e3779b97f4a7c15L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Statistics of a single channel, guarded by its monitor
+     */
+    private final class ChannelAnalytics {
+
+        private final String channelId;
+
+        private final SpaceSaving<String> topChatters;
+
+        private final SpaceSaving<String> topEmotes;
+
+        private final CountMinSketch chatterCounts;
+
+        private final CountMinSketch emoteCounts;
+
+        private long window = Long.MIN_VALUE;
+
+        private long messageCount;
+
+        private long emoteCount;
+
+        private WindowStats last;
+
+        private ChannelAnalytics(String channelId) {
+            this.channelId = channelId;
+            this.topChatters = new SpaceSaving<>(config.getTopCapacity());
+            this.topEmotes = new SpaceSaving<>(config.getTopCapacity());
+            this.chatterCounts = new CountMinSketch(config.getSketchDepth(), config.getSketchWidth());
+            this.emoteCounts = new CountMinSketch(config.getSketchDepth(), config.getSketchWidth());
+        }
+
+        private synchronized void add(long window, String userId, EmoteRanges emotes) {
+            roll(window);
+            messageCount++;
+
+            if (userId != null) {
+                topChatters.offer(userId, 1L);
+                chatterCounts.add(hash(userId), 1);
+            }
+
+            // occurrences of the same emote are adjacent, so each distinct emote id is read once
+            int uses = 0;
+            for (int i = 0; i < emotes.size(); i++) {
+                uses++;
+                if (!emotes.isSameEmoteAsNext(i)) {
+                    final String emoteId = emotes.getEmoteId(i);
+                    topEmotes.offer(emoteId, uses);
+                    emoteCounts.add(hash(emoteId), uses);
+                    uses = 0;
+                }
+            }
+            emoteCount += emotes.size();
+        }
+
+        private synchronized Optional<WindowStats> current(long window) {
+            roll(window);
+            return Optional.of(snapshot());
+        }
+
+        private synchronized Optional<WindowStats> last(long window) {
+            roll(window);
+            return Optional.ofNullable(last);
+        }
+
+        private synchronized int estimateChatter(long window, String userId) {
+            roll(window);
+            return chatterCounts.estimate(hash(userId));
+        }
+
+        private synchronized int estimateEmote(long window, String emoteId) {
+            roll(window);
+            return emoteCounts.estimate(hash(emoteId));
+        }
+
+        /**
+         * Completes the running window once a later window has started
+         */
+        private void roll(long window) {
+            if (window <= this.window) return;
+
+            if (this.window != Long.MIN_VALUE) {
+                if (window > this.window + 1) {
+                    // there were no messages in the window before
+                    reset();
+                    this.window = window - 1;
+                }
+                last = snapshot();
+            }
+            this.window = window;
+            reset();
+        }
+
+        private void reset() {
+            messageCount = 0L;
+            emoteCount = 0L;
+            topChatters.clear();
+            topEmotes.clear();
+            chatterCounts.clear();
+            emoteCounts.clear();
+        }
+
+        private WindowStats snapshot() {
+            final int n = config.getTopCapacity();
+            return new WindowStats(channelId, Instant.ofEpochMilli(window * windowMillis), Duration.ofMillis(windowMillis), messageCount, emoteCount, topChatters.top(n), topEmotes.top(n));
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.github.twitch4j.chat.analytics;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Configuration of the {@link ChatAnalytics}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ChatAnalyticsConfig {
+
+    /**
+     * Rough size of a top-k counter, including its map entry, in bytes
+     */
+    private static final int BYTES_PER_COUNTER = 96;
+
+    /**
+     * Length of the tumbling windows
+     */
+    @Builder.Default
+    Duration window = Duration.ofMinutes(1L);
+
+    /**
+     * Number of counters for the top chatters and top emotes of each channel
+     */
+    @Builder.Default
+    int topCapacity = 50;
+
+    /**
+     * Number of rows of the count-min sketches
+     */
+    @Builder.Default
+    int sketchDepth = 4;
+
+    /**
+     * Number of counters per row of the count-min sketches
+     */
+    @Builder.Default
+    int sketchWidth = 256;
+
+    /**
+     * Memory available to all channels, in bytes; channels beyond the budget are not tracked
+     */
+    @Builder.Default
+    long memoryBudget = 64L * 1024 * 1024;
+
+    /**
+     * @return the estimated memory of a tracked channel, in bytes
+     */
+    public long getBytesPerChannel() {
+        final long width = sketchWidth <= 1 ? 1L : Integer.highestOneBit(sketchWidth - 1) << 1;
+        final long sketches = 2L * sketchDepth * width * Integer.BYTES;
+        return sketches + 2L * topCapacity * BYTES_PER_COUNTER;
+    }
+
+    /**
+     * @return the number of channels that fit in the memory budget
+     */
+    public int getMaxChannels() {
+        return (int) Math.min(Integer.MAX_VALUE, memoryBudget / getBytesPerChannel());
+    }
+
+}
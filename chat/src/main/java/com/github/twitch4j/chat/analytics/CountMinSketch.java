@@ -0,0 +1,88 @@
+package com.github.twitch4j.chat.analytics;
+
+import java.util.Arrays;
+
+/**
+ * Count-min sketch with conservative update, estimating the frequency of 64-bit keys in a fixed number of counters.
+ * <p>
+ * Estimates never fall below the true count, and exceed it by at most {@code e / width} of the total count
+ * with a probability of {@code 1 - e^-depth}. Not thread-safe.
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+
+    private final int mask;
+
+    private final int[] counters;
+
+    /**
+     * Constructor
+     *
+     * @param depth number of rows, i.e. hash functions
+     * @param width number of counters per row, rounded up to a power of two
+     */
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1)
+            throw new IllegalArgumentException("depth and width must be positive");
+
+        final int w = width == 1 ? 1 : Integer.highestOneBit(width - 1) << 1;
+        this.depth = depth;
+        this.mask = w - 1;
+        this.counters = new int[depth * w];
+    }
+
+    /**
+     * Adds occurrences of a key
+     *
+     * @param key   the hashed key
+     * @param count the number of occurrences
+     * @return the estimated count of the key, after adding
+     */
+    public int add(long key, int count) {
+        final int estimate = estimate(key);
+        final int target = estimate + count < 0 ? Integer.MAX_VALUE : estimate + count;
+
+        final int h1 = (int) key;
+        final int h2 = (int) (key >>> 32);
+        for (int row = 0; row < depth; row++) {
+            final int i = index(row, h1, h2);
+            if (counters[i] < target) counters[i] = target;
+        }
+        return target;
+    }
+
+    /**
+     * @param key the hashed key
+     * @return the estimated count of the key
+     */
+    public int estimate(long key) {
+        final int h1 = (int) key;
+        final int h2 = (int) (key >>> 32);
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counters[index(row, h1, h2)]);
+        }
+        return min;
+    }
+
+    /**
+     * Resets all counters
+     */
+    public void clear() {
+        Arrays.fill(counters, 0);
+    }
+
+    /**
+     * @return the size of the counters, in bytes
+     */
+    public long getSizeInBytes() {
+        return counters.length * (long) Integer.BYTES;
+    }
+
+    private int index(int row, int h1, int h2) {
+        // Kirsch-Mitzenmacher: row hashes derived from two halves of one hash
+        return row * (mask + 1) + ((h1 + row * h2) & mask);
+    }
+
+}
@@ -0,0 +1,153 @@
+package com.github.twitch4j.chat.analytics;
+
+/**
+ * The positions of the emotes of a message, decoded from the {@code emotes} tag (e.g. {@code 25:0-4,12-16/1902:6-10}) into an int array.
+ * <p>
+ * Each occurrence takes four ints: the bounds of the emote id within the tag, and the (inclusive) bounds within the message.
+ * Occurrences of the same emote are adjacent, so that the emote ids only have to be read once per distinct emote.
+ */
+public final class EmoteRanges {
+
+    private static final EmoteRanges EMPTY = new EmoteRanges("", new int[0], 0);
+
+    private static final int FIELDS = 4;
+
+    private final String tag;
+
+    private final int[] data;
+
+    private final int size;
+
+    private EmoteRanges(String tag, int[] data, int size) {
+        this.tag = tag;
+        this.data = data;
+        this.size = size;
+    }
+
+    /**
+     * Decodes an emotes tag, ignoring everything after a malformed emote
+     *
+     * @param tag the value of the emotes tag, may be null
+     * @return the emote occurrences
+     */
+    public static EmoteRanges parse(String tag) {
+        if (tag == null || tag.isEmpty()) return EMPTY;
+
+        int[] data = new int[FIELDS * 4];
+        int size = 0;
+
+        final int n = tag.length();
+        int i = 0;
+        emotes:
+        while (i < n) {
+            final int idStart = i;
+            while (i < n && tag.charAt(i) != ':') i++;
+            final int idEnd = i++;
+            if (idEnd == idStart || i >= n) break;
+
+            while (true) {
+                final int start = parseInt(tag, i);
+                if (start < 0) break emotes;
+                i = skipNumber(tag, i);
+                if (i >= n || tag.charAt(i) != '-') break emotes;
+
+                final int end = parseInt(tag, ++i);
+                if (end < start) break emotes;
+                i = skipNumber(tag, i);
+
+                if (data.length < (size + 1) * FIELDS) {
+                    final int[] grown = new int[data.length * 2];
+                    System.arraycopy(data, 0, grown, 0, data.length);
+                    data = grown;
+                }
+                final int offset = size++ * FIELDS;
+                data[offset] = idStart;
+                data[offset + 1] = idEnd;
+                data[offset + 2] = start;
+                data[offset + 3] = end;
+
+                if (i >= n) break emotes;
+                final char c = tag.charAt(i++);
+                if (c == '/') break;
+                if (c != ',') break emotes;
+            }
+        }
+
+        return size > 0 ? new EmoteRanges(tag, data, size) : EMPTY;
+    }
+
+    /**
+     * @return the number of emote occurrences
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the message has no emotes
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index the index of the occurrence
+     * @return the index of the first character of the emote within the message
+     */
+    public int getStart(int index) {
+        return data[check(index) * FIELDS + 2];
+    }
+
+    /**
+     * @param index the index of the occurrence
+     * @return the index of the last character of the emote within the message
+     */
+    public int getEnd(int index) {
+        return data[check(index) * FIELDS + 3];
+    }
+
+    /**
+     * @param index the index of the occurrence
+     * @return the emote id, read from the tag
+     */
+    public String getEmoteId(int index) {
+        final int offset = check(index) * FIELDS;
+        return tag.substring(data[offset], data[offset + 1]);
+    }
+
+    /**
+     * @param index the index of an occurrence
+     * @return whether the next occurrence is of the same emote
+     */
+    public boolean isSameEmoteAsNext(int index) {
+        final int offset = check(index) * FIELDS;
+        return index + 1 < size && data[offset + FIELDS] == data[offset];
+    }
+
+    private int check(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        return index;
+    }
+
+    /**
+     * @return the non-negative number at the position, or -1 if there is none
+     */
+    private static int parseInt(String s, int i) {
+        int value = 0;
+        int digits = 0;
+        for (; i < s.length(); i++, digits++) {
+            final char c = s.charAt(i);
+            if (c < '0' || c > '9') break;
+            if (value > (Integer.MAX_VALUE - 9) / 10) return -1;
+            value = value * 10 + (c - '0');
+        }
+        return digits > 0 ? value : -1;
+    }
+
+    private static int skipNumber(String s, int i) {
+        while (i < s.length() && s.charAt(i) >= '0' && s.charAt(i) <= '9') i++;
+        return i;
+    }
+
+}
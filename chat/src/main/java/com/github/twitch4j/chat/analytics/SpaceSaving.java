@@ -0,0 +1,185 @@
+package com.github.twitch4j.chat.analytics;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-saving top-k, tracking the most frequent keys in a fixed number of counters.
+ * <p>
+ * When all counters are taken, a new key replaces the key with the lowest count and inherits that count as its error,
+ * so that every key occurring more than {@code total / capacity} times is guaranteed to be tracked.
+ * The counters are kept in a min-heap, making each update O(log capacity). Not thread-safe.
+ *
+ * @param <K> the type of the keys
+ */
+public final class SpaceSaving<K> {
+
+    private final Counter<K>[] heap;
+
+    private final Map<K, Counter<K>> counters;
+
+    private int size;
+
+    /**
+     * Constructor
+     *
+     * @param capacity number of counters
+     */
+    @SuppressWarnings("unchecked")
+    public SpaceSaving(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("capacity must be positive");
+
+        this.heap = new Counter[capacity];
+        this.counters = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Adds occurrences of a key
+     *
+     * @param key       the key
+     * @param increment the number of occurrences
+     */
+    public void offer(@NonNull K key, long increment) {
+        Counter<K> counter = counters.get(key);
+        if (counter != null) {
+            counter.count += increment;
+            siftDown(counter.index);
+        } else if (size < heap.length) {
+            counter = new Counter<>(key);
+            counter.count = increment;
+            counter.index = size;
+            heap[size++] = counter;
+            counters.put(key, counter);
+            siftUp(counter.index);
+        } else {
+            counter = heap[0];
+            counters.remove(counter.key);
+            counter.key = key;
+            counter.error = counter.count;
+            counter.count += increment;
+            counters.put(key, counter);
+            siftDown(0);
+        }
+    }
+
+    /**
+     * @param n the maximum number of keys
+     * @return the most frequent keys, most frequent first
+     */
+    public List<Entry<K>> top(int n) {
+        if (n <= 0 || size == 0) return Collections.emptyList();
+
+        final Counter<K>[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted, Comparator.comparingLong((Counter<K> c) -> c.count).reversed());
+
+        final int limit = Math.min(n, size);
+        final List<Entry<K>> list = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            list.add(new Entry<>(sorted[i].key, sorted[i].count, sorted[i].error));
+        }
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return the number of tracked keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of counters
+     */
+    public int getCapacity() {
+        return heap.length;
+    }
+
+    /**
+     * Forgets all keys
+     */
+    public void clear() {
+        Arrays.fill(heap, 0, size, null);
+        counters.clear();
+        size = 0;
+    }
+
+    private void siftUp(int i) {
+        final Counter<K> counter = heap[i];
+        while (i > 0) {
+            final int parent = (i - 1) >>> 1;
+            if (heap[parent].count <= counter.count) break;
+            place(heap[parent], i);
+            i = parent;
+        }
+        place(counter, i);
+    }
+
+    private void siftDown(int i) {
+        final Counter<K> counter = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && heap[child + 1].count < heap[child].count) child++;
+            if (counter.count <= heap[child].count) break;
+            place(heap[child], i);
+            i = child;
+        }
+        place(counter, i);
+    }
+
+    private void place(Counter<K> counter, int i) {
+        heap[i] = counter;
+        counter.index = i;
+    }
+
+    private static final class Counter<K> {
+
+        private K key;
+
+        private long count;
+
+        private long error;
+
+        private int index;
+
+        private Counter(K key) {
+            this.key = key;
+        }
+
+    }
+
+    /**
+     * A tracked key
+     *
+     * @param <K> the type of the key
+     */
+    @Value
+    public static class Entry<K> {
+
+        /**
+         * The key
+         */
+        K key;
+
+        /**
+         * The estimated count, which exceeds the true count by at most the error
+         */
+        long count;
+
+        /**
+         * The maximum overestimation of the count
+         */
+        long error;
+
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.github.twitch4j.chat.analytics;
+
+import lombok.Value;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Statistics of a channel within one window
+ */
+@Value
+public class WindowStats {
+
+    /**
+     * The id of the channel
+     */
+    String channelId;
+
+    /**
+     * The start of the window
+     */
+    Instant start;
+
+    /**
+     * The length of the window
+     */
+    Duration length;
+
+    /**
+     * The number of messages
+     */
+    long messageCount;
+
+    /**
+     * The number of emote occurrences
+     */
+    long emoteCount;
+
+    /**
+     * The users with the most messages (by user id), most active first
+     */
+    List<SpaceSaving.Entry<String>> topChatters;
+
+    /**
+     * The most used emotes (by emote id), most used first
+     */
+    List<SpaceSaving.Entry<String>> topEmotes;
+
+    /**
+     * @return the average number of messages per minute
+     */
+    public double getMessagesPerMinute() {
+        return messageCount * 60_000.0 / length.toMillis();
+    }
+
+}
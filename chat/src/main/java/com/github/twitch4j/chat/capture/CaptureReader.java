@@ -0,0 +1,202 @@
+package com.github.twitch4j.chat.capture;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the records of a capture file written by {@link CaptureWriter}, in order.
+ * <p>
+ * The file is read through memory-mapped windows, so captures of any size are read without loading them onto the heap;
+ * only the current block is held in (reused) buffers.
+ * A truncated last block (e.g. of a capture that was being written when the process died) is treated as the end of the capture.
+ * <pre>{@code
+ * try (CaptureReader reader = new CaptureReader(path)) {
+ *     while (reader.next()) {
+ *         handle(reader.getTimestamp(), reader.getLine());
+ *     }
+ * }
+ * }</pre>
+ */
+public final class CaptureReader implements Closeable {
+
+    /**
+     * Size of the memory-mapped windows
+     */
+    private static final long WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    private final Inflater inflater = new Inflater();
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    /**
+     * File position of the next block
+     */
+    private long position;
+
+    private byte[] compressed = new byte[0];
+
+    private byte[] block = new byte[0];
+
+    private int blockLength;
+
+    private int blockOffset;
+
+    private int remainingRecords;
+
+    private long timestamp;
+
+    private String line;
+
+    /**
+     * Opens a capture file
+     *
+     * @param file the capture file
+     * @throws IOException if the file could not be opened or is not a capture
+     */
+    public CaptureReader(@NonNull Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+
+        final byte[] magic = new byte[CaptureWriter.MAGIC.length];
+        if (size < magic.length) {
+            close();
+            throw new IOException("Not a chat capture: " + file);
+        }
+        map(0L, magic.length).get(magic);
+        for (int i = 0; i < magic.length; i++) {
+            if (magic[i] != CaptureWriter.MAGIC[i]) {
+                close();
+                throw new IOException("Not a chat capture: " + file);
+            }
+        }
+        this.position = magic.length;
+    }
+
+    /**
+     * Advances to the next record
+     *
+     * @return whether a record was read
+     * @throws IOException if the capture is corrupt
+     */
+    public boolean next() throws IOException {
+        while (remainingRecords == 0) {
+            if (!readBlock()) {
+                line = null;
+                return false;
+            }
+        }
+
+        final long zigzag = getVarLong();
+        timestamp += (zigzag >>> 1) ^ -(zigzag & 1L);
+        final int length = (int) getVarLong();
+        if (length < 0 || blockOffset + length > blockLength)
+            throw new IOException("Corrupt chat capture record");
+        line = new String(block, blockOffset, length, StandardCharsets.UTF_8);
+        blockOffset += length;
+        remainingRecords--;
+        return true;
+    }
+
+    /**
+     * @return the receive time of the current record, in epoch milliseconds
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * @return the raw line of the current record
+     */
+    public String getLine() {
+        return line;
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        inflater.end();
+        channel.close();
+    }
+
+    private boolean readBlock() throws IOException {
+        if (position + CaptureWriter.BLOCK_HEADER_LENGTH > size)
+            return false;
+
+        final MappedByteBuffer header = map(position, CaptureWriter.BLOCK_HEADER_LENGTH);
+        final int records = header.getInt();
+        final int rawLength = header.getInt();
+        final int compressedLength = header.getInt();
+        if (records < 0 || rawLength < 0 || compressedLength < 0)
+            throw new IOException("Corrupt chat capture block at " + position);
+        if (position + CaptureWriter.BLOCK_HEADER_LENGTH + compressedLength > size)
+            return false; // truncated by an interrupted write
+
+        if (compressed.length < compressedLength) compressed = new byte[compressedLength];
+        if (block.length < rawLength) block = new byte[rawLength];
+        map(position + CaptureWriter.BLOCK_HEADER_LENGTH, compressedLength).get(compressed, 0, compressedLength);
+
+        inflater.reset();
+        inflater.setInput(compressed, 0, compressedLength);
+        try {
+            int n = 0;
+            while (n < rawLength && !inflater.finished()) {
+                int inflated = inflater.inflate(block, n, rawLength - n);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                n += inflated;
+            }
+            if (n != rawLength)
+                throw new IOException("Corrupt chat capture block at " + position);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt chat capture block at " + position, e);
+        }
+
+        position += CaptureWriter.BLOCK_HEADER_LENGTH + compressedLength;
+        blockLength = rawLength;
+        blockOffset = 0;
+        remainingRecords = records;
+        timestamp = 0L;
+        return true;
+    }
+
+    /**
+     * Positions the current window at a region, remapping the window if the region is outside of it
+     */
+    private MappedByteBuffer map(long start, int length) throws IOException {
+        if (window == null || start < windowStart || start + length > windowStart + window.capacity()) {
+            windowStart = start;
+            window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.max(length, Math.min(WINDOW_SIZE, size - start)));
+        }
+        window.clear();
+        window.position((int) (start - windowStart));
+        window.limit((int) (start - windowStart) + length);
+        return window;
+    }
+
+    private long getVarLong() throws IOException {
+        long value = 0L;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (blockOffset >= blockLength)
+                throw new IOException("Corrupt chat capture record");
+            final byte b = block[blockOffset++];
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return value;
+        }
+        throw new IOException("Corrupt chat capture record");
+    }
+
+}
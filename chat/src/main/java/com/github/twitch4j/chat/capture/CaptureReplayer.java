@@ -0,0 +1,71 @@
+package com.github.twitch4j.chat.capture;
+
+import com.github.twitch4j.chat.TwitchChat;
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Replays a capture file, deterministically in the recorded order, either with the recorded timing (optionally sped up) or as fast as possible.
+ */
+@UtilityClass
+public class CaptureReplayer {
+
+    /**
+     * Replays a capture into the parsing and dispatch path of a chat client, see {@link TwitchChat#receiveLine(String)}
+     *
+     * @param file  the capture file
+     * @param chat  the chat client
+     * @param speed the speed relative to the recorded timing (e.g. 1 for the original speed, 10 for ten times as fast), or 0 for as fast as possible
+     * @return the number of replayed lines
+     * @throws IOException          if the capture could not be read
+     * @throws InterruptedException if the thread was interrupted while waiting for the next line
+     */
+    public long replay(@NonNull Path file, @NonNull TwitchChat chat, double speed) throws IOException, InterruptedException {
+        return replay(file, chat::receiveLine, speed);
+    }
+
+    /**
+     * Replays a capture into a consumer
+     *
+     * @param file     the capture file
+     * @param consumer receives the raw lines
+     * @param speed    the speed relative to the recorded timing (e.g. 1 for the original speed, 10 for ten times as fast), or 0 for as fast as possible
+     * @return the number of replayed lines
+     * @throws IOException          if the capture could not be read
+     * @throws InterruptedException if the thread was interrupted while waiting for the next line
+     */
+    public long replay(@NonNull Path file, @NonNull Consumer<String> consumer, double speed) throws IOException, InterruptedException {
+        if (speed < 0 || Double.isNaN(speed))
+            throw new IllegalArgumentException("speed must not be negative");
+
+        try (CaptureReader reader = new CaptureReader(file)) {
+            long count = 0L;
+            long firstTimestamp = 0L;
+            long startNanos = 0L;
+
+            while (reader.next()) {
+                if (speed > 0) {
+                    if (count == 0L) {
+                        firstTimestamp = reader.getTimestamp();
+                        startNanos = System.nanoTime();
+                    } else {
+                        final long dueNanos = startNanos + (long) (TimeUnit.MILLISECONDS.toNanos(reader.getTimestamp() - firstTimestamp) / speed);
+                        final long waitNanos = dueNanos - System.nanoTime();
+                        if (waitNanos > 0L) TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    }
+                }
+
+                consumer.accept(reader.getLine());
+                count++;
+            }
+
+            return count;
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+package com.github.twitch4j.chat.capture;
+
+import lombok.NonNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+/**
+ * Appends raw irc lines with their receive timestamps to a block-compressed capture file.
+ * <p>
+ * File format:
+ * <ul>
+ *     <li>the 8 byte header {@link #MAGIC}</li>
+ *     <li>a sequence of blocks, each consisting of the record count, the uncompressed length and the compressed length (as big-endian ints),
+ *     followed by the deflated records</li>
+ *     <li>each record consists of the timestamp as zigzag varint delta to the previous record of the block (epoch milliseconds),
+ *     the length of the line as varint, and the line as UTF-8</li>
+ * </ul>
+ * Records are buffered until a block is full, so a capture should be {@link #flush() flushed} or {@link #close() closed} to persist the last records.
+ *
+ * @see CaptureReader
+ */
+public final class CaptureWriter implements Closeable {
+
+    /**
+     * File header
+     */
+    public static final byte[] MAGIC = "T4JCAP1\n".getBytes(StandardCharsets.US_ASCII);
+
+    /**
+     * Default uncompressed size of a block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 64 * 1024;
+
+    /**
+     * Length of the block header
+     */
+    static final int BLOCK_HEADER_LENGTH = 12;
+
+    private final FileChannel channel;
+
+    private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+
+    private final int blockSize;
+
+    private byte[] block;
+
+    private int blockLength;
+
+    private int recordCount;
+
+    private long lastTimestamp;
+
+    private byte[] compressed = new byte[0];
+
+    private boolean closed;
+
+    /**
+     * Opens a capture file for appending, writing the header if the file is new
+     *
+     * @param file the capture file
+     * @throws IOException if the file could not be opened or is not a capture
+     */
+    public CaptureWriter(@NonNull Path file) throws IOException {
+        this(file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Opens a capture file for appending, writing the header if the file is new
+     *
+     * @param file      the capture file
+     * @param blockSize the uncompressed size after which a block is written
+     * @throws IOException if the file could not be opened or is not a capture
+     */
+    public CaptureWriter(@NonNull Path file, int blockSize) throws IOException {
+        if (blockSize < 1)
+            throw new IllegalArgumentException("blockSize must be positive");
+
+        this.blockSize = blockSize;
+        this.block = new byte[blockSize + 64];
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        if (channel.size() == 0L) {
+            writeFully(ByteBuffer.wrap(MAGIC));
+        } else if (!hasMagic(file)) {
+            channel.close();
+            throw new IOException("Not a chat capture: " + file);
+        }
+    }
+
+    /**
+     * Appends a line
+     *
+     * @param timestamp the receive time, in epoch milliseconds
+     * @param line      the raw line, without line terminator
+     * @throws IOException if a full block could not be written
+     */
+    public synchronized void record(long timestamp, @NonNull String line) throws IOException {
+        if (closed)
+            throw new IOException("The capture was closed");
+
+        final byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(blockLength + 20 + bytes.length);
+
+        final long delta = timestamp - lastTimestamp;
+        putVarLong((delta << 1) ^ (delta >> 63));
+        putVarLong(bytes.length);
+        System.arraycopy(bytes, 0, block, blockLength, bytes.length);
+        blockLength += bytes.length;
+        lastTimestamp = timestamp;
+        recordCount++;
+
+        if (blockLength >= blockSize)
+            writeBlock();
+    }
+
+    /**
+     * Writes the buffered records as a block
+     *
+     * @throws IOException if the block could not be written
+     */
+    public synchronized void flush() throws IOException {
+        if (!closed)
+            writeBlock();
+    }
+
+    /**
+     * Writes the buffered records and closes the file
+     *
+     * @throws IOException if the block could not be written
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        try {
+            writeBlock();
+            channel.force(false);
+        } finally {
+            closed = true;
+            deflater.end();
+            channel.close();
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        if (recordCount == 0) return;
+
+        deflater.reset();
+        deflater.setInput(block, 0, blockLength);
+        deflater.finish();
+        if (compressed.length < blockLength + 64)
+            compressed = new byte[blockLength + 64];
+        int compressedLength = 0;
+        while (!deflater.finished()) {
+            if (compressedLength == compressed.length)
+                compressed = Arrays.copyOf(compressed, compressed.length * 2);
+            compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+        }
+
+        final ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_LENGTH);
+        header.putInt(recordCount).putInt(blockLength).putInt(compressedLength).flip();
+        writeFully(header);
+        writeFully(ByteBuffer.wrap(compressed, 0, compressedLength));
+
+        blockLength = 0;
+        recordCount = 0;
+        lastTimestamp = 0L;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > block.length)
+            block = Arrays.copyOf(block, Math.max(capacity, block.length * 2));
+    }
+
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0L) {
+            block[blockLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        block[blockLength++] = (byte) value;
+    }
+
+    /**
+     * @return whether an existing file starts with the header, as the append-only channel cannot read it
+     */
+    private static boolean hasMagic(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer magic = ByteBuffer.allocate(MAGIC.length);
+            while (magic.hasRemaining() && in.read(magic) >= 0) {
+                // read the whole header
+            }
+            return !magic.hasRemaining() && Arrays.equals(magic.array(), MAGIC);
+        }
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.github.twitch4j.chat.enums;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Priority lanes of the outgoing chat command queue, from highest to lowest priority.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CommandPriority {
+
+    /**
+     * Moderation commands (i.e. delete, timeout, ban, unban)
+     */
+    MODERATION(8),
+
+    /**
+     * Whispers
+     */
+    WHISPER(4),
+
+    /**
+     * Replies to chat messages
+     */
+    REPLY(2),
+
+    /**
+     * All other messages and raw commands
+     */
+    BULK(1);
+
+    /**
+     * The default share of sends for this lane, relative to the other lanes that have commands waiting
+     */
+    private final int defaultWeight;
+
+}
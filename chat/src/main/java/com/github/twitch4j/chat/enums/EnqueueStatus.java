@@ -0,0 +1,35 @@
+package com.github.twitch4j.chat.enums;
+
+/**
+ * Result of adding a command to the outgoing chat command queue.
+ */
+public enum EnqueueStatus {
+
+    /**
+     * The command was queued
+     */
+    QUEUED,
+
+    /**
+     * The command was queued, after the oldest command of the lane was dropped
+     */
+    QUEUED_DROPPED_OLDEST,
+
+    /**
+     * The lane was full, so the command was dropped
+     */
+    REJECTED,
+
+    /**
+     * The lane was still full after waiting for the configured timeout, so the command was dropped
+     */
+    TIMED_OUT;
+
+    /**
+     * @return whether the command was queued
+     */
+    public boolean isQueued() {
+        return this == QUEUED || this == QUEUED_DROPPED_OLDEST;
+    }
+
+}
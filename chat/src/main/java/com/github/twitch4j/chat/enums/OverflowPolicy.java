@@ -0,0 +1,28 @@
+package com.github.twitch4j.chat.enums;
+
+/**
+ * Behavior of a command queue lane that is at its capacity.
+ */
+public enum OverflowPolicy {
+
+    /**
+     * Removes the oldest command of the lane to make room for the new command
+     */
+    DROP_OLDEST,
+
+    /**
+     * Rejects the new command
+     */
+    DROP_NEWEST,
+
+    /**
+     * Blocks the caller until there is room in the lane, or until the configured timeout elapses
+     */
+    BLOCK,
+
+    /**
+     * Rejects the new command and passes it to the configured callback
+     */
+    CALLBACK
+
+}
@@ -1,12 +1,14 @@
 package com.github.twitch4j.chat.events;
 
 import com.github.twitch4j.chat.enums.CommandSource;
+import com.github.twitch4j.chat.util.CommandMatcher;
 import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.events.domain.EventUser;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.Value;
 
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -42,6 +44,16 @@ public class CommandEvent extends TwitchEvent {
      */
     private String command;
 
+    /**
+     * Command name, without prefix and arguments
+     */
+    private String commandName;
+
+    /**
+     * Whitespace separated arguments after the command name (read-only)
+     */
+    private List<String> arguments;
+
     /**
      * Permissions of the user
      */
@@ -59,11 +71,35 @@ public class CommandEvent extends TwitchEvent {
      */
     public CommandEvent(CommandSource source, String sourceId, EventUser user, String commandPrefix, String command, Set<CommandPermission> permissions) {
         super();
+        final List<String> tokens = CommandMatcher.split(command);
         this.source = source;
         this.sourceId = sourceId;
         this.user = user;
         this.commandPrefix = commandPrefix;
         this.command = command;
+        this.commandName = tokens.isEmpty() ? "" : tokens.get(0);
+        this.arguments = tokens.isEmpty() ? tokens : tokens.subList(1, tokens.size());
+        this.permissions = permissions;
+    }
+
+    /**
+     * Event Constructor
+     *
+     * @param source        Source (used for response method)
+     * @param sourceId      Source Id (used for response method)
+     * @param user          The user who triggered the event.
+     * @param match         The matched command.
+     * @param permissions   The permissions of the triggering user.
+     */
+    public CommandEvent(CommandSource source, String sourceId, EventUser user, CommandMatcher.Match match, Set<CommandPermission> permissions) {
+        super();
+        this.source = source;
+        this.sourceId = sourceId;
+        this.user = user;
+        this.commandPrefix = match.getPrefix();
+        this.command = match.getCommand();
+        this.commandName = match.getCommandName();
+        this.arguments = match.getArguments();
         this.permissions = permissions;
     }
 
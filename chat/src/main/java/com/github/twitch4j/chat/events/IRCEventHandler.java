@@ -8,6 +8,8 @@ import com.github.twitch4j.common.enums.SubscriptionPlan;
 import com.github.twitch4j.common.events.domain.EventChannel;
 import com.github.twitch4j.common.events.domain.EventUser;
 import com.github.twitch4j.common.events.user.PrivateMessageEvent;
+import com.github.twitch4j.common.util.IdentityCache;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +23,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_CHEERER;
 import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_GIFTER;
@@ -35,48 +40,158 @@ import static com.github.twitch4j.common.util.TwitchUtils.ANONYMOUS_GIFTER;
 public class IRCEventHandler {
 
     /**
-     * Twitch Client
+     * Twitch Client, or null if the handler is shared by multiple connections (i.e. {@link com.github.twitch4j.chat.ShardedTwitchChat})
      */
-    private final TwitchChat twitchChat;
+    private TwitchChat twitchChat;
 
     /**
      * Event Manager
      */
     private final EventManager eventManager;
 
+    /**
+     * Handlers by IRC command
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Consumer<IRCMessageEvent>>> commandHandlers = new ConcurrentHashMap<>();
+
+    /**
+     * Handlers for USERNOTICE by (lower case) msg-id
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Consumer<IRCMessageEvent>>> userNoticeHandlers = new ConcurrentHashMap<>();
+
+    /**
+     * Handlers for NOTICE by (lower case) msg-id
+     */
+    @Getter(AccessLevel.NONE)
+    private final Map<String, List<Consumer<IRCMessageEvent>>> noticeHandlers = new ConcurrentHashMap<>();
+
     /**
      * Constructor
      *
      * @param twitchChat The Twitch Chat instance
      */
     public IRCEventHandler(TwitchChat twitchChat) {
+        this(twitchChat.getEventManager());
         this.twitchChat = twitchChat;
-        this.eventManager = twitchChat.getEventManager();
-
-        // register event handlers
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannelMessage);
-        eventManager.onEvent(IRCMessageEvent.class, this::onWhisper);
-        eventManager.onEvent(IRCMessageEvent.class, this::onBitsBadgeTier);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannelCheer);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannelSubscription);
-        eventManager.onEvent(IRCMessageEvent.class, this::onClearChat);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannnelClientJoinEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannnelClientLeaveEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannelModChange);
-        eventManager.onEvent(IRCMessageEvent.class, this::onNoticeEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onHostOnEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onHostOffEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onListModsEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onListVipsEvent);
-        eventManager.onEvent(IRCMessageEvent.class, this::onChannelState);
-        eventManager.onEvent(IRCMessageEvent.class, this::onGiftReceived);
-        eventManager.onEvent(IRCMessageEvent.class, this::onPayForward);
-        eventManager.onEvent(IRCMessageEvent.class, this::onRaid);
-        eventManager.onEvent(IRCMessageEvent.class, this::onUnraid);
-        eventManager.onEvent(IRCMessageEvent.class, this::onRewardGift);
-        eventManager.onEvent(IRCMessageEvent.class, this::onRitual);
-        eventManager.onEvent(IRCMessageEvent.class, this::onMessageDeleteResponse);
-        eventManager.onEvent(IRCMessageEvent.class, this::onUserState);
+    }
+
+    /**
+     * Constructor for an event handler that is shared by multiple chat connections (i.e. {@link com.github.twitch4j.chat.ShardedTwitchChat})
+     *
+     * @param eventManager The Event Manager
+     */
+    public IRCEventHandler(EventManager eventManager) {
+        this.eventManager = eventManager;
+
+        // register command handlers
+        registerCommandHandler("PRIVMSG", this::onChannelMessage);
+        registerCommandHandler("PRIVMSG", this::onChannelCheer);
+        registerCommandHandler("WHISPER", this::onWhisper);
+        registerCommandHandler("CLEARCHAT", this::onClearChat);
+        registerCommandHandler("JOIN", this::onChannnelClientJoinEvent);
+        registerCommandHandler("PART", this::onChannnelClientLeaveEvent);
+        registerCommandHandler("MODE", this::onChannelModChange);
+        registerCommandHandler("NOTICE", this::onNoticeEvent);
+        registerCommandHandler("ROOMSTATE", this::onChannelState);
+        registerCommandHandler("USERSTATE", this::onUserState);
+
+        // register USERNOTICE handlers
+        registerUserNoticeHandler("bitsbadgetier", this::onBitsBadgeTier);
+        for (String msgId : Arrays.asList("sub", "resub", "subgift", "anonsubgift", "submysterygift", "anonsubmysterygift", "giftpaidupgrade", "anongiftpaidupgrade", "primepaidupgrade", "extendsub")) {
+            registerUserNoticeHandler(msgId, this::onChannelSubscription);
+        }
+        registerUserNoticeHandler("primecommunitygiftreceived", this::onGiftReceived);
+        registerUserNoticeHandler("standardpayforward", this::onPayForward);
+        registerUserNoticeHandler("communitypayforward", this::onPayForward);
+        registerUserNoticeHandler("raid", this::onRaid);
+        registerUserNoticeHandler("unraid", this::onUnraid);
+        registerUserNoticeHandler("rewardgift", this::onRewardGift);
+        registerUserNoticeHandler("ritual", this::onRitual);
+
+        // register NOTICE handlers
+        registerNoticeHandler("host_on", this::onHostOnEvent);
+        registerNoticeHandler("host_off", this::onHostOffEvent);
+        registerNoticeHandler("room_mods", this::onListModsEvent);
+        registerNoticeHandler("no_mods", this::onListModsEvent);
+        registerNoticeHandler("vips_success", this::onListVipsEvent);
+        registerNoticeHandler("no_vips", this::onListVipsEvent);
+        registerNoticeHandler("delete_message_success", this::onMessageDeleteResponse);
+        registerNoticeHandler("bad_delete_message_error", this::onMessageDeleteResponse);
+
+        // single listener that routes to the handlers above
+        eventManager.onEvent(IRCMessageEvent.class, this::onMessage);
+    }
+
+    /**
+     * Registers a handler for all irc messages with the specified command
+     *
+     * @param command the irc command (e.g. PRIVMSG)
+     * @param handler the handler to be invoked
+     */
+    public void registerCommandHandler(@NonNull String command, @NonNull Consumer<IRCMessageEvent> handler) {
+        commandHandlers.computeIfAbsent(command, k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Registers a handler for USERNOTICE messages with the specified msg-id
+     * <p>
+     * This can be used to parse msg-ids that are not (yet) supported by this library.
+     *
+     * @param msgId   the msg-id tag value (case-insensitive)
+     * @param handler the handler to be invoked
+     */
+    public void registerUserNoticeHandler(@NonNull String msgId, @NonNull Consumer<IRCMessageEvent> handler) {
+        userNoticeHandlers.computeIfAbsent(msgId.toLowerCase(Locale.ROOT), k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Registers a handler for NOTICE messages with the specified msg-id
+     * <p>
+     * This can be used to parse msg-ids that are not (yet) supported by this library.
+     *
+     * @param msgId   the msg-id tag value (case-insensitive)
+     * @param handler the handler to be invoked
+     */
+    public void registerNoticeHandler(@NonNull String msgId, @NonNull Consumer<IRCMessageEvent> handler) {
+        noticeHandlers.computeIfAbsent(msgId.toLowerCase(Locale.ROOT), k -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    /**
+     * Routes an irc message to the handlers registered for its command and, for USERNOTICE and NOTICE, msg-id
+     *
+     * @param event IRCMessageEvent
+     */
+    public void onMessage(IRCMessageEvent event) {
+        final String command = event.getCommandType();
+        dispatch(commandHandlers.get(command), event);
+
+        final Map<String, List<Consumer<IRCMessageEvent>>> msgIdHandlers;
+        if ("USERNOTICE".equals(command)) {
+            msgIdHandlers = userNoticeHandlers;
+        } else if ("NOTICE".equals(command)) {
+            msgIdHandlers = noticeHandlers;
+        } else {
+            return;
+        }
+
+        final String msgId = event.getTags().get("msg-id");
+        if (msgId != null) {
+            dispatch(msgIdHandlers.get(msgId.toLowerCase(Locale.ROOT)), event);
+        }
+    }
+
+    private void dispatch(List<Consumer<IRCMessageEvent>> handlers, IRCMessageEvent event) {
+        if (handlers == null) return;
+
+        for (Consumer<IRCMessageEvent> handler : handlers) {
+            try {
+                handler.accept(event);
+            } catch (Exception ex) {
+                log.error("Failed to handle irc message: {}", event.getRawMessage(), ex);
+            }
+        }
     }
 
     /**
@@ -189,7 +304,7 @@ public class IRCEventHandler {
             // Receive Gifted Sub
             else if (msgId.equalsIgnoreCase("subgift") || msgId.equalsIgnoreCase("anonsubgift")) {
                 // Load Info
-                EventUser user = new EventUser(event.getTagValue("msg-param-recipient-id").get(), event.getTagValue("msg-param-recipient-user-name").get());
+                EventUser user = IdentityCache.user(event.getTagValue("msg-param-recipient-id").get(), event.getTagValue("msg-param-recipient-user-name").get());
                 EventUser giftedBy = event.getUser();
                 String subPlan = event.getTagValue("msg-param-sub-plan").get();
                 int subStreak = event.getTags().containsKey("msg-param-months") ? Integer.parseInt(event.getTags().get("msg-param-months")) : 1;
@@ -293,14 +408,14 @@ public class IRCEventHandler {
             String gifterName = gifterId != null
                 ? event.getTagValue("msg-param-prior-gifter-user-name").orElseGet(() -> event.getTagValue("msg-param-prior-gifter-display-name").orElse(null))
                 : null;
-            EventUser gifter = gifterId != null ? new EventUser(gifterId, gifterName) : null;
+            EventUser gifter = gifterId != null ? IdentityCache.user(gifterId, gifterName) : null;
 
             // Only present for standard
             String recipientId = msgId.charAt(0) == 's' ? event.getTagValue("msg-param-recipient-id").orElse(null) : null;
             String recipientName = recipientId != null
                 ? event.getTagValue("msg-param-recipient-user-name").orElseGet(() -> event.getTagValue("msg-param-recipient-display-name").orElse(null))
                 : null;
-            EventUser recipient = recipientId != null ? new EventUser(recipientId, recipientName) : null;
+            EventUser recipient = recipientId != null ? IdentityCache.user(recipientId, recipientName) : null;
 
             // Dispatch Event
             eventManager.publish(new PayForwardEvent(channel, user, gifter, recipient));
@@ -459,7 +574,7 @@ public class IRCEventHandler {
             if(event.getPayload().get().substring(1).startsWith("o")) {
                 // Load Info
                 EventChannel channel = event.getChannel();
-                EventUser user = new EventUser(null, event.getPayload().get().substring(3));
+                EventUser user = IdentityCache.user(null, event.getPayload().get().substring(3));
 
                 // Dispatch Event
                 eventManager.publish(new ChannelModEvent(channel, user, event.getPayload().get().startsWith("+")));
@@ -485,7 +600,7 @@ public class IRCEventHandler {
             if(messageId.equals("host_on")) {
                 String message = event.getMessage().get();
                 String targetChannelName = message.substring(12, message.length() - 1);
-                EventChannel targetChannel = new EventChannel(null, targetChannelName);
+                EventChannel targetChannel = IdentityCache.channel(null, targetChannelName);
                 eventManager.publish(new HostOnEvent(channel, targetChannel));
             }
         }
@@ -3,19 +3,20 @@ package com.github.twitch4j.chat.events.channel;
 import com.github.twitch4j.chat.events.TwitchEvent;
 import com.github.twitch4j.chat.flag.AutoModFlag;
 import com.github.twitch4j.chat.flag.FlagParser;
+import com.github.twitch4j.chat.util.IRCLine;
+import com.github.twitch4j.chat.util.IRCTags;
 import com.github.twitch4j.common.annotation.Unofficial;
 import com.github.twitch4j.common.enums.CommandPermission;
 import com.github.twitch4j.common.events.domain.EventChannel;
 import com.github.twitch4j.common.events.domain.EventUser;
+import com.github.twitch4j.common.util.BadgeCache;
 import com.github.twitch4j.common.util.EscapeUtils;
+import com.github.twitch4j.common.util.IdentityCache;
 import com.github.twitch4j.common.util.TwitchUtils;
 import lombok.*;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * This event gets called when we receive a raw irc message.
@@ -29,20 +30,25 @@ public class IRCMessageEvent extends TwitchEvent {
     @Unofficial
     public static final String NONCE_TAG_NAME = "client-nonce";
 
+    /**
+     * The host suffix of twitch chat users, i.e. user!user@user.tmi.twitch.tv
+     */
+    private static final String TWITCH_HOST_SUFFIX = "tmi.twitch.tv";
+
 	/**
 	 * Tags
 	 */
-	private Map<String, String> tags = new HashMap<>();
+	private Map<String, String> tags = Collections.emptyMap();
 
     /**
      * Raw Tags
      */
-    private Map<String, Object> rawTags = new HashMap<>();
+    private Map<String, Object> rawTags = Collections.emptyMap();
 
 	/**
-	 * Badges
+	 * Badges (read-only, shared by all messages with the same badges tag)
 	 */
-	private Map<String, String> badges = new HashMap<>();
+	private Map<String, String> badges = Collections.emptyMap();
 
     /**
      * Metadata related to the chat badges in the badges tag
@@ -105,9 +111,21 @@ public class IRCMessageEvent extends TwitchEvent {
      * @param botOwnerIds The bot owner ids.
      */
 	public IRCMessageEvent(String rawMessage, Map<String, String> channelIdToChannelName, Map<String, String> channelNameToChannelId, Collection<String> botOwnerIds) {
-		this.rawMessage = rawMessage;
+		this(IRCLine.tokenize(rawMessage), channelIdToChannelName, channelNameToChannelId, botOwnerIds);
+	}
+
+    /**
+     * Event Constructor
+     *
+     * @param line  The tokenized raw message.
+     * @param channelIdToChannelName Mapping used to lookup a missing channel name in the event
+     * @param channelNameToChannelId Mapping used to lookup a missing channel id in the event
+     * @param botOwnerIds The bot owner ids.
+     */
+	public IRCMessageEvent(@NonNull IRCLine line, Map<String, String> channelIdToChannelName, Map<String, String> channelNameToChannelId, Collection<String> botOwnerIds) {
+		this.rawMessage = line.getRaw();
 
-		this.parseRawMessage();
+		this.parseRawMessage(line);
 
         // set channel id
         if (tags.containsKey("room-id")) {
@@ -122,7 +140,10 @@ public class IRCMessageEvent extends TwitchEvent {
         }
 
         // permissions and badges
-		getClientPermissions().addAll(TwitchUtils.getPermissionsFromTags(getRawTags(), badges, botOwnerIds != null ? getUserId() : null, botOwnerIds));
+		final String userId = botOwnerIds != null ? getUserId() : null;
+		final BadgeCache.Badges resolvedBadges = BadgeCache.get(tags.get("badges"), userId != null && botOwnerIds.contains(userId));
+		this.badges = resolvedBadges.getBadges();
+		getClientPermissions().addAll(resolvedBadges.getPermissions());
 		getTagValue("badge-info").map(TwitchUtils::parseBadges).ifPresent(map -> badgeInfo.putAll(map));
 	}
 
@@ -136,37 +157,92 @@ public class IRCMessageEvent extends TwitchEvent {
 
 	/**
 	 * Parse RAW Message
+	 * <p>
+	 * Maps the tokens of {@link IRCLine} onto the event fields.
+	 * The channel and payload boundaries follow the conventions established by the original regular expressions,
+	 * i.e. the channel ends just before the first payload character ({@code :}, {@code -} or {@code +}),
+	 * and lines whose target is not a channel (i.e. whispers) require a payload.
 	 */
 	@SuppressWarnings("unchecked")
-	private void parseRawMessage() {
-		// Parse Message
-		Pattern pattern = Pattern.compile("^(?:@(?<tags>.+?) )?(?<clientName>.+?)(?: (?<command>[A-Z0-9]+) )(?:#(?<channel>.*?) ?)?(?<payload>[:\\-\\+](?<message>.+))?$");
-		Matcher matcher = pattern.matcher(rawMessage);
-		if (matcher.matches()) {
-			// Parse Tags
-			tags = parseTags(matcher.group("tags"));
-            rawTags = parseTags(matcher.group("tags"));
-			clientName = parseClientName(matcher.group("clientName"));
-			commandType = matcher.group("command");
-			channelName = Optional.ofNullable(matcher.group("channel"));
-			message = Optional.ofNullable(matcher.group("message"));
-			payload = Optional.ofNullable(matcher.group("payload"));
+	private void parseRawMessage(IRCLine line) {
+		if (!line.hasPrefix() || !line.hasParams() || !line.isCommandAlphanumeric())
 			return;
+
+		final String raw = rawMessage;
+		final int n = raw.length();
+		final int rest = line.getParamsStart();
+
+		final String rawClientName;
+		int channelStart = -1, channelEnd = -1, payloadStart = -1;
+		if (rest == n || raw.charAt(rest) == '#' || isPayload(raw, rest)) {
+			// Channel Message
+			rawClientName = raw.substring(line.getPrefixStart() - 1, line.getPrefixEnd());
+
+			if (rest < n && raw.charAt(rest) == '#') {
+				channelStart = rest + 1;
+				channelEnd = n;
+				for (int i = channelStart; i < n; i++) {
+					if (raw.charAt(i) == ' ' ? (i + 1 == n || isPayload(raw, i + 1)) : isPayload(raw, i)) {
+						channelEnd = i;
+						break;
+					}
+				}
+
+				if (channelEnd < n)
+					payloadStart = raw.charAt(channelEnd) == ' ' ? (channelEnd + 1 < n ? channelEnd + 1 : -1) : channelEnd;
+			} else if (rest < n) {
+				payloadStart = rest;
+			}
+		} else {
+			// Whisper: the prefix must contain a nick, and the payload is mandatory
+			final int bang = raw.indexOf('!', line.getPrefixStart());
+			if (bang <= line.getPrefixStart() || bang >= line.getPrefixEnd() - 1)
+				return;
+			rawClientName = raw.substring(line.getPrefixStart(), bang);
+
+			for (int i = rest; i < n; i++) {
+				if (raw.charAt(i) == ' ' && isPayload(raw, i + 1)) {
+					payloadStart = i + 1;
+				} else if (isPayload(raw, i)) {
+					payloadStart = i;
+				} else {
+					continue;
+				}
+				channelStart = rest;
+				channelEnd = i;
+				break;
+			}
+
+			if (payloadStart < 0)
+				return;
 		}
 
-		// Parse Message - Whisper
-		Pattern patternPM = Pattern.compile("^(?:@(?<tags>.+?) )?:(?<clientName>.+?)!.+?(?: (?<command>[A-Z0-9]+) )(?:(?<channel>.*?) ?)??(?<payload>[:\\-\\+](?<message>.+))$");
-		Matcher matcherPM = patternPM.matcher(rawMessage);
-		if (matcherPM.matches()) {
-			// Parse Tags
-			tags = parseTags(matcherPM.group("tags"));
-			rawTags = parseTags(matcherPM.group("tags"));
-			clientName = parseClientName(matcherPM.group("clientName"));
-			commandType = matcherPM.group("command");
-			channelName = Optional.ofNullable(matcherPM.group("channel"));
-			message = Optional.ofNullable(matcherPM.group("message"));
-			payload = Optional.ofNullable(matcherPM.group("payload"));
+		// Tags are parsed lazily, upon first access
+		if (line.hasTags()) {
+			final IRCTags tagView = new IRCTags(raw, line.getTagsStart(), line.getTagsEnd());
+			tags = tagView;
+			rawTags = (Map<String, Object>) (Map<String, ?>) tagView;
 		}
+		clientName = parseClientName(rawClientName);
+		commandType = line.getCommand();
+		channelName = channelStart >= 0 ? Optional.of(raw.substring(channelStart, channelEnd)) : Optional.empty();
+		message = payloadStart >= 0 ? Optional.of(raw.substring(payloadStart + 1)) : Optional.empty();
+		payload = payloadStart >= 0 ? Optional.of(raw.substring(payloadStart)) : Optional.empty();
+	}
+
+	/**
+	 * Checks whether a payload (a ':', '-' or '+' followed by at least one character) starts at the specified index
+	 *
+	 * @param raw   The raw message.
+	 * @param index The index to check.
+	 * @return Whether a payload starts at the index.
+	 */
+	private static boolean isPayload(String raw, int index) {
+		if (index + 1 >= raw.length())
+			return false;
+
+		final char c = raw.charAt(index);
+		return c == ':' || c == '-' || c == '+';
 	}
 
 	/**
@@ -200,10 +276,13 @@ public class IRCMessageEvent extends TwitchEvent {
 			return Optional.empty();
 		}
 
-		Pattern pattern = Pattern.compile("^:(.*?)!(.*?)@(.*?).tmi.twitch.tv$");
-		Matcher matcher = pattern.matcher(raw);
-		if(matcher.matches()) {
-			return Optional.ofNullable(matcher.group(1));
+		// :nick!user@host.tmi.twitch.tv
+		if (raw.startsWith(":")) {
+			final int bang = raw.indexOf('!', 1);
+			final int at = bang >= 0 ? raw.indexOf('@', bang + 1) : -1;
+			if (at >= 0 && raw.length() - at - 1 >= TWITCH_HOST_SUFFIX.length() + 1 && raw.endsWith(TWITCH_HOST_SUFFIX)) {
+				return Optional.of(raw.substring(1, bang));
+			}
 		}
 
 		return Optional.ofNullable(raw);
@@ -304,6 +383,11 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return String tagValue
 	 */
 	public Optional<String> getTagValue(String tagName) {
+	    if (tags instanceof IRCTags) {
+	        // the unescaped value is cached by the view
+	        return StringUtils.isNotBlank(tags.get(tagName)) ? Optional.of(((IRCTags) tags).getUnescaped(tagName)) : Optional.empty();
+	    }
+
 	    return Optional.ofNullable(tags.get(tagName))
             .filter(StringUtils::isNotBlank)
             .map(EscapeUtils::unescapeTagValue);
@@ -316,7 +400,7 @@ public class IRCMessageEvent extends TwitchEvent {
 	 */
 	public EventUser getUser() {
 	    if (getUserId() != null || getUserName() != null) {
-            return new EventUser(getUserId(), getUserName());
+            return IdentityCache.user(getUserId(), getUserName());
         }
 
 		return null;
@@ -328,7 +412,7 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return ChatUser
      */
     public EventUser getTargetUser() {
-        return new EventUser(getTargetUserId(), getCommandType().equalsIgnoreCase("CLEARCHAT") ? getMessage().get() : null);
+        return IdentityCache.user(getTargetUserId(), getCommandType().equalsIgnoreCase("CLEARCHAT") ? getMessage().get() : null);
     }
 
 
@@ -338,7 +422,7 @@ public class IRCMessageEvent extends TwitchEvent {
      * @return ChatChannel
 	 */
 	public EventChannel getChannel() {
-		return new EventChannel(getChannelId(), getChannelName().get());
+		return IdentityCache.channel(getChannelId(), getChannelName().get());
 	}
 
 }
@@ -0,0 +1,65 @@
+package com.github.twitch4j.chat.exception;
+
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import lombok.Getter;
+
+/**
+ * A tracked chat message was not delivered, either because the command queue dropped it or because twitch rejected it with a NOTICE.
+ *
+ * @see com.github.twitch4j.chat.TwitchChat#sendMessageAsync(String, String)
+ */
+@Getter
+public class MessageRejectedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The lower case channel name
+     */
+    private final String channel;
+
+    /**
+     * The msg-id of the NOTICE (e.g. msg_ratelimit or msg_duplicate), or null if the message was dropped by the command queue
+     */
+    private final String noticeId;
+
+    /**
+     * The outcome of adding the message to the command queue, or null if the message was rejected by twitch
+     */
+    private final EnqueueStatus enqueueStatus;
+
+    /**
+     * Constructor for a message that was rejected by twitch
+     *
+     * @param channel  the lower case channel name
+     * @param noticeId the msg-id of the NOTICE
+     * @param message  the text of the NOTICE
+     */
+    public MessageRejectedException(String channel, String noticeId, String message) {
+        super(message != null ? message : noticeId);
+        this.channel = channel;
+        this.noticeId = noticeId;
+        this.enqueueStatus = null;
+    }
+
+    /**
+     * Constructor for a message that was dropped by the command queue
+     *
+     * @param channel       the lower case channel name
+     * @param enqueueStatus the outcome of adding the message to the command queue
+     */
+    public MessageRejectedException(String channel, EnqueueStatus enqueueStatus) {
+        super("The message was not queued: " + enqueueStatus);
+        this.channel = channel;
+        this.noticeId = null;
+        this.enqueueStatus = enqueueStatus;
+    }
+
+    /**
+     * @return whether the message was dropped by a full queue or rejected for being sent too quickly, so sending it again later may succeed
+     */
+    public boolean isRetryable() {
+        return enqueueStatus != null || "msg_ratelimit".equals(noticeId) || "msg_slowmode".equals(noticeId);
+    }
+
+}
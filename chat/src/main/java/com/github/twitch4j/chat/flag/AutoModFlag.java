@@ -1,20 +1,37 @@
 package com.github.twitch4j.chat.flag;
 
 import com.github.twitch4j.common.annotation.Unofficial;
-import lombok.Builder;
-import lombok.Singular;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
 import lombok.Value;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * Represents a region of a chat message that was flagged by AutoMod.
  */
 @Value
-@Builder
 @Unofficial
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
 public class AutoModFlag {
+
+    /**
+     * Marks a {@link FlagType} without a score
+     */
+    static final int NO_SCORE = -1;
+
+    private static final FlagType[] TYPES = FlagType.values();
+
     /**
      * The index in the message where the flagged item starts.
      */
@@ -25,12 +42,166 @@ public class AutoModFlag {
      */
     int endIndex;
 
+    /**
+     * Scores indexed by {@link FlagType} ordinal, or {@link #NO_SCORE}
+     */
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    int[] scoreValues;
+
     /**
      * Scores for the various {@link FlagType}s for this region of the message.
      * <p>
      * Can be empty, for example, if the region is a HTTP(S) link.
+     *
+     * @return a read-only view of the scores
      */
     @NotNull
-    @Singular
-    Map<FlagType, Integer> scores;
+    @ToString.Include(name = "scores")
+    public Map<FlagType, Integer> getScores() {
+        return new ScoreMap(scoreValues);
+    }
+
+    /**
+     * Gets the score of a single {@link FlagType} without boxing.
+     *
+     * @param type the flag type
+     * @return the score, or -1 if this region has no score for the type
+     */
+    public int getScore(@NonNull FlagType type) {
+        return scoreValues[type.ordinal()];
+    }
+
+    /**
+     * @return a new empty score array
+     */
+    static int[] emptyScores() {
+        final int[] scores = new int[TYPES.length];
+        Arrays.fill(scores, NO_SCORE);
+        return scores;
+    }
+
+    public static AutoModFlagBuilder builder() {
+        return new AutoModFlagBuilder();
+    }
+
+    /**
+     * Builder for {@link AutoModFlag}
+     */
+    public static class AutoModFlagBuilder {
+
+        private int startIndex;
+
+        private int endIndex;
+
+        private final int[] scores = emptyScores();
+
+        AutoModFlagBuilder() {
+        }
+
+        public AutoModFlagBuilder startIndex(int startIndex) {
+            this.startIndex = startIndex;
+            return this;
+        }
+
+        public AutoModFlagBuilder endIndex(int endIndex) {
+            this.endIndex = endIndex;
+            return this;
+        }
+
+        public AutoModFlagBuilder score(@NonNull FlagType scoreKey, @NonNull Integer scoreValue) {
+            this.scores[scoreKey.ordinal()] = scoreValue;
+            return this;
+        }
+
+        public AutoModFlagBuilder scores(@NonNull Map<? extends FlagType, ? extends Integer> scores) {
+            scores.forEach(this::score);
+            return this;
+        }
+
+        public AutoModFlagBuilder clearScores() {
+            Arrays.fill(this.scores, NO_SCORE);
+            return this;
+        }
+
+        public AutoModFlag build() {
+            return new AutoModFlag(startIndex, endIndex, scores.clone());
+        }
+
+        @Override
+        public String toString() {
+            return "AutoModFlag.AutoModFlagBuilder(startIndex=" + startIndex + ", endIndex=" + endIndex + ", scores=" + new ScoreMap(scores) + ")";
+        }
+
+    }
+
+    /**
+     * Read-only map view over a score array
+     */
+    private static final class ScoreMap extends AbstractMap<FlagType, Integer> {
+
+        private final int[] scores;
+
+        private ScoreMap(int[] scores) {
+            this.scores = scores;
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof FlagType)) return null;
+            final int score = scores[((FlagType) key).ordinal()];
+            return score != NO_SCORE ? score : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof FlagType && scores[((FlagType) key).ordinal()] != NO_SCORE;
+        }
+
+        @Override
+        public int size() {
+            int n = 0;
+            for (int score : scores) {
+                if (score != NO_SCORE) n++;
+            }
+            return n;
+        }
+
+        @Override
+        public Set<Entry<FlagType, Integer>> entrySet() {
+            return new AbstractSet<Entry<FlagType, Integer>>() {
+                @Override
+                public Iterator<Entry<FlagType, Integer>> iterator() {
+                    return new Iterator<Entry<FlagType, Integer>>() {
+                        private int next = advance(0);
+
+                        private int advance(int i) {
+                            while (i < scores.length && scores[i] == NO_SCORE) i++;
+                            return i;
+                        }
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < scores.length;
+                        }
+
+                        @Override
+                        public Entry<FlagType, Integer> next() {
+                            if (!hasNext()) throw new NoSuchElementException();
+                            final int i = next;
+                            next = advance(i + 1);
+                            return new SimpleImmutableEntry<>(TYPES[i], scores[i]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return ScoreMap.this.size();
+                }
+            };
+        }
+
+    }
+
 }
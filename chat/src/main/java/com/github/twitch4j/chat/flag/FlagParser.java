@@ -8,6 +8,11 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
+/**
+ * Parses the AutoMod flags tag, i.e. {@code start-end:T.score/T.score,start-end:...}
+ * <p>
+ * The tag is scanned with a cursor (without splitting or regular expressions), and malformed flags or scores are skipped.
+ */
 @UtilityClass
 public class FlagParser {
 
@@ -15,38 +20,24 @@ public class FlagParser {
 
     @NonNull
     public List<AutoModFlag> parseFlags(@NonNull String rawFlags) {
-        final String[] splitFlags = rawFlags.split(",");
-        final List<AutoModFlag> flags = new ArrayList<>(splitFlags.length);
-
-        for (String rawFlag : splitFlags) {
-            String[] parts = rawFlag.split(":", -1);
-            if (parts.length != 2)
-                continue;
-
-            String[] indices = parts[0].split("-");
-            if (indices.length != 2)
-                continue;
-            int start = Integer.parseInt(indices[0]);
-            int end = Integer.parseInt(indices[1]);
-
-            AutoModFlag.AutoModFlagBuilder builder = AutoModFlag.builder()
-                .startIndex(start)
-                .endIndex(end);
-
-            String[] scores = parts[1].split("/");
-            for (String score : scores) {
-                String[] scoreParts = score.split("\\.");
-                if (scoreParts.length != 2)
-                    continue;
-                FlagType type = FlagType.parse(scoreParts[0]);
-                if (type != null)
-                    builder.score(type, Integer.parseInt(scoreParts[1]));
+        final int n = rawFlags.length();
+        if (n == 0) return Collections.emptyList();
+
+        List<AutoModFlag> flags = null;
+        for (int i = 0; i <= n; ) {
+            int end = rawFlags.indexOf(',', i);
+            if (end < 0) end = n;
+
+            final AutoModFlag flag = parseFlag(rawFlags, i, end);
+            if (flag != null) {
+                if (flags == null) flags = new ArrayList<>(end == n ? 1 : 4);
+                flags.add(flag);
             }
 
-            flags.add(builder.build());
+            i = end + 1;
         }
 
-        return Collections.unmodifiableList(flags);
+        return flags != null ? Collections.unmodifiableList(flags) : Collections.emptyList();
     }
 
     @NonNull
@@ -54,4 +45,66 @@ public class FlagParser {
         return event.getTagValue(IRC_TAG_NAME).map(FlagParser::parseFlags).orElse(Collections.emptyList());
     }
 
+    /**
+     * @return the flag in the region {@code start-end:scores}, or null if it is malformed
+     */
+    private AutoModFlag parseFlag(String raw, int from, int to) {
+        // a single colon separates the indices from the scores
+        int colon = -1;
+        for (int i = from; i < to; i++) {
+            if (raw.charAt(i) == ':') {
+                if (colon >= 0) return null;
+                colon = i;
+            }
+        }
+        if (colon < 0) return null;
+
+        // a single dash separates the indices
+        int dash = -1;
+        for (int i = from; i < colon; i++) {
+            if (raw.charAt(i) == '-') {
+                if (dash >= 0) return null;
+                dash = i;
+            }
+        }
+        if (dash < 0) return null;
+
+        final int startIndex = parseInt(raw, from, dash);
+        final int endIndex = parseInt(raw, dash + 1, colon);
+        if (startIndex < 0 || endIndex < 0) return null;
+
+        // scores are separated by slashes, each being a type code, a dot and the score
+        final int[] scores = AutoModFlag.emptyScores();
+        for (int i = colon + 1; i < to; ) {
+            int end = raw.indexOf('/', i);
+            if (end < 0 || end > to) end = to;
+
+            if (end - i >= 3 && raw.charAt(i + 1) == '.') {
+                final FlagType type = FlagType.parse(raw.charAt(i));
+                final int score = parseInt(raw, i + 2, end);
+                if (type != null && score >= 0)
+                    scores[type.ordinal()] = score;
+            }
+
+            i = end + 1;
+        }
+
+        return new AutoModFlag(startIndex, endIndex, scores);
+    }
+
+    /**
+     * @return the non-negative decimal number in the region, or -1 if it is empty, contains other characters or overflows
+     */
+    private int parseInt(String raw, int from, int to) {
+        if (from >= to) return -1;
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            final int digit = raw.charAt(i) - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) return -1;
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
 }
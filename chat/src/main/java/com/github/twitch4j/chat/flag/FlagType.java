@@ -34,9 +34,12 @@ public enum FlagType {
         if (string == null || string.length() != 1)
             return null;
 
-        final char match = string.charAt(0);
+        return parse(string.charAt(0));
+    }
+
+    public static FlagType parse(final char code) {
         for (FlagType type : VALUES) {
-            if (type.code == match)
+            if (type.code == code)
                 return type;
         }
 
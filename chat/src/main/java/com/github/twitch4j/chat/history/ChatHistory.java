@@ -0,0 +1,233 @@
+package com.github.twitch4j.chat.history;
+
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded store of the recent messages of each channel, e.g. to look up the message of a CLEARMSG or the last messages of a reported user.
+ * <p>
+ * Each channel keeps its messages in a ring buffer of fixed capacity, where a new message overwrites the oldest one.
+ * Messages are indexed by message id, and chained per user id, so that lookups never scan the buffer:
+ * a message id is found in O(1) and the last k messages of a user are found in O(k).
+ * Overwritten messages are removed from the indexes.
+ * <p>
+ * The store is not subscribed to any chat by itself:
+ * <pre>{@code
+ * ChatHistory history = new ChatHistory(500);
+ * chat.getEventManager().onEvent(ChannelMessageEvent.class, history::onMessage);
+ * }</pre>
+ */
+public final class ChatHistory {
+
+    /**
+     * Number of messages kept per channel
+     */
+    @Getter
+    private final int capacityPerChannel;
+
+    /**
+     * Buffers by channel id
+     */
+    private final Map<String, ChannelBuffer> channels = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor
+     *
+     * @param capacityPerChannel number of messages kept per channel
+     */
+    public ChatHistory(int capacityPerChannel) {
+        if (capacityPerChannel < 1)
+            throw new IllegalArgumentException("capacityPerChannel must be positive");
+        this.capacityPerChannel = capacityPerChannel;
+    }
+
+    /**
+     * Stores a message, overwriting the oldest message of the channel once its buffer is full
+     *
+     * @param event the message
+     */
+    public void onMessage(@NonNull ChannelMessageEvent event) {
+        final String channelId = event.getChannel().getId();
+        if (channelId != null)
+            channels.computeIfAbsent(channelId, id -> new ChannelBuffer(capacityPerChannel)).add(event);
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @param messageId the id of the message
+     * @return the message, if it is still stored
+     */
+    public Optional<ChannelMessageEvent> getMessage(String channelId, String messageId) {
+        final ChannelBuffer buffer = channels.get(channelId);
+        return buffer != null ? Optional.ofNullable(buffer.get(messageId)) : Optional.empty();
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @param limit     the maximum number of messages
+     * @return the last messages of the channel, newest first
+     */
+    public List<ChannelMessageEvent> getRecentMessages(String channelId, int limit) {
+        final ChannelBuffer buffer = channels.get(channelId);
+        return buffer != null ? buffer.recent(limit) : Collections.emptyList();
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @param userId    the id of the author
+     * @param limit     the maximum number of messages
+     * @return the last messages of the user in the channel, newest first
+     */
+    public List<ChannelMessageEvent> getRecentMessages(String channelId, String userId, int limit) {
+        final ChannelBuffer buffer = channels.get(channelId);
+        return buffer != null ? buffer.recent(userId, limit) : Collections.emptyList();
+    }
+
+    /**
+     * @param channelId the id of the channel
+     * @return the number of stored messages of the channel
+     */
+    public int size(String channelId) {
+        final ChannelBuffer buffer = channels.get(channelId);
+        return buffer != null ? buffer.size() : 0;
+    }
+
+    /**
+     * Drops the messages of a channel, e.g. after leaving it
+     *
+     * @param channelId the id of the channel
+     */
+    public void clear(String channelId) {
+        channels.remove(channelId);
+    }
+
+    /**
+     * Drops the messages of all channels
+     */
+    public void clear() {
+        channels.clear();
+    }
+
+    /**
+     * Ring buffer of a single channel.
+     * <p>
+     * Messages are numbered by a sequence that keeps increasing, so that slot {@code seq % capacity} holds message {@code seq}
+     * until it is overwritten, and a link to an earlier message is valid as long as its slot still holds that sequence number.
+     */
+    private static final class ChannelBuffer {
+
+        private static final long NONE = -1L;
+
+        private final ChannelMessageEvent[] messages;
+
+        private final long[] sequences;
+
+        /**
+         * Sequence number of the previous message of the same user, per slot
+         */
+        private final long[] previousByUser;
+
+        private final String[] userIds;
+
+        private final String[] messageIds;
+
+        /**
+         * Message id to sequence number
+         */
+        private final Map<String, Long> byMessageId;
+
+        /**
+         * User id to the sequence number of the last message of the user
+         */
+        private final Map<String, Long> lastByUser;
+
+        private long next;
+
+        private ChannelBuffer(int capacity) {
+            this.messages = new ChannelMessageEvent[capacity];
+            this.sequences = new long[capacity];
+            this.previousByUser = new long[capacity];
+            this.userIds = new String[capacity];
+            this.messageIds = new String[capacity];
+            this.byMessageId = new HashMap<>(capacity * 4 / 3 + 1);
+            this.lastByUser = new HashMap<>();
+        }
+
+        private synchronized void add(ChannelMessageEvent event) {
+            final long seq = next++;
+            final int slot = slot(seq);
+            if (messages[slot] != null) evict(slot);
+
+            final String userId = event.getUser() != null ? event.getUser().getId() : null;
+            final String messageId = event.getMessageEvent().getMessageId().orElse(null);
+
+            messages[slot] = event;
+            sequences[slot] = seq;
+            userIds[slot] = userId;
+            messageIds[slot] = messageId;
+            previousByUser[slot] = NONE;
+
+            if (messageId != null)
+                byMessageId.put(messageId, seq);
+            if (userId != null) {
+                final Long previous = lastByUser.put(userId, seq);
+                if (previous != null) previousByUser[slot] = previous;
+            }
+        }
+
+        private void evict(int slot) {
+            final long seq = sequences[slot];
+            if (messageIds[slot] != null)
+                byMessageId.remove(messageIds[slot], seq);
+            if (userIds[slot] != null)
+                lastByUser.remove(userIds[slot], seq);
+            messages[slot] = null;
+        }
+
+        private synchronized ChannelMessageEvent get(String messageId) {
+            final Long seq = byMessageId.get(messageId);
+            return seq != null ? messages[slot(seq)] : null;
+        }
+
+        private synchronized List<ChannelMessageEvent> recent(int limit) {
+            final int n = (int) Math.min(Math.min(limit, messages.length), next);
+            final List<ChannelMessageEvent> list = new ArrayList<>(Math.max(n, 0));
+            for (long seq = next - 1; list.size() < n; seq--) {
+                list.add(messages[slot(seq)]);
+            }
+            return list;
+        }
+
+        private synchronized List<ChannelMessageEvent> recent(String userId, int limit) {
+            final List<ChannelMessageEvent> list = new ArrayList<>();
+            final Long last = lastByUser.get(userId);
+            long seq = last != null ? last : NONE;
+            while (seq != NONE && list.size() < limit) {
+                final int slot = slot(seq);
+                if (sequences[slot] != seq || messages[slot] == null) break; // overwritten
+                list.add(messages[slot]);
+                seq = previousByUser[slot];
+            }
+            return list;
+        }
+
+        private synchronized int size() {
+            return (int) Math.min(next, messages.length);
+        }
+
+        private int slot(long seq) {
+            return (int) (seq % messages.length);
+        }
+
+    }
+
+}
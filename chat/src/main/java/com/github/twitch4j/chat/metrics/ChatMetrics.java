@@ -0,0 +1,85 @@
+package com.github.twitch4j.chat.metrics;
+
+import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+
+/**
+ * Receives the measurements of the chat connections.
+ * <p>
+ * All methods have empty defaults, so implementations only override what they record.
+ * The methods are called on the websocket reader, parse pipeline and executor threads, so implementations must be thread-safe and should not block.
+ *
+ * @see SimpleChatMetrics
+ * @see MicrometerChatMetrics
+ */
+public interface ChatMetrics {
+
+    /**
+     * Records nothing
+     */
+    ChatMetrics NOOP = new ChatMetrics() {
+    };
+
+    /**
+     * Called once per connection (i.e. per shard of a {@link com.github.twitch4j.chat.ShardedTwitchChat}), to register gauges
+     * for its command queue depth ({@link TwitchChat#getCommandQueue()}) and rate limit tokens.
+     *
+     * @param chat the connection, which should only be weakly referenced
+     */
+    default void bindGauges(TwitchChat chat) {
+    }
+
+    /**
+     * Called when a connection is closed (e.g. a failed shard that is replaced), to remove the gauges of {@link #bindGauges(TwitchChat)}
+     *
+     * @param chat the closed connection
+     */
+    default void unbindGauges(TwitchChat chat) {
+    }
+
+    /**
+     * @param command the upper case irc command of an incoming line (e.g. PRIVMSG or USERNOTICE)
+     */
+    default void onMessageReceived(String command) {
+    }
+
+    /**
+     * @param command the upper case irc command of a line written to the websocket (e.g. PRIVMSG or JOIN)
+     */
+    default void onMessageSent(String command) {
+    }
+
+    /**
+     * @param priority the lane of the command queue
+     * @param status   {@link EnqueueStatus#REJECTED}, {@link EnqueueStatus#TIMED_OUT} or {@link EnqueueStatus#QUEUED_DROPPED_OLDEST}
+     */
+    default void onCommandDropped(CommandPriority priority, EnqueueStatus status) {
+    }
+
+    /**
+     * Called when a connection is re-established
+     */
+    default void onReconnect() {
+    }
+
+    /**
+     * @param nanos the time to parse an incoming line into an event
+     */
+    default void recordParseTime(long nanos) {
+    }
+
+    /**
+     * @param nanos the time to publish a parsed event to the event manager
+     */
+    default void recordPublishTime(long nanos) {
+    }
+
+    /**
+     * @param priority the lane of the command queue
+     * @param nanos    the time between queueing a command and writing it to the websocket
+     */
+    default void recordSendLatency(CommandPriority priority, long nanos) {
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.github.twitch4j.chat.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free histogram of durations with power of two buckets.
+ * <p>
+ * Percentiles are approximated by the upper bound of the bucket they fall into, so they are at most twice the exact value.
+ */
+public final class LatencyHistogram {
+
+    /**
+     * Counts per bucket, where bucket 0 holds zero durations and bucket i holds the durations in [2^(i-1), 2^i) nanoseconds
+     */
+    private final AtomicLongArray buckets = new AtomicLongArray(64);
+
+    private final LongAdder count = new LongAdder();
+
+    private final LongAdder total = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * @param nanos the duration to record, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        if (nanos < 0L) nanos = 0L;
+        buckets.incrementAndGet(64 - Long.numberOfLeadingZeros(nanos));
+        count.increment();
+        total.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    /**
+     * @return the number of recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the sum of the recorded durations, in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * @return the largest recorded duration, in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean duration, in nanoseconds
+     */
+    public double getMean() {
+        final long n = count.sum();
+        return n == 0L ? 0.0 : (double) total.sum() / n;
+    }
+
+    /**
+     * @param quantile the quantile, between 0 and 1 (e.g. 0.99)
+     * @return an upper bound of the duration at the quantile, in nanoseconds
+     */
+    public long getPercentile(double quantile) {
+        if (quantile < 0.0 || quantile > 1.0)
+            throw new IllegalArgumentException("quantile must be between 0 and 1");
+
+        long n = 0L;
+        final long[] counts = new long[buckets.length()];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets.get(i);
+            n += counts[i];
+        }
+        if (n == 0L) return 0L;
+
+        final long rank = Math.max((long) Math.ceil(quantile * n), 1L);
+        long seen = 0L;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(i < 63 ? (1L << i) - 1L : Long.MAX_VALUE, getMax());
+        }
+        return getMax();
+    }
+
+}
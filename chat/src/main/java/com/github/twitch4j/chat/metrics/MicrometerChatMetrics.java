@@ -0,0 +1,180 @@
+package com.github.twitch4j.chat.metrics;
+
+import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * {@link ChatMetrics} that registers its meters with a Micrometer {@link MeterRegistry}.
+ * <p>
+ * Micrometer is an optional dependency of this module, so it has to be added by applications that use this class.
+ * The gauges of each connection are tagged with a {@code connection} index, in the order the connections were bound,
+ * and are removed once the connection is closed.
+ */
+public class MicrometerChatMetrics implements ChatMetrics {
+
+    private static final String PREFIX = "twitch4j.chat.";
+
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    private final MeterRegistry registry;
+
+    private final Tags tags;
+
+    private final Map<String, Counter> received = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> sent = new ConcurrentHashMap<>();
+
+    private final Counter[] dropped = new Counter[PRIORITIES.length];
+
+    private final Counter reconnects;
+
+    private final Timer parseTime;
+
+    private final Timer publishTime;
+
+    private final Timer[] sendLatency = new Timer[PRIORITIES.length];
+
+    private final AtomicInteger connections = new AtomicInteger();
+
+    /**
+     * The gauges of the bound connections, which are only weakly referenced
+     */
+    private final Map<TwitchChat, List<Meter.Id>> gauges = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Constructor
+     *
+     * @param registry the registry of the meters
+     */
+    public MicrometerChatMetrics(MeterRegistry registry) {
+        this(registry, Tags.empty());
+    }
+
+    /**
+     * Constructor
+     *
+     * @param registry the registry of the meters
+     * @param tags     common tags of all meters, e.g. to tell multiple chat clients apart
+     */
+    public MicrometerChatMetrics(@NonNull MeterRegistry registry, @NonNull Iterable<Tag> tags) {
+        this.registry = registry;
+        this.tags = Tags.of(tags);
+
+        for (CommandPriority priority : PRIORITIES) {
+            dropped[priority.ordinal()] = Counter.builder(PREFIX + "commands.dropped")
+                .description("Commands dropped by a full lane of the command queue")
+                .tags(this.tags).tag("lane", priority.name())
+                .register(registry);
+            sendLatency[priority.ordinal()] = Timer.builder(PREFIX + "send.latency")
+                .description("Time between queueing a command and writing it to the websocket")
+                .tags(this.tags).tag("lane", priority.name())
+                .publishPercentileHistogram()
+                .register(registry);
+        }
+
+        this.reconnects = Counter.builder(PREFIX + "reconnects")
+            .description("Re-established connections")
+            .tags(this.tags)
+            .register(registry);
+        this.parseTime = Timer.builder(PREFIX + "parse")
+            .description("Time to parse an incoming line")
+            .tags(this.tags)
+            .publishPercentileHistogram()
+            .register(registry);
+        this.publishTime = Timer.builder(PREFIX + "publish")
+            .description("Time to publish a parsed event")
+            .tags(this.tags)
+            .publishPercentileHistogram()
+            .register(registry);
+    }
+
+    @Override
+    public void bindGauges(@NonNull TwitchChat chat) {
+        final Tags connectionTags = tags.and("connection", String.valueOf(connections.getAndIncrement()));
+        final List<Meter.Id> ids = new ArrayList<>(6);
+        ids.add(gauge("queue.size", "Queued commands other than whispers", chat, connectionTags.and("lane", "command"), c -> c.getCommandQueue().size() - c.getCommandQueue().size(CommandPriority.WHISPER)));
+        ids.add(gauge("queue.size", "Queued whispers", chat, connectionTags.and("lane", "whisper"), c -> c.getCommandQueue().size(CommandPriority.WHISPER)));
+        ids.add(gauge("bucket.tokens", "Available rate limit tokens", chat, connectionTags.and("bucket", "message"), c -> c.getIrcMessageBucket().getAvailableTokens()));
+        ids.add(gauge("bucket.tokens", "Available rate limit tokens", chat, connectionTags.and("bucket", "account"), c -> c.getIrcAccountBucket().getAvailableTokens()));
+        ids.add(gauge("bucket.tokens", "Available rate limit tokens", chat, connectionTags.and("bucket", "whisper"), c -> c.getIrcWhisperBucket().getAvailableTokens()));
+        ids.add(gauge("bucket.tokens", "Available rate limit tokens", chat, connectionTags.and("bucket", "join"), c -> c.getIrcJoinBucket().getAvailableTokens()));
+        gauges.put(chat, ids);
+    }
+
+    @Override
+    public void unbindGauges(@NonNull TwitchChat chat) {
+        final List<Meter.Id> ids = gauges.remove(chat);
+        if (ids != null) ids.forEach(registry::remove);
+    }
+
+    @Override
+    public void onMessageReceived(String command) {
+        received.computeIfAbsent(command, c -> counter("messages.received", "Incoming lines", c)).increment();
+    }
+
+    @Override
+    public void onMessageSent(String command) {
+        sent.computeIfAbsent(command, c -> counter("messages.sent", "Lines written to the websocket", c)).increment();
+    }
+
+    @Override
+    public void onCommandDropped(CommandPriority priority, EnqueueStatus status) {
+        dropped[priority.ordinal()].increment();
+    }
+
+    @Override
+    public void onReconnect() {
+        reconnects.increment();
+    }
+
+    @Override
+    public void recordParseTime(long nanos) {
+        parseTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordPublishTime(long nanos) {
+        publishTime.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void recordSendLatency(CommandPriority priority, long nanos) {
+        sendLatency[priority.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Counter counter(String name, String description, String command) {
+        return Counter.builder(PREFIX + name)
+            .description(description)
+            .tags(tags).tag("command", command)
+            .register(registry);
+    }
+
+    private Meter.Id gauge(String name, String description, TwitchChat chat, Tags tags, ToDoubleFunction<TwitchChat> value) {
+        // gauges only keep a weak reference to the connection
+        return Gauge.builder(PREFIX + name, chat, value)
+            .description(description)
+            .tags(tags)
+            .register(registry)
+            .getId();
+    }
+
+}
@@ -0,0 +1,228 @@
+package com.github.twitch4j.chat.metrics;
+
+import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToLongFunction;
+
+/**
+ * Dependency-free {@link ChatMetrics} that keeps counters and histograms in memory, to be read via its getters.
+ * <p>
+ * One instance is meant to be used by a single {@link TwitchChat} (or {@link com.github.twitch4j.chat.ShardedTwitchChat}),
+ * whose connections share the rate limit buckets.
+ */
+public class SimpleChatMetrics implements ChatMetrics {
+
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    private final Map<String, LongAdder> received = new ConcurrentHashMap<>();
+
+    private final Map<String, LongAdder> sent = new ConcurrentHashMap<>();
+
+    private final LongAdder[] dropped = new LongAdder[PRIORITIES.length];
+
+    private final LongAdder reconnects = new LongAdder();
+
+    /**
+     * Time to parse incoming lines
+     */
+    @Getter
+    private final LatencyHistogram parseTime = new LatencyHistogram();
+
+    /**
+     * Time to publish parsed events
+     */
+    @Getter
+    private final LatencyHistogram publishTime = new LatencyHistogram();
+
+    /**
+     * Time between queueing and sending commands
+     */
+    @Getter
+    private final LatencyHistogram sendLatency = new LatencyHistogram();
+
+    /**
+     * The bound connections
+     */
+    private final List<WeakReference<TwitchChat>> chats = new CopyOnWriteArrayList<>();
+
+    public SimpleChatMetrics() {
+        for (int i = 0; i < dropped.length; i++) {
+            dropped[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void bindGauges(@NonNull TwitchChat chat) {
+        chats.removeIf(ref -> ref.get() == null);
+        chats.add(new WeakReference<>(chat));
+    }
+
+    @Override
+    public void unbindGauges(@NonNull TwitchChat chat) {
+        chats.removeIf(ref -> ref.get() == null || ref.get() == chat);
+    }
+
+    @Override
+    public void onMessageReceived(String command) {
+        received.computeIfAbsent(command, c -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onMessageSent(String command) {
+        sent.computeIfAbsent(command, c -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void onCommandDropped(CommandPriority priority, EnqueueStatus status) {
+        dropped[priority.ordinal()].increment();
+    }
+
+    @Override
+    public void onReconnect() {
+        reconnects.increment();
+    }
+
+    @Override
+    public void recordParseTime(long nanos) {
+        parseTime.record(nanos);
+    }
+
+    @Override
+    public void recordPublishTime(long nanos) {
+        publishTime.record(nanos);
+    }
+
+    @Override
+    public void recordSendLatency(CommandPriority priority, long nanos) {
+        sendLatency.record(nanos);
+    }
+
+    /**
+     * @param command the upper case irc command
+     * @return the number of incoming lines with the command
+     */
+    public long getReceivedCount(String command) {
+        final LongAdder adder = received.get(command);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * @return the number of incoming lines per irc command
+     */
+    public Map<String, Long> getReceivedCounts() {
+        return snapshot(received);
+    }
+
+    /**
+     * @param command the upper case irc command
+     * @return the number of lines with the command that were written to the websocket
+     */
+    public long getSentCount(String command) {
+        final LongAdder adder = sent.get(command);
+        return adder != null ? adder.sum() : 0L;
+    }
+
+    /**
+     * @return the number of lines written to the websocket per irc command
+     */
+    public Map<String, Long> getSentCounts() {
+        return snapshot(sent);
+    }
+
+    /**
+     * @param priority the lane of the command queue
+     * @return the number of commands dropped by the lane
+     */
+    public long getDroppedCount(@NonNull CommandPriority priority) {
+        return dropped[priority.ordinal()].sum();
+    }
+
+    /**
+     * @return the number of re-established connections
+     */
+    public long getReconnectCount() {
+        return reconnects.sum();
+    }
+
+    /**
+     * @return the number of queued commands, other than whispers, of all bound connections
+     */
+    public long getCommandQueueSize() {
+        return sum(chat -> chat.getCommandQueue().size() - chat.getCommandQueue().size(CommandPriority.WHISPER));
+    }
+
+    /**
+     * @return the number of queued whispers of all bound connections
+     */
+    public long getWhisperQueueSize() {
+        return sum(chat -> chat.getCommandQueue().size(CommandPriority.WHISPER));
+    }
+
+    /**
+     * @return the tokens available for messages in channels where the account is not privileged, or -1 if no connection is bound
+     */
+    public long getAvailableMessageTokens() {
+        final TwitchChat chat = firstChat();
+        return chat != null ? chat.getIrcMessageBucket().getAvailableTokens() : -1L;
+    }
+
+    /**
+     * @return the tokens available for messages in all channels, or -1 if no connection is bound
+     */
+    public long getAvailableAccountTokens() {
+        final TwitchChat chat = firstChat();
+        return chat != null ? chat.getIrcAccountBucket().getAvailableTokens() : -1L;
+    }
+
+    /**
+     * @return the tokens available for whispers, or -1 if no connection is bound
+     */
+    public long getAvailableWhisperTokens() {
+        final TwitchChat chat = firstChat();
+        return chat != null ? chat.getIrcWhisperBucket().getAvailableTokens() : -1L;
+    }
+
+    /**
+     * @return the tokens available for joins, or -1 if no connection is bound
+     */
+    public long getAvailableJoinTokens() {
+        final TwitchChat chat = firstChat();
+        return chat != null ? chat.getIrcJoinBucket().getAvailableTokens() : -1L;
+    }
+
+    private long sum(ToLongFunction<TwitchChat> gauge) {
+        long sum = 0L;
+        for (WeakReference<TwitchChat> ref : chats) {
+            final TwitchChat chat = ref.get();
+            if (chat != null) sum += gauge.applyAsLong(chat);
+        }
+        return sum;
+    }
+
+    private TwitchChat firstChat() {
+        for (WeakReference<TwitchChat> ref : chats) {
+            final TwitchChat chat = ref.get();
+            if (chat != null) return chat;
+        }
+        return null;
+    }
+
+    private static Map<String, Long> snapshot(Map<String, LongAdder> counters) {
+        final Map<String, Long> map = new TreeMap<>();
+        counters.forEach((command, adder) -> map.put(command, adder.sum()));
+        return Collections.unmodifiableMap(map);
+    }
+
+}
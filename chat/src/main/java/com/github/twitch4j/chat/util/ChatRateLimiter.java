@@ -0,0 +1,158 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.common.util.IdentityCache;
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rate limits outgoing chat messages on three levels:
+ * <ul>
+ *     <li>an account-wide bucket, consumed by every message</li>
+ *     <li>a bucket shared by all channels where the account is not privileged (i.e. neither broadcaster, moderator nor vip)</li>
+ *     <li>a bucket per channel where the account is not privileged</li>
+ * </ul>
+ * Channels are upgraded (and downgraded) via {@link #setPrivileged(String, boolean)}, typically based on the badges of a USERSTATE message.
+ *
+ * @see <a href="https://dev.twitch.tv/docs/irc/guide#command--message-limits">Command and Message Limits</a>
+ */
+public final class ChatRateLimiter {
+
+    /**
+     * Bucket consumed by every message
+     */
+    private final Bucket accountBucket;
+
+    /**
+     * Bucket consumed by messages to channels where the account is not privileged
+     */
+    private final Bucket unprivilegedBucket;
+
+    /**
+     * Limit per channel where the account is not privileged, or null for no limit
+     */
+    private final Bandwidth channelRateLimit;
+
+    /**
+     * Buckets of the unprivileged channels, created upon the first message
+     */
+    private final Map<String, Bucket> channelBuckets = new ConcurrentHashMap<>();
+
+    /**
+     * Channels where the account is broadcaster, moderator or vip
+     */
+    private final Set<String> privilegedChannels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Constructor
+     *
+     * @param accountBucket      bucket consumed by every message
+     * @param unprivilegedBucket bucket consumed by messages to channels where the account is not privileged
+     * @param channelRateLimit   limit per channel where the account is not privileged, or null for no limit
+     */
+    public ChatRateLimiter(@NonNull Bucket accountBucket, @NonNull Bucket unprivilegedBucket, Bandwidth channelRateLimit) {
+        this.accountBucket = accountBucket;
+        this.unprivilegedBucket = unprivilegedBucket;
+        this.channelRateLimit = channelRateLimit;
+    }
+
+    /**
+     * Attempts to consume the tokens for a single message.
+     * <p>
+     * Either the tokens of all applicable buckets are consumed, or none.
+     *
+     * @param channel the lower case channel name, or null if the command does not target a channel
+     * @return 0 if the tokens were consumed, or else the nanoseconds to wait until the tokens may be available
+     */
+    public long tryConsume(String channel) {
+        final boolean privileged = channel != null && privilegedChannels.contains(channel);
+
+        final Bucket channelBucket;
+        if (channel != null && !privileged && channelRateLimit != null) {
+            channelBucket = channelBuckets.computeIfAbsent(channel, c -> Bucket4j.builder().addLimit(channelRateLimit).build());
+            ConsumptionProbe probe = channelBucket.tryConsumeAndReturnRemaining(1L);
+            if (!probe.isConsumed()) return Math.max(probe.getNanosToWaitForRefill(), 1L);
+        } else {
+            channelBucket = null;
+        }
+
+        if (!privileged) {
+            ConsumptionProbe probe = unprivilegedBucket.tryConsumeAndReturnRemaining(1L);
+            if (!probe.isConsumed()) {
+                if (channelBucket != null) channelBucket.addTokens(1L);
+                return Math.max(probe.getNanosToWaitForRefill(), 1L);
+            }
+        }
+
+        ConsumptionProbe probe = accountBucket.tryConsumeAndReturnRemaining(1L);
+        if (!probe.isConsumed()) {
+            if (!privileged) unprivilegedBucket.addTokens(1L);
+            if (channelBucket != null) channelBucket.addTokens(1L);
+            return Math.max(probe.getNanosToWaitForRefill(), 1L);
+        }
+
+        return 0L;
+    }
+
+    /**
+     * Upgrades or downgrades the limits of a channel
+     *
+     * @param channel    the lower case channel name
+     * @param privileged whether the account is broadcaster, moderator or vip in the channel
+     */
+    public void setPrivileged(@NonNull String channel, boolean privileged) {
+        if (privileged) {
+            privilegedChannels.add(channel);
+            channelBuckets.remove(channel);
+        } else {
+            privilegedChannels.remove(channel);
+        }
+    }
+
+    /**
+     * @param channel the lower case channel name
+     * @return whether the account is broadcaster, moderator or vip in the channel
+     */
+    public boolean isPrivileged(@NonNull String channel) {
+        return privilegedChannels.contains(channel);
+    }
+
+    /**
+     * Forgets the state of a channel that was left
+     *
+     * @param channel the lower case channel name
+     */
+    public void removeChannel(@NonNull String channel) {
+        privilegedChannels.remove(channel);
+        channelBuckets.remove(channel);
+    }
+
+    /**
+     * Extracts the target channel of an outgoing command
+     *
+     * @param command the raw command, which may include message tags
+     * @return the lower case channel name of a PRIVMSG command, or null
+     */
+    public static String getChannel(@NonNull String command) {
+        int i = 0;
+        if (command.startsWith("@")) {
+            i = command.indexOf(' ') + 1;
+            if (i == 0) return null;
+        }
+
+        if (!command.regionMatches(true, i, "PRIVMSG #", 0, 9))
+            return null;
+
+        final int start = i + 9;
+        int end = command.indexOf(' ', start);
+        if (end < 0) end = command.length();
+        return end > start ? IdentityCache.lowerCase(command.substring(start, end)) : null;
+    }
+
+}
@@ -0,0 +1,61 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.OverflowPolicy;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.Duration;
+import java.util.function.BiConsumer;
+
+/**
+ * Configuration of a single lane of the {@link PriorityCommandQueue}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class CommandLaneConfig {
+
+    /**
+     * Maximum number of commands waiting in the lane
+     */
+    @Builder.Default
+    int capacity = 200;
+
+    /**
+     * Share of sends for this lane, relative to the other lanes that have commands waiting
+     */
+    @Builder.Default
+    int weight = 1;
+
+    /**
+     * Behavior when the lane is at its capacity
+     */
+    @Builder.Default
+    OverflowPolicy overflowPolicy = OverflowPolicy.DROP_NEWEST;
+
+    /**
+     * Maximum time to wait for room in the lane, for {@link OverflowPolicy#BLOCK}
+     */
+    @Builder.Default
+    Duration blockTimeout = Duration.ofSeconds(1L);
+
+    /**
+     * Receives the rejected commands, for {@link OverflowPolicy#CALLBACK}
+     */
+    BiConsumer<CommandPriority, String> overflowCallback;
+
+    /**
+     * Creates the default configuration of a lane
+     *
+     * @param priority      the lane
+     * @param chatQueueSize the capacity of the lanes other than {@link CommandPriority#WHISPER}, which is unbounded
+     * @return CommandLaneConfig
+     */
+    public static CommandLaneConfig defaults(CommandPriority priority, int chatQueueSize) {
+        return CommandLaneConfig.builder()
+            .capacity(priority == CommandPriority.WHISPER ? Integer.MAX_VALUE : chatQueueSize)
+            .weight(priority.getDefaultWeight())
+            .build();
+    }
+
+}
@@ -0,0 +1,200 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.NonNull;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Matches chat messages against the command prefixes and the registered command names.
+ * <p>
+ * Prefixes and command names are compiled into tries, so a message is matched in a single forward scan.
+ * When several prefixes match, the longest prefix that is followed by a valid command wins.
+ * When no command names are registered, every message that starts with a prefix is a command.
+ * Command names are matched case-insensitively and must be followed by whitespace or the end of the message.
+ */
+public final class CommandMatcher {
+
+    private final Node prefixes = new Node();
+
+    /**
+     * Registered command names, or null if any command name is accepted
+     */
+    private final Node commands;
+
+    /**
+     * Constructor
+     *
+     * @param prefixes     the command prefixes
+     * @param commandNames the registered command names, or an empty collection to accept any command
+     */
+    public CommandMatcher(@NonNull Collection<String> prefixes, @NonNull Collection<String> commandNames) {
+        for (String prefix : prefixes) {
+            if (prefix != null && !prefix.isEmpty())
+                this.prefixes.insert(prefix, false);
+        }
+
+        if (commandNames.isEmpty()) {
+            this.commands = null;
+        } else {
+            this.commands = new Node();
+            for (String name : commandNames) {
+                if (name != null && !name.isEmpty())
+                    this.commands.insert(name, true);
+            }
+        }
+    }
+
+    /**
+     * Matches a message
+     *
+     * @param message the chat message
+     * @return the match, or null if the message is not a (registered) command
+     */
+    public Match match(@NonNull String message) {
+        // collect the matching prefixes, from shortest to longest
+        String[] matched = null;
+        int count = 0;
+        Node node = prefixes;
+        for (int i = 0, n = message.length(); i < n; i++) {
+            node = node.child(message.charAt(i));
+            if (node == null) break;
+            if (node.value != null) {
+                if (matched == null) matched = new String[4];
+                else if (count == matched.length) matched = Arrays.copyOf(matched, count * 2);
+                matched[count++] = node.value;
+            }
+        }
+
+        // try the longest prefix first
+        for (int k = count - 1; k >= 0; k--) {
+            final Match match = matchCommand(message, matched[k]);
+            if (match != null) return match;
+        }
+
+        return null;
+    }
+
+    private Match matchCommand(String message, String prefix) {
+        final int n = message.length();
+        final int start = prefix.length();
+        final String name;
+        int i = start;
+
+        if (commands == null) {
+            while (i < n && !Character.isWhitespace(message.charAt(i))) i++;
+            name = message.substring(start, i);
+        } else {
+            Node node = commands;
+            while (node != null && i < n && !Character.isWhitespace(message.charAt(i))) {
+                node = node.child(Character.toLowerCase(message.charAt(i++)));
+            }
+            if (node == null || node.value == null) return null;
+            name = node.value;
+        }
+
+        return new Match(prefix, name, message.substring(start), tokenize(message, i));
+    }
+
+    /**
+     * Splits a command (without prefix) on whitespace
+     *
+     * @param command the command
+     * @return the command name followed by the arguments (read-only)
+     */
+    public static List<String> split(@NonNull String command) {
+        return tokenize(command, 0);
+    }
+
+    /**
+     * Splits the remainder of a message on whitespace
+     */
+    private static List<String> tokenize(String message, int start) {
+        final int n = message.length();
+        List<String> arguments = null;
+        int i = start;
+        while (i < n) {
+            while (i < n && Character.isWhitespace(message.charAt(i))) i++;
+            if (i == n) break;
+            final int begin = i;
+            while (i < n && !Character.isWhitespace(message.charAt(i))) i++;
+            if (arguments == null) arguments = new ArrayList<>(4);
+            arguments.add(message.substring(begin, i));
+        }
+        return arguments == null ? Collections.emptyList() : Collections.unmodifiableList(arguments);
+    }
+
+    /**
+     * A matched command
+     */
+    @Value
+    public static class Match {
+
+        /**
+         * The command prefix
+         */
+        String prefix;
+
+        /**
+         * The command name, as registered (or as written, if any command name is accepted)
+         */
+        String commandName;
+
+        /**
+         * The message without the prefix
+         */
+        String command;
+
+        /**
+         * The whitespace separated arguments after the command name (read-only)
+         */
+        List<String> arguments;
+
+    }
+
+    /**
+     * Trie node, with the children in parallel arrays that are scanned linearly
+     */
+    private static final class Node {
+
+        private char[] keys = new char[0];
+
+        private Node[] children = new Node[0];
+
+        /**
+         * The prefix or command name that ends at this node, or null
+         */
+        private String value;
+
+        private Node child(char c) {
+            final char[] keys = this.keys;
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) return children[i];
+            }
+            return null;
+        }
+
+        private void insert(String word, boolean ignoreCase) {
+            Node node = this;
+            for (int i = 0; i < word.length(); i++) {
+                final char c = ignoreCase ? Character.toLowerCase(word.charAt(i)) : word.charAt(i);
+                Node next = node.child(c);
+                if (next == null) {
+                    next = new Node();
+                    node.keys = Arrays.copyOf(node.keys, node.keys.length + 1);
+                    node.children = Arrays.copyOf(node.children, node.children.length + 1);
+                    node.keys[node.keys.length - 1] = c;
+                    node.children[node.children.length - 1] = next;
+                }
+                node = next;
+            }
+            node.value = word;
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits websocket text frames into irc lines in a single pass.
+ * <p>
+ * Any run of CR and LF characters separates two lines, and empty lines are skipped.
+ * A frame that holds a single line without line terminator is passed on as-is, without copying.
+ */
+@UtilityClass
+public class IRCFrameSplitter {
+
+    /**
+     * Passes each non-empty line of a frame to the consumer, in order
+     *
+     * @param frame    the websocket text frame
+     * @param consumer the line consumer
+     */
+    public void forEachLine(@NonNull String frame, @NonNull Consumer<String> consumer) {
+        final int n = frame.length();
+        int start = 0;
+        for (int i = 0; i < n; i++) {
+            final char c = frame.charAt(i);
+            if (c == '\n' || c == '\r') {
+                if (i > start) consumer.accept(frame.substring(start, i));
+                start = i + 1;
+            }
+        }
+
+        if (start == 0 && n > 0) {
+            consumer.accept(frame);
+        } else if (start < n) {
+            consumer.accept(frame.substring(start));
+        }
+    }
+
+}
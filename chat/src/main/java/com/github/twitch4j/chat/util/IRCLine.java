@@ -0,0 +1,247 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A single IRCv3 line, tokenized into tags, prefix, command, middle parameters and trailing parameter.
+ * <p>
+ * The line is split in one forward scan without regular expressions or backtracking.
+ * Only offsets into the raw line are recorded, so no substrings are allocated until a component is requested.
+ * <p>
+ * Grammar: {@code ['@' <tags> SPACE] [':' <prefix> SPACE] <command> [SPACE <middle params>] [SPACE ':' <trailing>]}
+ *
+ * @see <a href="https://ircv3.net/specs/extensions/message-tags.html">IRCv3 Message Tags</a>
+ * @see <a href="https://tools.ietf.org/html/rfc1459#section-2.3.1">RFC 1459 Message Format</a>
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class IRCLine {
+
+    /**
+     * The raw line, without any line terminator
+     */
+    private final String raw;
+
+    /**
+     * Index of the first tag character (after '@'), or -1 if the line has no tags
+     */
+    private final int tagsStart;
+
+    /**
+     * Index of the space that ends the tags, or -1 if the line has no tags
+     */
+    private final int tagsEnd;
+
+    /**
+     * Index of the first prefix character (after ':'), or -1 if the line has no prefix
+     */
+    private final int prefixStart;
+
+    /**
+     * Index of the space that ends the prefix, or -1 if the line has no prefix
+     */
+    private final int prefixEnd;
+
+    /**
+     * Index of the first command character, or -1 if the line has no command
+     */
+    private final int commandStart;
+
+    /**
+     * Index after the last command character, or -1 if the line has no command
+     */
+    private final int commandEnd;
+
+    /**
+     * Index of the first character after the space that follows the command, or -1 if nothing follows the command
+     */
+    private final int paramsStart;
+
+    /**
+     * Index of the first character of the trailing parameter (after " :"), or -1 if there is no trailing parameter
+     */
+    private final int trailingStart;
+
+    /**
+     * Tokenizes a single IRC line.
+     *
+     * @param raw the raw line, without any line terminator
+     * @return the tokenized line; see {@link #hasCommand()} to check whether the line was well-formed
+     */
+    public static IRCLine tokenize(@NonNull String raw) {
+        final int n = raw.length();
+        int i = 0;
+
+        // Tags
+        int tagsStart = -1, tagsEnd = -1;
+        if (n > 0 && raw.charAt(0) == '@') {
+            tagsEnd = raw.indexOf(' ', 1);
+            if (tagsEnd < 0)
+                return new IRCLine(raw, -1, -1, -1, -1, -1, -1, -1, -1);
+            tagsStart = 1;
+            i = tagsEnd + 1;
+        }
+
+        // Prefix
+        int prefixStart = -1, prefixEnd = -1;
+        if (i < n && raw.charAt(i) == ':') {
+            prefixEnd = raw.indexOf(' ', i + 1);
+            if (prefixEnd < 0)
+                return new IRCLine(raw, tagsStart, tagsEnd, -1, -1, -1, -1, -1, -1);
+            prefixStart = i + 1;
+            i = prefixEnd + 1;
+        }
+
+        // Command
+        if (i >= n || raw.charAt(i) == ' ')
+            return new IRCLine(raw, tagsStart, tagsEnd, prefixStart, prefixEnd, -1, -1, -1, -1);
+        final int commandStart = i;
+        int commandEnd = raw.indexOf(' ', i);
+        if (commandEnd < 0)
+            return new IRCLine(raw, tagsStart, tagsEnd, prefixStart, prefixEnd, commandStart, n, -1, -1);
+        final int paramsStart = commandEnd + 1;
+
+        // Parameters: find the first parameter that starts with ':', which absorbs the remainder of the line
+        int trailingStart = -1;
+        for (int j = paramsStart; j < n; j++) {
+            if (raw.charAt(j) == ':' && (j == paramsStart || raw.charAt(j - 1) == ' ')) {
+                trailingStart = j + 1;
+                break;
+            }
+
+            final int space = raw.indexOf(' ', j);
+            if (space < 0) break;
+            j = space; // loop increment moves onto the start of the next parameter
+        }
+
+        return new IRCLine(raw, tagsStart, tagsEnd, prefixStart, prefixEnd, commandStart, commandEnd, paramsStart, trailingStart);
+    }
+
+    /**
+     * @return whether the line contained a command
+     */
+    public boolean hasCommand() {
+        return commandStart >= 0;
+    }
+
+    /**
+     * @return whether the line contained message tags
+     */
+    public boolean hasTags() {
+        return tagsStart >= 0;
+    }
+
+    /**
+     * @return whether the line contained a prefix
+     */
+    public boolean hasPrefix() {
+        return prefixStart >= 0;
+    }
+
+    /**
+     * @return whether the command was followed by a space (and thus possibly parameters)
+     */
+    public boolean hasParams() {
+        return paramsStart >= 0;
+    }
+
+    /**
+     * @return whether the line contained a trailing parameter
+     */
+    public boolean hasTrailing() {
+        return trailingStart >= 0;
+    }
+
+    /**
+     * @return the raw message tags (without '@'), or null
+     */
+    public String getTags() {
+        return tagsStart >= 0 ? raw.substring(tagsStart, tagsEnd) : null;
+    }
+
+    /**
+     * @return the prefix (without ':'), or null
+     */
+    public String getPrefix() {
+        return prefixStart >= 0 ? raw.substring(prefixStart, prefixEnd) : null;
+    }
+
+    /**
+     * @return the command, or null
+     */
+    public String getCommand() {
+        return commandStart >= 0 ? raw.substring(commandStart, commandEnd) : null;
+    }
+
+    /**
+     * Checks the command without allocating a substring.
+     *
+     * @param command the expected command, in upper case
+     * @return whether the line has exactly this command
+     */
+    public boolean isCommand(@NonNull String command) {
+        return commandStart >= 0 && commandEnd - commandStart == command.length() && raw.startsWith(command, commandStart);
+    }
+
+    /**
+     * @return whether the command is non-empty and consists only of upper case ASCII letters and digits
+     */
+    public boolean isCommandAlphanumeric() {
+        if (commandStart < 0 || commandEnd == commandStart)
+            return false;
+
+        for (int i = commandStart; i < commandEnd; i++) {
+            char c = raw.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < '0' || c > '9'))
+                return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * @return everything after the space that follows the command, or null
+     */
+    public String getParams() {
+        return paramsStart >= 0 ? raw.substring(paramsStart) : null;
+    }
+
+    /**
+     * Gets a middle parameter (i.e. a space-delimited parameter before the trailing parameter).
+     *
+     * @param index the zero-based index of the middle parameter
+     * @return the parameter, or null if there are not enough middle parameters
+     */
+    public String getMiddleParam(int index) {
+        if (paramsStart < 0 || index < 0)
+            return null;
+
+        final int limit = trailingStart >= 0 ? trailingStart - 1 : raw.length();
+        int start = paramsStart;
+        for (int k = 0; start < limit; k++) {
+            int end = raw.indexOf(' ', start);
+            if (end < 0 || end > limit) end = limit;
+            if (k == index)
+                return end > start ? raw.substring(start, end) : null;
+            start = end + 1;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return the trailing parameter (without ':'), or null
+     */
+    public String getTrailing() {
+        return trailingStart >= 0 ? raw.substring(trailingStart) : null;
+    }
+
+    @Override
+    public String toString() {
+        return raw;
+    }
+
+}
@@ -0,0 +1,286 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.common.util.EscapeUtils;
+import lombok.NonNull;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Read-only, lazily parsed view over the IRCv3 message tags of a raw line.
+ * <p>
+ * Only offsets into the raw line are kept: the tags are indexed upon first access,
+ * and each value is copied (and unescaped, see {@link #getUnescaped(String)}) only when it is first read.
+ * <p>
+ * Values are returned in their escaped form, and tags without a value map to null.
+ */
+public final class IRCTags extends AbstractMap<String, String> {
+
+    /**
+     * The raw line
+     */
+    private final String raw;
+
+    /**
+     * Index of the first tag character (after '@')
+     */
+    private final int start;
+
+    /**
+     * Index after the last tag character
+     */
+    private final int end;
+
+    /**
+     * Tag offsets, computed upon first access
+     */
+    private volatile Index index;
+
+    /**
+     * Entry Set, created upon first access
+     */
+    private Set<Entry<String, String>> entrySet;
+
+    /**
+     * Constructor
+     *
+     * @param raw   the raw line
+     * @param start the index of the first tag character (after '@')
+     * @param end   the index after the last tag character
+     */
+    public IRCTags(@NonNull String raw, int start, int end) {
+        if (start < 0 || end < start || end > raw.length())
+            throw new IndexOutOfBoundsException("Invalid tag region [" + start + ", " + end + ")");
+
+        this.raw = raw;
+        this.start = start;
+        this.end = end;
+    }
+
+    @Override
+    public String get(Object key) {
+        if (!(key instanceof String)) return null;
+        final Index idx = index();
+        final int i = idx.find(raw, (String) key);
+        return i >= 0 ? idx.value(raw, i) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof String && index().find(raw, (String) key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return index().size(raw);
+    }
+
+    /**
+     * Gets the unescaped value of a tag, which is cached for subsequent reads.
+     *
+     * @param key the tag name
+     * @return the unescaped tag value, or null if the tag is absent or has no value
+     * @see EscapeUtils#unescapeTagValue(CharSequence, int, int)
+     */
+    public String getUnescaped(String key) {
+        final Index idx = index();
+        final int i = idx.find(raw, key);
+        if (i < 0) return null;
+
+        String unescaped = idx.unescaped[i];
+        if (unescaped == null) {
+            final int eq = idx.bounds[i * 3 + 1];
+            final int e = idx.bounds[i * 3 + 2];
+            if (eq < 0 || eq + 1 == e) return null;
+            // reuse the escaped copy if it was read, otherwise unescape straight from the raw line
+            final String value = idx.values[i];
+            idx.unescaped[i] = unescaped = value != null ? EscapeUtils.unescapeTagValue(value) : EscapeUtils.unescapeTagValue(raw, eq + 1, e);
+        }
+        return unescaped;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> es = entrySet;
+        if (es == null) {
+            entrySet = es = new AbstractSet<Entry<String, String>>() {
+                @Override
+                public Iterator<Entry<String, String>> iterator() {
+                    return new EntryIterator(index());
+                }
+
+                @Override
+                public int size() {
+                    return IRCTags.this.size();
+                }
+            };
+        }
+        return es;
+    }
+
+    private Index index() {
+        Index idx = index;
+        if (idx == null) {
+            // benign race: concurrent readers may build equivalent indices
+            index = idx = new Index(raw, start, end);
+        }
+        return idx;
+    }
+
+    /**
+     * Offsets of the individual tags, with per-tag value caches
+     */
+    private static final class Index {
+
+        /**
+         * Triples of (key start, '=' index or -1, tag end) per tag
+         */
+        private final int[] bounds;
+
+        /**
+         * Number of (non-empty) tags
+         */
+        private final int count;
+
+        /**
+         * Escaped values, copied upon first read
+         */
+        private final String[] values;
+
+        /**
+         * Unescaped values, computed upon first read
+         */
+        private final String[] unescaped;
+
+        /**
+         * Number of distinct keys, or -1 if not yet computed
+         */
+        private volatile int size = -1;
+
+        private Index(String raw, int start, int end) {
+            int max = 1;
+            for (int i = start; i < end; i++) {
+                if (raw.charAt(i) == ';') max++;
+            }
+
+            final int[] bounds = new int[max * 3];
+            int n = 0;
+            for (int s = start; s < end; ) {
+                int e = raw.indexOf(';', s);
+                if (e < 0 || e > end) e = end;
+
+                if (e > s) {
+                    int eq = s;
+                    while (eq < e && raw.charAt(eq) != '=') eq++;
+                    if (eq == e) eq = -1;
+                    bounds[n * 3] = s;
+                    bounds[n * 3 + 1] = eq;
+                    bounds[n * 3 + 2] = e;
+                    n++;
+                }
+
+                s = e + 1;
+            }
+
+            this.bounds = bounds;
+            this.count = n;
+            this.values = new String[n];
+            this.unescaped = new String[n];
+        }
+
+        private int keyEnd(int i) {
+            final int eq = bounds[i * 3 + 1];
+            return eq >= 0 ? eq : bounds[i * 3 + 2];
+        }
+
+        /**
+         * @return the position of the key (the last one, in the case of duplicates), or -1 if absent
+         */
+        private int find(String raw, String key) {
+            final int len = key.length();
+            for (int i = count - 1; i >= 0; i--) {
+                final int s = bounds[i * 3];
+                if (keyEnd(i) - s == len && raw.regionMatches(s, key, 0, len))
+                    return i;
+            }
+            return -1;
+        }
+
+        /**
+         * @return whether a later tag has the same key as the tag at the specified position
+         */
+        private boolean isShadowed(String raw, int i) {
+            final int s = bounds[i * 3];
+            final int len = keyEnd(i) - s;
+            for (int j = i + 1; j < count; j++) {
+                final int t = bounds[j * 3];
+                if (keyEnd(j) - t == len && raw.regionMatches(s, raw, t, len))
+                    return true;
+            }
+            return false;
+        }
+
+        private String key(String raw, int i) {
+            return raw.substring(bounds[i * 3], keyEnd(i));
+        }
+
+        private String value(String raw, int i) {
+            String value = values[i];
+            if (value == null) {
+                final int eq = bounds[i * 3 + 1];
+                final int e = bounds[i * 3 + 2];
+                if (eq < 0 || eq + 1 == e) return null;
+                values[i] = value = raw.substring(eq + 1, e);
+            }
+            return value;
+        }
+
+        private int size(String raw) {
+            int n = size;
+            if (n < 0) {
+                n = 0;
+                for (int i = 0; i < count; i++) {
+                    if (!isShadowed(raw, i)) n++;
+                }
+                size = n;
+            }
+            return n;
+        }
+
+    }
+
+    private final class EntryIterator implements Iterator<Entry<String, String>> {
+
+        private final Index idx;
+
+        private int next;
+
+        private EntryIterator(Index idx) {
+            this.idx = idx;
+            this.next = advance(0);
+        }
+
+        private int advance(int i) {
+            while (i < idx.count && idx.isShadowed(raw, i)) i++;
+            return i;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < idx.count;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            final int i = next;
+            next = advance(i + 1);
+            return new SimpleImmutableEntry<>(idx.key(raw, i), idx.value(raw, i));
+        }
+
+    }
+
+}
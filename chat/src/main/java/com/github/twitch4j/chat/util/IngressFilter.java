@@ -0,0 +1,45 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.NonNull;
+
+/**
+ * Decides whether an incoming irc line is parsed and published, before any parsing beyond the tokenization of the line.
+ * <p>
+ * The filters created by {@link IngressFilters} compare the characters of the raw line in place, so rejected lines do not allocate.
+ * Lines that the chat client needs to maintain its own state (ROOMSTATE, USERSTATE, GLOBALUSERSTATE, RECONNECT and numeric replies) are never filtered.
+ *
+ * @see IngressFilters
+ */
+@FunctionalInterface
+public interface IngressFilter {
+
+    /**
+     * @param line the tokenized line
+     * @return whether the line should be parsed and published
+     */
+    boolean accept(IRCLine line);
+
+    /**
+     * @param other another filter
+     * @return a filter that accepts lines accepted by both filters
+     */
+    default IngressFilter and(@NonNull IngressFilter other) {
+        return line -> accept(line) && other.accept(line);
+    }
+
+    /**
+     * @param other another filter
+     * @return a filter that accepts lines accepted by either filter
+     */
+    default IngressFilter or(@NonNull IngressFilter other) {
+        return line -> accept(line) || other.accept(line);
+    }
+
+    /**
+     * @return a filter that accepts the lines rejected by this filter
+     */
+    default IngressFilter negate() {
+        return line -> !accept(line);
+    }
+
+}
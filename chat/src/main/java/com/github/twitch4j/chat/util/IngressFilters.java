@@ -0,0 +1,128 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.NonNull;
+import lombok.experimental.UtilityClass;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Factories for {@link IngressFilter}s that match the raw line without allocations.
+ * <p>
+ * Example: only USERNOTICE lines in some channels, and PRIVMSG lines with bits
+ * <pre>{@code
+ * IngressFilter filter = IngressFilters.commands("USERNOTICE").and(IngressFilters.channels(Arrays.asList("twitch4j", "twitchdev")))
+ *     .or(IngressFilters.commands("PRIVMSG").and(IngressFilters.hasTag("bits")));
+ * }</pre>
+ */
+@UtilityClass
+public class IngressFilters {
+
+    /**
+     * @param commands the accepted commands, such as PRIVMSG or USERNOTICE
+     * @return a filter that accepts lines with one of the commands
+     */
+    public IngressFilter commands(@NonNull String... commands) {
+        final String[] expected = Arrays.stream(commands).map(c -> c.toUpperCase(Locale.ROOT)).distinct().toArray(String[]::new);
+        return line -> {
+            for (String command : expected) {
+                if (line.isCommand(command)) return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @param channels the accepted channel names (without '#')
+     * @return a filter that accepts lines whose first parameter is one of the channels
+     */
+    public IngressFilter channels(@NonNull Collection<String> channels) {
+        // sort the channels by their hash, so lines are matched with a binary search and a single region comparison
+        final String[] names = channels.stream().map(c -> c.toLowerCase(Locale.ROOT)).distinct()
+            .sorted((a, b) -> Integer.compare(hash(a, 0, a.length()), hash(b, 0, b.length())))
+            .toArray(String[]::new);
+        final int[] hashes = new int[names.length];
+        for (int i = 0; i < names.length; i++) {
+            hashes[i] = hash(names[i], 0, names[i].length());
+        }
+
+        return line -> {
+            final String raw = line.getRaw();
+            final int start = line.getParamsStart() + 1;
+            if (start <= 0 || start > raw.length() || raw.charAt(start - 1) != '#')
+                return false;
+
+            int end = raw.indexOf(' ', start);
+            if (end < 0) end = raw.length();
+            final int length = end - start;
+            final int h = hash(raw, start, end);
+
+            int i = Arrays.binarySearch(hashes, h);
+            if (i < 0) return false;
+            while (i > 0 && hashes[i - 1] == h) i--;
+            for (; i < hashes.length && hashes[i] == h; i++) {
+                if (names[i].length() == length && raw.regionMatches(true, start, names[i], 0, length))
+                    return true;
+            }
+            return false;
+        };
+    }
+
+    /**
+     * @param tagName the tag name, such as bits
+     * @return a filter that accepts lines with a non-empty value for the tag
+     */
+    public IngressFilter hasTag(@NonNull String tagName) {
+        return line -> {
+            final int valueStart = valueStart(line, tagName);
+            return valueStart >= 0 && valueStart < line.getTagsEnd() && line.getRaw().charAt(valueStart) != ';';
+        };
+    }
+
+    /**
+     * @param tagName     the tag name, such as msg-id
+     * @param valuePrefix the prefix of the (escaped) tag value, such as msg_
+     * @return a filter that accepts lines whose value for the tag starts with the prefix
+     */
+    public IngressFilter tagValueStartsWith(@NonNull String tagName, @NonNull String valuePrefix) {
+        return line -> {
+            final int valueStart = valueStart(line, tagName);
+            return valueStart >= 0 && valueStart + valuePrefix.length() <= line.getTagsEnd() && line.getRaw().startsWith(valuePrefix, valueStart);
+        };
+    }
+
+    /**
+     * @return the index of the value of a tag in the raw line, or -1 if the line does not have the tag
+     */
+    private int valueStart(IRCLine line, String tagName) {
+        if (!line.hasTags())
+            return -1;
+
+        final String raw = line.getRaw();
+        final int n = tagName.length();
+        final int end = line.getTagsEnd();
+        int i = line.getTagsStart();
+        while (i < end) {
+            if (raw.startsWith(tagName, i) && i + n < end && raw.charAt(i + n) == '=')
+                return i + n + 1;
+
+            final int next = raw.indexOf(';', i);
+            if (next < 0 || next >= end) break;
+            i = next + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Case-insensitive hash of a region
+     */
+    private int hash(String s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(s.charAt(i));
+        }
+        return h;
+    }
+
+}
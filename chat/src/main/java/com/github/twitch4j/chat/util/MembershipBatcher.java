@@ -0,0 +1,188 @@
+package com.github.twitch4j.chat.util;
+
+import io.github.bucket4j.Bucket;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pending channel joins and parts, combined into JOIN and PART lines of multiple channels.
+ * <p>
+ * Only the latest request per channel is kept. Parts are sent right away, while each joined channel consumes a token of the join bucket.
+ * Instances are not thread-safe: all methods but the getters must be called while holding the lock of the owning connection.
+ */
+@Slf4j
+public final class MembershipBatcher {
+
+    private static final String JOIN_PREFIX = "JOIN ";
+
+    private static final String PART_PREFIX = "PART ";
+
+    /**
+     * Length of the JOIN and PART prefixes
+     */
+    private static final int PREFIX_LENGTH = 5;
+
+    /**
+     * Join Bucket, where each joined channel counts as one attempt
+     */
+    private final Bucket joinBucket;
+
+    /**
+     * Maximum length of a line, excluding the line terminator
+     */
+    private final int maxLineLength;
+
+    /**
+     * Pending joins (true) and parts (false), in the order they were requested
+     */
+    private final Map<String, Boolean> pending = new LinkedHashMap<>();
+
+    /**
+     * Number of pending channel joins
+     */
+    @Getter
+    private volatile int pendingJoinCount;
+
+    /**
+     * Number of pending channel parts
+     */
+    @Getter
+    private volatile int pendingPartCount;
+
+    /**
+     * Total number of channels that JOIN lines have been created for
+     */
+    private final AtomicLong sentJoinCount = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param joinBucket    the join bucket, where each joined channel counts as one attempt
+     * @param maxLineLength the maximum length of a line, excluding the line terminator
+     */
+    public MembershipBatcher(@NonNull Bucket joinBucket, int maxLineLength) {
+        this.joinBucket = joinBucket;
+        this.maxLineLength = maxLineLength;
+    }
+
+    /**
+     * Queues a join or part, replacing any pending request for the same channel
+     *
+     * @param channel the lower case channel name
+     * @param join    true to join, false to part
+     */
+    public void queue(@NonNull String channel, boolean join) {
+        Boolean previous = pending.remove(channel);
+        if (previous != null) {
+            if (previous) pendingJoinCount--;
+            else pendingPartCount--;
+        }
+
+        pending.put(channel, join);
+        if (join) pendingJoinCount++;
+        else pendingPartCount++;
+    }
+
+    /**
+     * Replaces all pending requests with joins of the channels, e.g. for a new connection that is not in any channel
+     *
+     * @param channels the lower case channel names
+     */
+    public void reset(@NonNull Collection<String> channels) {
+        pending.clear();
+        for (String channel : channels) {
+            pending.put(channel, true);
+        }
+        pendingJoinCount = pending.size();
+        pendingPartCount = 0;
+    }
+
+    /**
+     * @return whether no join or part is pending
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    /**
+     * Takes as many pending requests as fit into one PART and one JOIN line.
+     * <p>
+     * Joins are limited by the tokens of the join bucket; the tokens that are consumed but not needed are returned to the bucket.
+     * Channel names that can never fit into a line are dropped.
+     *
+     * @return the PART line and/or the JOIN line, or an empty list if only joins are pending and the join bucket is empty
+     */
+    public List<String> nextBatch() {
+        final StringBuilder parts = new StringBuilder(PART_PREFIX);
+        final StringBuilder joins = new StringBuilder(JOIN_PREFIX);
+        long joinTokens = 0L;
+        boolean joinsLimited = false;
+
+        Iterator<Map.Entry<String, Boolean>> it = pending.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Boolean> entry = it.next();
+            final String channel = entry.getKey();
+            final StringBuilder sb = entry.getValue() ? joins : parts;
+
+            // "JOIN #a,#b" must fit into a single line
+            if (sb.length() + channel.length() + 2 > maxLineLength) {
+                if (sb.length() > PREFIX_LENGTH) continue;
+                log.warn("Ignoring invalid channel name [{}].", channel);
+                if (entry.getValue()) pendingJoinCount--;
+                else pendingPartCount--;
+                it.remove();
+                continue;
+            }
+
+            if (entry.getValue()) {
+                if (joinsLimited) continue;
+                if (joinTokens == 0L) {
+                    joinTokens = joinBucket.tryConsumeAsMuchAsPossible(pendingJoinCount);
+                    if (joinTokens == 0L) {
+                        joinsLimited = true;
+                        continue;
+                    }
+                }
+                joinTokens--;
+                pendingJoinCount--;
+                sentJoinCount.incrementAndGet();
+            } else {
+                pendingPartCount--;
+            }
+
+            if (sb.length() > PREFIX_LENGTH) sb.append(',');
+            sb.append('#').append(channel);
+            it.remove();
+        }
+
+        // return unused join tokens
+        if (joinTokens > 0L) joinBucket.addTokens(joinTokens);
+
+        final boolean hasParts = parts.length() > PREFIX_LENGTH;
+        final boolean hasJoins = joins.length() > PREFIX_LENGTH;
+        if (!hasParts && !hasJoins) return Collections.emptyList();
+
+        final List<String> lines = new ArrayList<>(2);
+        if (hasParts) lines.add(parts.toString());
+        if (hasJoins) lines.add(joins.toString());
+        return lines;
+    }
+
+    /**
+     * @return the total number of channels that JOIN lines have been created for
+     */
+    public long getSentJoinCount() {
+        return sentJoinCount.get();
+    }
+
+}
@@ -0,0 +1,284 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.concurrent.BasicThreadFactory;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Moves the parsing and publishing of incoming irc lines off the websocket reader thread.
+ * <p>
+ * The reader thread only submits the tokenized lines. A pool of parse threads builds the events in parallel,
+ * while the events are published through stripes keyed by channel: the events of a channel are published in the order they were received,
+ * but different channels are published concurrently.
+ * <p>
+ * Both stages are bounded. When the parse queue is full, the reader thread parses the line itself,
+ * and when a stripe is full, the reader thread waits for it to catch up; both cases are counted as backpressure.
+ */
+@Slf4j
+public final class ParsePipeline implements AutoCloseable {
+
+    /**
+     * Parses tokenized lines into events, returning null for lines that should not be published
+     */
+    private final Function<IRCLine, IRCMessageEvent> parser;
+
+    /**
+     * Publishes parsed events
+     */
+    private final Consumer<IRCMessageEvent> dispatcher;
+
+    /**
+     * Parse threads
+     */
+    private final ThreadPoolExecutor parseExecutor;
+
+    /**
+     * Dispatch threads, shared by all stripes
+     */
+    private final ExecutorService dispatchExecutor;
+
+    /**
+     * Ordered dispatch stripes
+     */
+    private final Stripe[] stripes;
+
+    private volatile boolean closed;
+
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong backpressureCount = new AtomicLong();
+
+    /**
+     * Constructor
+     *
+     * @param name       the thread name prefix
+     * @param config     the pipeline configuration
+     * @param parser     parses tokenized lines into events, returning null for lines that should not be published
+     * @param dispatcher publishes parsed events
+     */
+    public ParsePipeline(@NonNull String name, @NonNull ParsePipelineConfig config, @NonNull Function<IRCLine, IRCMessageEvent> parser, @NonNull Consumer<IRCMessageEvent> dispatcher) {
+        if (config.getParseThreads() < 1 || config.getDispatchThreads() < 1 || config.getDispatchStripes() < 1 || config.getParseQueueCapacity() < 1 || config.getStripeCapacity() < 1)
+            throw new IllegalArgumentException("The thread counts, stripe count and capacities of the parse pipeline must be positive");
+
+        this.parser = parser;
+        this.dispatcher = dispatcher;
+        this.parseExecutor = new ThreadPoolExecutor(
+            config.getParseThreads(), config.getParseThreads(), 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(config.getParseQueueCapacity()),
+            threadFactory(name + "-parse"),
+            (task, executor) -> {
+                backpressureCount.incrementAndGet();
+                if (!executor.isShutdown()) task.run();
+            }
+        );
+        this.dispatchExecutor = Executors.newFixedThreadPool(config.getDispatchThreads(), threadFactory(name + "-dispatch"));
+        this.stripes = new Stripe[config.getDispatchStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(config.getStripeCapacity());
+        }
+    }
+
+    /**
+     * Submits a line to be parsed and published. Called by the websocket reader thread.
+     *
+     * @param line the tokenized line
+     */
+    public void submit(@NonNull IRCLine line) {
+        if (closed) return;
+        receivedCount.incrementAndGet();
+
+        final Stripe stripe = stripes[Math.floorMod(channelHash(line), stripes.length)];
+        final Slot slot = new Slot(line);
+        if (!stripe.pending.offer(slot)) {
+            backpressureCount.incrementAndGet();
+            try {
+                while (!stripe.pending.offer(slot, 100L, TimeUnit.MILLISECONDS)) {
+                    if (closed) return;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+
+        parseExecutor.execute(() -> {
+            try {
+                slot.event = parser.apply(slot.line);
+            } catch (Exception e) {
+                failedCount.incrementAndGet();
+                log.error("Failed to parse irc line [{}]", slot.line, e);
+            } finally {
+                slot.done = true;
+                stripe.signal();
+            }
+        });
+    }
+
+    /**
+     * @return the number of lines submitted
+     */
+    public long getReceivedCount() {
+        return receivedCount.get();
+    }
+
+    /**
+     * @return the number of events published
+     */
+    public long getDispatchedCount() {
+        return dispatchedCount.get();
+    }
+
+    /**
+     * @return the number of lines that could not be parsed or published
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    /**
+     * @return the number of times the reader thread had to parse a line itself or wait for a stripe, as a stage was full
+     */
+    public long getBackpressureCount() {
+        return backpressureCount.get();
+    }
+
+    /**
+     * @return the number of lines waiting for a parse thread
+     */
+    public int getParseQueueSize() {
+        return parseExecutor.getQueue().size();
+    }
+
+    /**
+     * @return the number of lines that were submitted, but not yet published
+     */
+    public int getDispatchQueueSize() {
+        int n = 0;
+        for (Stripe stripe : stripes) {
+            n += stripe.pending.size();
+        }
+        return n;
+    }
+
+    /**
+     * Stops accepting lines; lines that were already submitted are still published
+     */
+    @Override
+    public void close() {
+        closed = true;
+        parseExecutor.shutdown();
+        try {
+            parseExecutor.awaitTermination(1L, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dispatchExecutor.shutdown();
+    }
+
+    /**
+     * Hashes the channel a line belongs to (the first middle parameter if it starts with '#'), case-insensitively and without allocations
+     *
+     * @param line the tokenized line
+     * @return the hash, which is 0 for lines without channel
+     */
+    static int channelHash(IRCLine line) {
+        final String raw = line.getRaw();
+        final int start = line.getParamsStart();
+        if (start < 0 || start >= raw.length() || raw.charAt(start) != '#')
+            return 0;
+
+        int h = 0;
+        for (int i = start + 1, n = raw.length(); i < n; i++) {
+            final char c = raw.charAt(i);
+            if (c == ' ') break;
+            h = 31 * h + Character.toLowerCase(c);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static BasicThreadFactory threadFactory(String name) {
+        return new BasicThreadFactory.Builder()
+            .namingPattern(name + "-%d")
+            .daemon(true)
+            .priority(Thread.NORM_PRIORITY)
+            .build();
+    }
+
+    /**
+     * A line and its parsed event
+     */
+    private static final class Slot {
+        private final IRCLine line;
+        private volatile IRCMessageEvent event;
+        private volatile boolean done;
+
+        private Slot(IRCLine line) {
+            this.line = line;
+        }
+    }
+
+    /**
+     * Publishes the events of its channels in submission order, one event at a time
+     */
+    private final class Stripe {
+
+        /**
+         * Slots in submission order
+         */
+        private final BlockingQueue<Slot> pending;
+
+        /**
+         * Number of signals that were not yet handled by a drain; the drain runs while it is positive
+         */
+        private final AtomicInteger wip = new AtomicInteger();
+
+        private Stripe(int capacity) {
+            this.pending = new ArrayBlockingQueue<>(capacity);
+        }
+
+        private void signal() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    dispatchExecutor.execute(this::drain);
+                } catch (Exception e) {
+                    // the pipeline was closed
+                    wip.set(0);
+                }
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                Slot slot;
+                while ((slot = pending.peek()) != null && slot.done) {
+                    pending.poll();
+                    if (slot.event == null) continue;
+                    try {
+                        dispatcher.accept(slot.event);
+                        dispatchedCount.incrementAndGet();
+                    } catch (Exception e) {
+                        failedCount.incrementAndGet();
+                        log.error("Failed to publish irc event [{}]", slot.line, e);
+                    }
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Configuration of the {@link ParsePipeline}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class ParsePipelineConfig {
+
+    /**
+     * Number of threads that parse irc lines into events
+     */
+    @Builder.Default
+    int parseThreads = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+
+    /**
+     * Maximum number of lines waiting for a parse thread, before the reader thread parses lines itself
+     */
+    @Builder.Default
+    int parseQueueCapacity = 1024;
+
+    /**
+     * Number of threads that publish the parsed events
+     */
+    @Builder.Default
+    int dispatchThreads = Math.max(Runtime.getRuntime().availableProcessors() / 2, 1);
+
+    /**
+     * Number of ordered dispatch stripes; the events of a channel are always published by the same stripe
+     */
+    @Builder.Default
+    int dispatchStripes = 64;
+
+    /**
+     * Maximum number of events waiting in a stripe, before the reader thread waits for the stripe to catch up
+     */
+    @Builder.Default
+    int stripeCapacity = 1024;
+
+}
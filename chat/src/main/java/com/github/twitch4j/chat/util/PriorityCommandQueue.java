@@ -0,0 +1,308 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Outgoing command queue with one bounded lane per {@link CommandPriority}.
+ * <p>
+ * The lanes are drained in a smooth weighted round-robin order, so every lane with sendable commands receives its share of sends
+ * (relative to its weight) while higher weighted lanes are served first.
+ * Within a lane, the oldest command that may be sent (according to the rate limits) is sent next.
+ */
+@Slf4j
+public final class PriorityCommandQueue {
+
+    private static final CommandPriority[] PRIORITIES = CommandPriority.values();
+
+    /**
+     * Lane configurations, indexed by priority ordinal
+     */
+    private final CommandLaneConfig[] configs;
+
+    /**
+     * Lanes, indexed by priority ordinal
+     */
+    private final ArrayDeque<QueuedCommand>[] lanes;
+
+    /**
+     * Current weights of the smooth weighted round-robin
+     */
+    private final long[] credits;
+
+    /**
+     * Guards the lanes
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Signalled when commands are removed from a lane
+     */
+    private final Condition notFull = lock.newCondition();
+
+    /**
+     * Constructor
+     *
+     * @param chatQueueSize the default lane capacity, see {@link CommandLaneConfig#defaults(CommandPriority, int)}
+     * @param configs       the lane configurations that override the defaults, may be null
+     */
+    @SuppressWarnings("unchecked")
+    public PriorityCommandQueue(int chatQueueSize, Map<CommandPriority, CommandLaneConfig> configs) {
+        this.configs = new CommandLaneConfig[PRIORITIES.length];
+        this.lanes = new ArrayDeque[PRIORITIES.length];
+        this.credits = new long[PRIORITIES.length];
+
+        for (CommandPriority priority : PRIORITIES) {
+            CommandLaneConfig config = configs != null ? configs.get(priority) : null;
+            if (config == null) config = CommandLaneConfig.defaults(priority, chatQueueSize);
+            if (config.getCapacity() < 1 || config.getWeight() < 1)
+                throw new IllegalArgumentException("The capacity and weight of lane " + priority + " must be positive");
+
+            this.configs[priority.ordinal()] = config;
+            this.lanes[priority.ordinal()] = new ArrayDeque<>(Math.min(config.getCapacity(), 16));
+        }
+    }
+
+    /**
+     * Adds a command to a lane, applying the overflow policy of the lane if it is at its capacity
+     *
+     * @param priority the lane
+     * @param command  the raw irc command
+     * @return the outcome
+     */
+    public EnqueueStatus offer(@NonNull CommandPriority priority, @NonNull String command) {
+        return offer(priority, command, null);
+    }
+
+    /**
+     * Adds a command to a lane, applying the overflow policy of the lane if it is at its capacity
+     *
+     * @param priority the lane
+     * @param command  the raw irc command
+     * @param onEvict  receives the command that was dropped to make room, for {@link com.github.twitch4j.chat.enums.OverflowPolicy#DROP_OLDEST}; may be null
+     * @return the outcome
+     */
+    public EnqueueStatus offer(@NonNull CommandPriority priority, @NonNull String command, Consumer<String> onEvict) {
+        final CommandLaneConfig config = configs[priority.ordinal()];
+        final ArrayDeque<QueuedCommand> lane = lanes[priority.ordinal()];
+
+        QueuedCommand evicted = null;
+        lock.lock();
+        try {
+            if (lane.size() < config.getCapacity()) {
+                lane.addLast(new QueuedCommand(command));
+                return EnqueueStatus.QUEUED;
+            }
+
+            switch (config.getOverflowPolicy()) {
+                case DROP_OLDEST:
+                    evicted = lane.pollFirst();
+                    lane.addLast(new QueuedCommand(command));
+                    log.debug("Dropped the oldest command of the full {} lane: [{}].", priority, evicted != null ? evicted.command : null);
+                    return EnqueueStatus.QUEUED_DROPPED_OLDEST;
+
+                case BLOCK:
+                    long nanos = config.getBlockTimeout().toNanos();
+                    while (lane.size() >= config.getCapacity()) {
+                        if (nanos <= 0L) {
+                            log.debug("Timed out waiting for room in the {} lane: [{}].", priority, command);
+                            return EnqueueStatus.TIMED_OUT;
+                        }
+                        nanos = notFull.awaitNanos(nanos);
+                    }
+                    lane.addLast(new QueuedCommand(command));
+                    return EnqueueStatus.QUEUED;
+
+                case CALLBACK:
+                    if (config.getOverflowCallback() != null) {
+                        try {
+                            config.getOverflowCallback().accept(priority, command);
+                        } catch (Exception e) {
+                            log.error("Overflow callback of the {} lane failed", priority, e);
+                        }
+                    }
+                    return EnqueueStatus.REJECTED;
+
+                case DROP_NEWEST:
+                default:
+                    log.debug("Dropped a command for the full {} lane: [{}].", priority, command);
+                    return EnqueueStatus.REJECTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return EnqueueStatus.TIMED_OUT;
+        } finally {
+            lock.unlock();
+
+            // outside of the lock, as the callback may complete futures
+            if (evicted != null && onEvict != null) {
+                try {
+                    onEvict.accept(evicted.command);
+                } catch (Exception e) {
+                    log.error("Eviction callback of the {} lane failed", priority, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends commands in weighted fair order, until the lanes are empty or every remaining command is rate limited.
+     *
+     * @param acquire attempts to consume the rate limit tokens of a command; returns 0 if consumed, or else the nanoseconds until the tokens may be available
+     * @param send    sends a command; returns false if the command could not be sent, which stops the drain and keeps the command
+     * @return the nanoseconds until a remaining command may be sent, or -1 if the lanes are empty or a send failed
+     */
+    public long drain(@NonNull ToLongBiFunction<CommandPriority, String> acquire, @NonNull Predicate<String> send) {
+        return drain(acquire, send, null);
+    }
+
+    /**
+     * Sends commands in weighted fair order, until the lanes are empty or every remaining command is rate limited.
+     *
+     * @param acquire attempts to consume the rate limit tokens of a command; returns 0 if consumed, or else the nanoseconds until the tokens may be available
+     * @param send    sends a command; returns false if the command could not be sent, which stops the drain and keeps the command
+     * @param onSent  receives the lane and the nanoseconds the command waited in the queue for every sent command, may be null
+     * @return the nanoseconds until a remaining command may be sent, or -1 if the lanes are empty or a send failed
+     */
+    public long drain(@NonNull ToLongBiFunction<CommandPriority, String> acquire, @NonNull Predicate<String> send, ObjLongConsumer<CommandPriority> onSent) {
+        lock.lock();
+        try {
+            final boolean[] limited = new boolean[lanes.length];
+            long wait = Long.MAX_VALUE;
+
+            while (true) {
+                final int lane = nextLane(limited);
+                if (lane < 0) break;
+
+                QueuedCommand command = null;
+                for (Iterator<QueuedCommand> it = lanes[lane].iterator(); it.hasNext(); ) {
+                    QueuedCommand next = it.next();
+                    long nanos = acquire.applyAsLong(PRIORITIES[lane], next.command);
+                    if (nanos <= 0L) {
+                        it.remove();
+                        command = next;
+                        break;
+                    }
+                    wait = Math.min(wait, nanos);
+                }
+
+                if (command == null) {
+                    // the lane does not lose its turn for being rate limited
+                    revertLane(lane, limited);
+                    limited[lane] = true;
+                    continue;
+                }
+
+                notFull.signalAll();
+                if (!send.test(command.command)) {
+                    lanes[lane].addFirst(command);
+                    return -1L;
+                }
+                if (onSent != null) onSent.accept(PRIORITIES[lane], System.nanoTime() - command.queuedAt);
+            }
+
+            return wait == Long.MAX_VALUE ? -1L : Math.max(wait, 1L);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return the total number of waiting commands
+     */
+    public int size() {
+        lock.lock();
+        try {
+            int n = 0;
+            for (ArrayDeque<QueuedCommand> lane : lanes) {
+                n += lane.size();
+            }
+            return n;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority the lane
+     * @return the number of waiting commands in the lane
+     */
+    public int size(@NonNull CommandPriority priority) {
+        lock.lock();
+        try {
+            return lanes[priority.ordinal()].size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param priority the lane
+     * @return the configuration of the lane
+     */
+    public CommandLaneConfig getConfig(@NonNull CommandPriority priority) {
+        return configs[priority.ordinal()];
+    }
+
+    /**
+     * Selects the next lane by smooth weighted round-robin. Must be called while holding the lock.
+     *
+     * @param excluded lanes that are rate limited
+     * @return the lane index, or -1 if no lane has sendable commands
+     */
+    private int nextLane(boolean[] excluded) {
+        long total = 0L;
+        int best = -1;
+        for (int i = 0; i < lanes.length; i++) {
+            if (excluded[i] || lanes[i].isEmpty()) continue;
+            credits[i] += configs[i].getWeight();
+            total += configs[i].getWeight();
+            if (best < 0 || credits[i] > credits[best]) best = i;
+        }
+
+        if (best >= 0) credits[best] -= total;
+        return best;
+    }
+
+    /**
+     * Undoes the credit changes of the last {@link #nextLane(boolean[])} call. Must be called while holding the lock.
+     */
+    private void revertLane(int selected, boolean[] excluded) {
+        long total = 0L;
+        for (int i = 0; i < lanes.length; i++) {
+            if (excluded[i] || lanes[i].isEmpty()) continue;
+            credits[i] -= configs[i].getWeight();
+            total += configs[i].getWeight();
+        }
+        credits[selected] += total;
+    }
+
+    /**
+     * A command with the time it was queued at
+     */
+    private static final class QueuedCommand {
+
+        private final String command;
+
+        private final long queuedAt = System.nanoTime();
+
+        private QueuedCommand(String command) {
+            this.command = command;
+        }
+
+    }
+
+}
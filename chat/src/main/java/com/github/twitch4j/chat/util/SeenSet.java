@@ -0,0 +1,222 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.NonNull;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, fixed size set of recently seen 64-bit keys, to drop duplicate messages.
+ * <p>
+ * Each slot packs a 44-bit fingerprint of the key with the 20-bit time it was added (in ticks of about 16.8 ms),
+ * so that entries expire without a cleanup task and a slot can be claimed with a single compare-and-set.
+ * Keys are probed in a short run of slots; when all of them hold live entries, the oldest one is evicted.
+ * <p>
+ * The set errs towards letting a duplicate through: a key is forgotten once it expires or is evicted,
+ * and two threads adding the same key at the very same time may both succeed.
+ * <p>
+ * Keys may also be added for a source (see {@link #add(long, int)}), so that only copies from other sources are duplicates.
+ * A set should only be used with one of the two add methods.
+ */
+public final class SeenSet {
+
+    /**
+     * Default time to remember a key
+     */
+    public static final Duration DEFAULT_WINDOW = Duration.ofSeconds(10L);
+
+    /**
+     * Default number of slots
+     */
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+
+    /**
+     * Number of distinct sources, see {@link #add(long, int)}
+     */
+    public static final int MAX_SOURCES = 256;
+
+    /**
+     * Low bits of the fingerprint that hold the source
+     */
+    private static final long SOURCE_MASK = MAX_SOURCES - 1;
+
+    private static final int TIME_BITS = 20;
+
+    private static final long TIME_MASK = (1L << TIME_BITS) - 1;
+
+    private static final int TICK_SHIFT = 24;
+
+    private static final int PROBES = 8;
+
+    /**
+     * Packed entries, 0 for empty slots
+     */
+    private final AtomicLongArray slots;
+
+    private final int mask;
+
+    /**
+     * Time to remember a key, in ticks
+     */
+    private final long windowTicks;
+
+    /**
+     * Constructor
+     *
+     * @param capacity number of slots, rounded up to a power of two; should exceed the number of keys added within the window
+     * @param window   time to remember a key, below two hours
+     */
+    public SeenSet(int capacity, @NonNull Duration window) {
+        if (capacity < PROBES)
+            throw new IllegalArgumentException("capacity must be at least " + PROBES);
+
+        final long ticks = window.toNanos() >> TICK_SHIFT;
+        if (ticks < 1L || ticks >= TIME_MASK >> 1)
+            throw new IllegalArgumentException("window must be between 17 ms and two hours");
+
+        final int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.windowTicks = ticks;
+    }
+
+    public SeenSet() {
+        this(DEFAULT_CAPACITY, DEFAULT_WINDOW);
+    }
+
+    /**
+     * Adds a key, unless it was added within the window
+     *
+     * @param key the key, e.g. from {@link #hash(CharSequence)}
+     * @return true if the key was not seen, false for a duplicate
+     */
+    public boolean add(long key) {
+        return add(key, fingerprint(key), 0L);
+    }
+
+    /**
+     * Adds a key for a source, unless another source added it within the window
+     * <p>
+     * The first source to add a key owns it: repeats from that source are no duplicates and restart the window,
+     * while the copies from other sources are dropped.
+     *
+     * @param key    the key, e.g. from {@link #hash(CharSequence)}
+     * @param source the source, such as a connection index, between 0 and {@link #MAX_SOURCES} (exclusive)
+     * @return true if the key was not seen or was added by the same source, false for a duplicate from another source
+     */
+    public boolean add(long key, int source) {
+        if (source < 0 || source >= MAX_SOURCES)
+            throw new IllegalArgumentException("source must be between 0 and " + (MAX_SOURCES - 1));
+
+        long fingerprint = (key >>> TIME_BITS) & ~SOURCE_MASK;
+        if (fingerprint == 0L) fingerprint = SOURCE_MASK + 1;
+        return add(key, fingerprint | source, SOURCE_MASK);
+    }
+
+    /**
+     * @param key         the key
+     * @param fingerprint the fingerprint of the key, with the source in the bits of the source mask
+     * @param sourceMask  the bits of the fingerprint that hold the source, or 0 if the key has no source
+     * @return true if the key was added (or repeated by its source), false for a duplicate
+     */
+    private boolean add(long key, long fingerprint, long sourceMask) {
+        final long now = tick();
+        final long entry = (fingerprint << TIME_BITS) | now;
+        final int start = (int) key & mask;
+
+        // the key may be in any of the probed slots, even after an earlier slot has expired
+        for (int p = 0; p < PROBES; p++) {
+            final int i = (start + p) & mask;
+            final long e = slots.get(i);
+            if (e != 0L && sameKey(e, fingerprint, sourceMask) && age(e, now) <= windowTicks)
+                return repeat(i, e, entry, sourceMask);
+        }
+
+        int oldest = start;
+        long oldestAge = -1L;
+        for (int p = 0; p < PROBES; p++) {
+            final int i = (start + p) & mask;
+            long e;
+            while ((e = slots.get(i)) == 0L || age(e, now) > windowTicks) {
+                if (slots.compareAndSet(i, e, entry))
+                    return true;
+            }
+
+            if (sameKey(e, fingerprint, sourceMask))
+                return repeat(i, e, entry, sourceMask); // added concurrently
+
+            final long age = age(e, now);
+            if (age > oldestAge) {
+                oldest = i;
+                oldestAge = age;
+            }
+        }
+
+        slots.set(oldest, entry);
+        return true;
+    }
+
+    /**
+     * Handles a key that is in the set: a duplicate, unless it was added by the same source, whose repeat restarts the window
+     */
+    private boolean repeat(int i, long e, long entry, long sourceMask) {
+        if (sourceMask == 0L || e >>> TIME_BITS != entry >>> TIME_BITS)
+            return false;
+
+        slots.compareAndSet(i, e, entry);
+        return true;
+    }
+
+    /**
+     * @return whether the entry holds the fingerprint, ignoring the source
+     */
+    private static boolean sameKey(long e, long fingerprint, long sourceMask) {
+        return ((e >>> TIME_BITS) | sourceMask) == (fingerprint | sourceMask);
+    }
+
+    /**
+     * Forgets all keys
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0L);
+        }
+    }
+
+    /**
+     * Hashes a string to a 64-bit key (FNV-1a, followed by the murmur3 finalizer)
+     *
+     * @param value the string
+     * @return the key
+     */
+    public static long hash(@NonNull CharSequence value) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * @return the upper 44 bits of the key, never 0 so that no entry is 0
+     */
+    private static long fingerprint(long key) {
+        final long fingerprint = key >>> TIME_BITS;
+        return fingerprint != 0L ? fingerprint : 1L;
+    }
+
+    private static long tick() {
+        return (System.nanoTime() >> TICK_SHIFT) & TIME_MASK;
+    }
+
+    private static long age(long entry, long now) {
+        return (now - entry) & TIME_MASK;
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.github.twitch4j.chat.util;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * Confirms that twitch echoed the client-nonce of a tracked chat message.
+ *
+ * @see SendTracker
+ */
+@Value
+public class SendAcknowledgment {
+
+    /**
+     * The lower case channel name
+     */
+    String channel;
+
+    /**
+     * The client-nonce of the message
+     */
+    String nonce;
+
+    /**
+     * The id assigned to the message by twitch, if echoed
+     */
+    String messageId;
+
+    /**
+     * Time the message waited in the command queue
+     */
+    Duration queueTime;
+
+    /**
+     * Time between writing the message to the websocket and receiving the echo
+     */
+    Duration latency;
+
+}
@@ -0,0 +1,302 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import com.github.twitch4j.chat.exception.MessageRejectedException;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Correlates tracked chat messages with their acknowledgment by twitch.
+ * <p>
+ * A tracked message carries a client-nonce tag, which twitch echoes in the USERSTATE (or PRIVMSG) that confirms the message.
+ * Rejections are reported as a NOTICE without the nonce, so they are attributed to the oldest sent but unacknowledged message of the channel.
+ * Untracked messages that are sent while messages are pending are recorded in the same order,
+ * so that their rejections are not attributed to a tracked message.
+ * Messages that are neither acknowledged nor rejected within the timeout fail with a {@link TimeoutException}.
+ */
+@Slf4j
+public final class SendTracker {
+
+    /**
+     * Default time to wait for an acknowledgment
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30L);
+
+    /**
+     * The msg-ids of the NOTICEs that reject a sent message
+     */
+    private static final Set<String> REJECTION_NOTICES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+        "msg_duplicate", "msg_emoteonly", "msg_facebook", "msg_followersonly", "msg_followersonly_followed", "msg_followersonly_zero",
+        "msg_r9k", "msg_ratelimit", "msg_rejected", "msg_rejected_mandatory", "msg_requires_verified_phone_number",
+        "msg_slowmode", "msg_subsonly", "msg_suspended", "msg_timedout", "msg_verified_email"
+    )));
+
+    /**
+     * Schedules the timeouts
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * Time to wait for an acknowledgment, in nanoseconds
+     */
+    private final long timeoutNanos;
+
+    /**
+     * Pending messages by nonce
+     */
+    private final Map<String, PendingSend> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Sent but unacknowledged messages by lower case channel name, oldest first
+     */
+    private final Map<String, Deque<PendingSend>> sent = new ConcurrentHashMap<>();
+
+    /**
+     * Number of untracked messages in {@link #sent}
+     */
+    private final AtomicInteger untracked = new AtomicInteger();
+
+    /**
+     * Constructor
+     *
+     * @param executor schedules the timeouts
+     * @param timeout  time to wait for an acknowledgment
+     */
+    public SendTracker(@NonNull ScheduledExecutorService executor, @NonNull Duration timeout) {
+        this.executor = executor;
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Starts tracking a message, before it is queued
+     *
+     * @param channel the lower case channel name
+     * @param nonce   the client-nonce of the message
+     * @return a future that is completed upon the acknowledgment, or failed with a {@link MessageRejectedException} or {@link TimeoutException}
+     */
+    public CompletableFuture<SendAcknowledgment> track(@NonNull String channel, @NonNull String nonce) {
+        final PendingSend send = new PendingSend(channel, nonce);
+        if (pending.putIfAbsent(nonce, send) != null) {
+            send.future.completeExceptionally(new IllegalArgumentException("The nonce " + nonce + " is already pending"));
+            return send.future;
+        }
+
+        try {
+            send.timeout = executor.schedule(() -> expire(send), timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            log.warn("Failed to schedule the timeout of a tracked message", e);
+        }
+        return send.future;
+    }
+
+    /**
+     * @return whether no message is pending, so incoming lines need not be checked
+     */
+    public boolean isEmpty() {
+        return pending.isEmpty() && untracked.get() == 0;
+    }
+
+    /**
+     * @return the number of pending messages
+     */
+    public int size() {
+        return pending.size();
+    }
+
+    /**
+     * Records that a message was written to the websocket
+     *
+     * @param nonce the client-nonce of the message
+     */
+    public void onSent(String nonce) {
+        final PendingSend send = pending.get(nonce);
+        if (send != null && send.sentAt == 0L) {
+            send.sentAt = System.nanoTime();
+            sent.computeIfAbsent(send.channel, c -> new ConcurrentLinkedDeque<>()).addLast(send);
+        }
+    }
+
+    /**
+     * Records that an untracked message was written to the websocket, to attribute the rejections in the order of sending
+     *
+     * @param channel the lower case channel name
+     */
+    public void onSentUntracked(@NonNull String channel) {
+        final Deque<PendingSend> queue = sent.get(channel);
+        if (queue == null) return; // no message was tracked in the channel
+
+        final PendingSend placeholder = new PendingSend(channel, null);
+        untracked.incrementAndGet();
+        queue.addLast(placeholder);
+
+        try {
+            placeholder.timeout = executor.schedule(() -> removeUntracked(queue, placeholder), timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (Exception e) {
+            removeUntracked(queue, placeholder);
+        }
+    }
+
+    /**
+     * Completes a message whose nonce was echoed
+     *
+     * @param nonce     the echoed client-nonce
+     * @param messageId the id assigned by twitch, or null
+     * @return whether a pending message was completed
+     */
+    public boolean acknowledge(String nonce, String messageId) {
+        final PendingSend tracked = nonce != null ? pending.get(nonce) : null;
+        if (tracked != null && tracked.sentAt != 0L) removeUntrackedBefore(tracked);
+
+        final PendingSend send = remove(nonce);
+        if (send == null) return false;
+
+        final long now = System.nanoTime();
+        final long sentAt = send.sentAt != 0L ? send.sentAt : now;
+        send.future.complete(new SendAcknowledgment(send.channel, send.nonce, messageId, Duration.ofNanos(sentAt - send.queuedAt), Duration.ofNanos(now - sentAt)));
+        return true;
+    }
+
+    /**
+     * Fails the oldest sent but unacknowledged message of a channel, if the NOTICE rejects a sent message
+     * <p>
+     * When the oldest message is untracked, the rejection belongs to it and no tracked message is failed.
+     *
+     * @param channel  the lower case channel name
+     * @param noticeId the msg-id of the NOTICE
+     * @param message  the text of the NOTICE
+     * @return whether a pending message was failed
+     */
+    public boolean reject(String channel, String noticeId, String message) {
+        if (!REJECTION_NOTICES.contains(noticeId)) return false;
+
+        final Deque<PendingSend> queue = sent.get(channel);
+        if (queue == null) return false;
+
+        PendingSend oldest;
+        while ((oldest = queue.peekFirst()) != null) {
+            if (oldest.nonce == null) {
+                if (removeUntracked(queue, oldest)) return false;
+            } else if (remove(oldest.nonce) != null) {
+                oldest.future.completeExceptionally(new MessageRejectedException(channel, noticeId, message));
+                return true;
+            } else {
+                queue.remove(oldest); // completed concurrently
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fails a message that was not queued
+     *
+     * @param nonce  the client-nonce of the message
+     * @param status the outcome of adding the message to the command queue
+     */
+    public void reject(String nonce, EnqueueStatus status) {
+        final PendingSend send = remove(nonce);
+        if (send != null)
+            send.future.completeExceptionally(new MessageRejectedException(send.channel, status));
+    }
+
+    /**
+     * Fails all pending messages, e.g. when the chat is closed
+     */
+    public void clear() {
+        for (String nonce : pending.keySet()) {
+            final PendingSend send = remove(nonce);
+            if (send != null)
+                send.future.completeExceptionally(new IllegalStateException("The chat was closed before the message was acknowledged"));
+        }
+        sent.values().forEach(queue -> queue.forEach(send -> {
+            if (send.nonce == null) removeUntracked(queue, send);
+        }));
+    }
+
+    private void expire(PendingSend send) {
+        if (pending.remove(send.nonce, send)) {
+            removeSent(send);
+            send.future.completeExceptionally(new TimeoutException("No acknowledgment of the message in #" + send.channel + " within " + Duration.ofNanos(timeoutNanos)));
+        }
+    }
+
+    private PendingSend remove(String nonce) {
+        final PendingSend send = nonce != null ? pending.remove(nonce) : null;
+        if (send != null) {
+            removeSent(send);
+            final Future<?> timeout = send.timeout;
+            if (timeout != null) timeout.cancel(false);
+        }
+        return send;
+    }
+
+    private void removeSent(PendingSend send) {
+        final Deque<PendingSend> queue = sent.get(send.channel);
+        if (queue != null) queue.remove(send);
+    }
+
+    /**
+     * Forgets the untracked messages that were sent before an acknowledged message, as twitch answers the messages in order
+     */
+    private void removeUntrackedBefore(PendingSend send) {
+        final Deque<PendingSend> queue = sent.get(send.channel);
+        if (queue == null) return;
+
+        for (PendingSend other : queue) {
+            if (other == send) break;
+            if (other.nonce == null) removeUntracked(queue, other);
+        }
+    }
+
+    /**
+     * @return whether the untracked message was removed by this call
+     */
+    private boolean removeUntracked(Deque<PendingSend> queue, PendingSend placeholder) {
+        if (!queue.remove(placeholder)) return false;
+
+        untracked.decrementAndGet();
+        final Future<?> timeout = placeholder.timeout;
+        if (timeout != null) timeout.cancel(false);
+        return true;
+    }
+
+    /**
+     * A tracked message
+     */
+    private static final class PendingSend {
+
+        private final String channel;
+
+        private final String nonce;
+
+        private final CompletableFuture<SendAcknowledgment> future = new CompletableFuture<>();
+
+        private final long queuedAt = System.nanoTime();
+
+        private volatile long sentAt;
+
+        private volatile Future<?> timeout;
+
+        private PendingSend(String channel, String nonce) {
+            this.channel = channel;
+            this.nonce = nonce;
+        }
+
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.util.CommandLaneConfig;
+import com.github.twitch4j.chat.util.IngressFilter;
+import io.github.bucket4j.Bandwidth;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+/**
+ * A chat that never connects, to test the client side of {@link TwitchChat} without a network
+ * <p>
+ * Queued commands stay in the command queue, while incoming lines are fed through {@link TwitchChat#receiveLine(String)}.
+ */
+public class OfflineTwitchChat extends TwitchChat {
+
+    private static final Bandwidth LIMIT = Bandwidth.simple(1000, Duration.ofSeconds(1));
+
+    public OfflineTwitchChat(EventManager eventManager, ScheduledThreadPoolExecutor executor, Map<CommandPriority, CommandLaneConfig> commandLanes, IngressFilter ingressFilter) {
+        super(eventManager, null, null, "wss://localhost", false, Collections.singletonList("!"), Collections.emptyList(), 200, commandLanes, LIMIT, LIMIT, null, new Bandwidth[] { LIMIT }, LIMIT, executor, 1000L, null, Collections.emptyList(), null, ingressFilter, null, null);
+    }
+
+    @Override
+    public void connect() {
+        // no connection
+    }
+
+    @Override
+    public void disconnect() {
+        // no connection
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import com.github.twitch4j.chat.enums.OverflowPolicy;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.chat.exception.MessageRejectedException;
+import com.github.twitch4j.chat.util.CommandLaneConfig;
+import com.github.twitch4j.chat.util.IngressFilter;
+import com.github.twitch4j.chat.util.IngressFilters;
+import com.github.twitch4j.chat.util.SendAcknowledgment;
+import com.github.twitch4j.common.util.EventManagerUtils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class SendMessageAsyncTest {
+
+    private static final String REJECTION = "@msg-id=msg_duplicate :tmi.twitch.tv NOTICE #twitch4j :Your message was not sent because it is identical to the previous one you sent, less than 30 seconds ago.";
+
+    private static final String HOST_NOTICE = "@msg-id=host_on :tmi.twitch.tv NOTICE #twitch4j :Now hosting twitchdev.";
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+    private final EventManager eventManager = EventManagerUtils.initializeEventManager(SimpleEventHandler.class);
+
+    private TwitchChat chat;
+
+    @AfterEach
+    public void tearDown() {
+        if (chat != null) chat.close();
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Rejections of tracked messages pass the ingress filter")
+    public void rejectionPassesIngressFilter() throws Exception {
+        IngressFilter filter = IngressFilters.commands("USERNOTICE").and(IngressFilters.channels(Collections.singletonList("twitch4j")));
+        chat = new OfflineTwitchChat(eventManager, executor, null, filter);
+
+        List<IRCMessageEvent> notices = new ArrayList<>();
+        eventManager.onEvent(IRCMessageEvent.class, event -> {
+            if ("NOTICE".equals(event.getCommandType())) notices.add(event);
+        });
+
+        // filtered while no message is pending
+        chat.receiveLine(REJECTION);
+        assertTrue(notices.isEmpty());
+
+        CompletableFuture<SendAcknowledgment> future = chat.getSendTracker().track("twitch4j", "abc");
+        chat.getSendTracker().onSent("abc");
+
+        // other notices are still filtered
+        chat.receiveLine(HOST_NOTICE);
+        assertTrue(notices.isEmpty());
+        assertFalse(future.isDone());
+
+        chat.receiveLine(REJECTION);
+        assertEquals(1, notices.size());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(1L, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof MessageRejectedException);
+        assertEquals("msg_duplicate", ((MessageRejectedException) e.getCause()).getNoticeId());
+        assertTrue(chat.getSendTracker().isEmpty());
+    }
+
+    @Test
+    @DisplayName("A tracked message that is dropped for a newer message fails right away")
+    public void droppedOldest() throws Exception {
+        Map<CommandPriority, CommandLaneConfig> lanes = new EnumMap<>(CommandPriority.class);
+        lanes.put(CommandPriority.BULK, CommandLaneConfig.builder().capacity(1).overflowPolicy(OverflowPolicy.DROP_OLDEST).build());
+        chat = new OfflineTwitchChat(eventManager, executor, lanes, null);
+
+        CompletableFuture<SendAcknowledgment> first = chat.sendMessageAsync("twitch4j", "first");
+        assertFalse(first.isDone());
+
+        CompletableFuture<SendAcknowledgment> second = chat.sendMessageAsync("twitch4j", "second");
+        ExecutionException e = assertThrows(ExecutionException.class, () -> first.get(1L, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof MessageRejectedException);
+        assertEquals(EnqueueStatus.QUEUED_DROPPED_OLDEST, ((MessageRejectedException) e.getCause()).getEnqueueStatus());
+        assertTrue(((MessageRejectedException) e.getCause()).isRetryable());
+
+        assertFalse(second.isDone());
+        assertEquals(1, chat.getSendTracker().size());
+        assertEquals(1, chat.getCommandQueue().size());
+    }
+
+}
@@ -0,0 +1,350 @@
+package com.github.twitch4j.chat;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.enums.CommandSource;
+import com.github.twitch4j.chat.enums.TMIConnectionState;
+import com.github.twitch4j.chat.events.CommandEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.util.EventManagerUtils;
+import io.github.bucket4j.Bandwidth;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ShardedTwitchChatTest {
+
+    private static final String PRIVMSG = "@badge-info=;badges=;color=;display-name=Someone;emotes=;flags=;id=%s;mod=0;room-id=12345678;subscriber=0;tmi-sent-ts=1507246572675;turbo=0;user-id=22222222;user-type= :someone!someone@someone.tmi.twitch.tv PRIVMSG #%s :hello";
+
+    private static final String WHISPER = "@badges=;color=;display-name=Someone;emotes=;message-id=1;thread-id=22222222_33333333;turbo=0;user-id=22222222;user-type= :someone!someone@someone.tmi.twitch.tv WHISPER bot :hello";
+
+    private ScheduledThreadPoolExecutor executor;
+
+    private EventManager eventManager;
+
+    private final List<ShardedTwitchChat> chats = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        executor = new ScheduledThreadPoolExecutor(1);
+        eventManager = EventManagerUtils.initializeEventManager(SimpleEventHandler.class);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        chats.forEach(ShardedTwitchChat::close);
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("A channel is always assigned to the same shard")
+    public void consistentAssignment() {
+        ShardedTwitchChat first = sharded(4, -1);
+        ShardedTwitchChat second = sharded(4, -1);
+
+        for (int i = 0; i < 100; i++) {
+            first.joinChannel("channel" + i);
+            second.joinChannel("Channel" + i);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            String channel = "channel" + i;
+            int shard = shardIndex(first, channel);
+            assertEquals(shard, shardIndex(second, channel));
+
+            first.leaveChannel(channel);
+            first.joinChannel(channel);
+            assertEquals(shard, shardIndex(first, channel));
+            assertTrue(first.getShards().get(shard).isChannelJoined(channel));
+        }
+
+        // every shard receives a share of the channels
+        for (TwitchChat shard : first.getShards()) {
+            assertFalse(shard.getChannels().isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Channels of a full shard spill to another shard, and a full ring rejects channels")
+    public void maxChannelsPerShard() {
+        ShardedTwitchChat unlimited = sharded(3, -1);
+        ShardedTwitchChat limited = sharded(3, 1);
+        ShardedTwitchChat replay = sharded(3, 1);
+
+        // find two channels with the same preferred shard
+        unlimited.joinChannel("a");
+        String spilled = null;
+        for (int i = 0; spilled == null; i++) {
+            unlimited.joinChannel("b" + i);
+            if (shardIndex(unlimited, "b" + i) == shardIndex(unlimited, "a")) spilled = "b" + i;
+        }
+
+        limited.joinChannel("a");
+        limited.joinChannel(spilled);
+        assertEquals(shardIndex(unlimited, "a"), shardIndex(limited, "a"));
+        assertNotEquals(shardIndex(limited, "a"), shardIndex(limited, spilled));
+
+        // the spill target is deterministic
+        replay.joinChannel("a");
+        replay.joinChannel(spilled);
+        assertEquals(shardIndex(limited, spilled), shardIndex(replay, spilled));
+
+        // the last shard takes one more channel, then the ring is full
+        limited.joinChannel("c");
+        assertTrue(limited.isChannelJoined("c"));
+        limited.joinChannel("d");
+        assertFalse(limited.isChannelJoined("d"));
+        assertNull(limited.getShard("d"));
+        for (TwitchChat shard : limited.getShards()) {
+            assertEquals(1, shard.getChannels().size());
+        }
+
+        // leaving frees the capacity again
+        limited.leaveChannel("c");
+        limited.joinChannel("d");
+        assertTrue(limited.isChannelJoined("d"));
+    }
+
+    @Test
+    @DisplayName("Only the channels of a failed shard are moved when it is replaced")
+    public void replaceShard() {
+        ShardedTwitchChat chat = sharded(3, -1);
+        for (int i = 0; i < 60; i++) {
+            chat.joinChannel("channel" + i);
+        }
+
+        Map<String, Integer> before = new HashMap<>();
+        for (String channel : chat.getChannels()) {
+            before.put(channel, shardIndex(chat, channel));
+        }
+
+        FakeShard failed = (FakeShard) chat.getShards().get(1);
+        failed.state = TMIConnectionState.DISCONNECTED;
+        long now = System.currentTimeMillis();
+        chat.checkShards(now);
+        assertSame(failed, chat.getShards().get(1), "replaced before the failure timeout");
+        chat.checkShards(now + chat.getShardFailureTimeout() + 1L);
+
+        TwitchChat replacement = chat.getShards().get(1);
+        assertNotSame(failed, replacement);
+        assertTrue(failed.closed);
+        assertTrue(replacement.getChannels().isEmpty());
+
+        assertEquals(before.keySet(), chat.getChannels());
+        before.forEach((channel, shard) -> {
+            int current = shardIndex(chat, channel);
+            if (shard == 1) {
+                assertNotEquals(1, current);
+            } else {
+                assertEquals(shard, current);
+            }
+            assertTrue(chat.getShards().get(current).isChannelJoined(channel));
+        });
+
+        // the replacement receives new channels once it is connected
+        chat.checkShards(now + 2 * chat.getShardFailureTimeout());
+        int joined = 0;
+        for (int i = 0; i < 60; i++) {
+            chat.joinChannel("other" + i);
+            if (shardIndex(chat, "other" + i) == 1) joined++;
+        }
+        assertTrue(joined > 0);
+    }
+
+    @Test
+    @DisplayName("Channels of a failed shard that do not fit on the other shards are joined by its replacement")
+    public void pendingChannels() {
+        ShardedTwitchChat chat = sharded(3, 1);
+        for (int i = 0; i < 3; i++) {
+            chat.joinChannel("channel" + i);
+        }
+        String postponed = chat.getShards().get(1).getChannels().iterator().next();
+
+        ((FakeShard) chat.getShards().get(1)).state = TMIConnectionState.DISCONNECTED;
+        long now = System.currentTimeMillis();
+        chat.checkShards(now);
+        chat.checkShards(now + chat.getShardFailureTimeout() + 1L);
+
+        // the other shards are full
+        assertNull(chat.getShard(postponed));
+        assertTrue(chat.isChannelJoined(postponed));
+        assertTrue(chat.getChannels().contains(postponed));
+        assertEquals(3, chat.getChannels().size());
+
+        // the replacement is connected
+        chat.checkShards(now + 2 * chat.getShardFailureTimeout());
+        assertEquals(1, shardIndex(chat, postponed));
+        assertTrue(chat.getShards().get(1).isChannelJoined(postponed));
+
+        // a channel that is left while pending is not joined again
+        ((FakeShard) chat.getShards().get(1)).state = TMIConnectionState.DISCONNECTED;
+        chat.checkShards(now + 3 * chat.getShardFailureTimeout());
+        chat.checkShards(now + 4 * chat.getShardFailureTimeout() + 1L);
+        assertNull(chat.getShard(postponed));
+        chat.leaveChannel(postponed);
+        assertFalse(chat.isChannelJoined(postponed));
+        chat.checkShards(now + 5 * chat.getShardFailureTimeout());
+        assertFalse(chat.isChannelJoined(postponed));
+        assertTrue(chat.getShards().get(1).getChannels().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Channel messages are published from their shard, and whispers from the primary shard")
+    public void onShardMessage() {
+        ShardedTwitchChat chat = sharded(3, -1);
+        List<IRCMessageEvent> published = new ArrayList<>();
+        eventManager.onEvent(IRCMessageEvent.class, published::add);
+
+        chat.joinChannel("somechannel");
+        int assigned = shardIndex(chat, "somechannel");
+        for (int i = 0; i < 3; i++) {
+            chat.onShardMessage(chat.getShards().get(i), event(String.format(PRIVMSG, "id" + i, "somechannel")));
+        }
+        assertEquals(1, published.size());
+        assertEquals("id" + assigned, published.get(0).getTags().get("id"));
+
+        // the first connected shard is the primary shard
+        ((FakeShard) chat.getShards().get(0)).state = TMIConnectionState.DISCONNECTED;
+        published.clear();
+        for (int i = 0; i < 3; i++) {
+            chat.onShardMessage(chat.getShards().get(i), event(WHISPER));
+        }
+        assertEquals(1, published.size());
+
+        published.clear();
+        chat.onShardMessage(chat.getShards().get(0), event(WHISPER));
+        chat.onShardMessage(chat.getShards().get(2), event(WHISPER));
+        assertTrue(published.isEmpty());
+        chat.onShardMessage(chat.getShards().get(1), event(WHISPER));
+        assertEquals(1, published.size());
+    }
+
+    @Test
+    @DisplayName("In redundant mode, copies from other shards are dropped, while lines without an id may repeat on one shard")
+    public void redundantMessages() {
+        ShardedTwitchChat chat = sharded(2, -1, true);
+        List<IRCMessageEvent> published = new ArrayList<>();
+        eventManager.onEvent(IRCMessageEvent.class, published::add);
+        chat.joinChannel("somechannel");
+        TwitchChat first = chat.getShards().get(0);
+        TwitchChat second = chat.getShards().get(1);
+
+        chat.onShardMessage(first, event(String.format(PRIVMSG, "id0", "somechannel")));
+        chat.onShardMessage(second, event(String.format(PRIVMSG, "id0", "somechannel")));
+        assertEquals(1, published.size());
+
+        // a notice is only sent to the connection that caused it, and may repeat
+        String notice = "@msg-id=msg_ratelimit :tmi.twitch.tv NOTICE #somechannel :Your message was not sent because you are sending messages too quickly.";
+        chat.onShardMessage(second, event(notice));
+        chat.onShardMessage(second, event(notice));
+        assertEquals(3, published.size());
+
+        // the state of a channel is sent to every connection that joined it
+        String roomState = "@emote-only=0;followers-only=-1;r9k=0;room-id=12345678;slow=0;subs-only=0 :tmi.twitch.tv ROOMSTATE #somechannel";
+        chat.onShardMessage(first, event(roomState));
+        chat.onShardMessage(second, event(roomState));
+        assertEquals(4, published.size());
+
+        // a repeat on the first shard is published, while its copy is dropped
+        chat.onShardMessage(second, event(roomState));
+        chat.onShardMessage(first, event(roomState));
+        assertEquals(5, published.size());
+    }
+
+    @Test
+    @DisplayName("Events reply through the shard of their channel")
+    public void respondToUser() {
+        ShardedTwitchChat chat = sharded(3, -1);
+        chat.joinChannel("somechannel");
+        eventManager.onEvent(CommandEvent.class, event -> event.respondToUser("pong"));
+
+        eventManager.publish(new CommandEvent(CommandSource.CHANNEL, "somechannel", null, "!", "ping", Collections.emptySet()));
+
+        TwitchChat assigned = chat.getShard("somechannel");
+        for (TwitchChat shard : chat.getShards()) {
+            assertEquals(shard == assigned ? 1 : 0, shard.getCommandQueue().size());
+        }
+    }
+
+    private ShardedTwitchChat sharded(int shardCount, int maxChannelsPerShard) {
+        return sharded(shardCount, maxChannelsPerShard, false);
+    }
+
+    private ShardedTwitchChat sharded(int shardCount, int maxChannelsPerShard, boolean redundant) {
+        Bandwidth bandwidth = Bandwidth.simple(1000, Duration.ofSeconds(1));
+        ShardedTwitchChat chat = new ShardedTwitchChat(eventManager, null, null, "wss://localhost", false, Collections.singletonList("!"), Collections.emptyList(), 200, null, bandwidth, bandwidth, null, new Bandwidth[] { bandwidth }, bandwidth, executor, 1000L, null, Collections.emptyList(), null, null, null, null, shardCount, maxChannelsPerShard, 60_000L, redundant) {
+            @Override
+            TwitchChat createShard() {
+                return new FakeShard(this, executor);
+            }
+        };
+        chats.add(chat);
+        return chat;
+    }
+
+    private static int shardIndex(ShardedTwitchChat chat, String channel) {
+        return chat.getShards().indexOf(chat.getShard(channel));
+    }
+
+    private static IRCMessageEvent event(String line) {
+        return new IRCMessageEvent(line, Collections.emptyMap(), Collections.emptyMap(), null);
+    }
+
+    /**
+     * A shard without a connection, whose connection state is set by the test
+     */
+    private static final class FakeShard extends TwitchChat {
+
+        private volatile TMIConnectionState state = TMIConnectionState.CONNECTED;
+
+        private volatile boolean closed;
+
+        private FakeShard(ShardedTwitchChat shardedChat, ScheduledThreadPoolExecutor executor) {
+            super(shardedChat.getEventManager(), null, null, "wss://localhost", false, Collections.singletonList("!"), Collections.emptyList(), 200, null,
+                Bandwidth.simple(1000, Duration.ofSeconds(1)), Bandwidth.simple(1000, Duration.ofSeconds(1)), null, new Bandwidth[] { Bandwidth.simple(1000, Duration.ofSeconds(1)) },
+                Bandwidth.simple(1000, Duration.ofSeconds(1)), executor, 1000L, null, Collections.emptyList(), null, null, null, null, shardedChat);
+        }
+
+        @Override
+        public void connect() {
+            // no connection
+        }
+
+        @Override
+        public void disconnect() {
+            // no connection
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            super.close();
+        }
+
+        @Override
+        public TMIConnectionState getConnectionState() {
+            return state;
+        }
+
+    }
+
+}
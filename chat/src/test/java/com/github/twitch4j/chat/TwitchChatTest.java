@@ -62,7 +62,7 @@ public class TwitchChatTest {
         TestUtils.sleepFor(1000);
 
         // check if the message was send and received
-        assertTrue(twitchChat.ircCommandQueue.size() == 0, "Can't find the message we send in the received messages!");
+        assertTrue(twitchChat.getCommandQueue().size() == 0, "Can't find the message we send in the received messages!");
     }
 
     @Test
@@ -0,0 +1,71 @@
+package com.github.twitch4j.chat.analytics;
+
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.events.domain.EventChannel;
+import com.github.twitch4j.common.events.domain.EventUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ChatAnalyticsTest {
+
+    @Test
+    @DisplayName("Emote tags are decoded into ranges")
+    public void emoteRanges() {
+        EmoteRanges emotes = EmoteRanges.parse("25:0-4,12-16/emotesv2_1a2b:6-10");
+        assertEquals(3, emotes.size());
+        assertEquals("25", emotes.getEmoteId(0));
+        assertTrue(emotes.isSameEmoteAsNext(0));
+        assertEquals(12, emotes.getStart(1));
+        assertEquals(16, emotes.getEnd(1));
+        assertFalse(emotes.isSameEmoteAsNext(1));
+        assertEquals("emotesv2_1a2b", emotes.getEmoteId(2));
+
+        assertTrue(EmoteRanges.parse(null).isEmpty());
+        assertEquals(1, EmoteRanges.parse("25:0-4,x-1/26:0-1").size());
+    }
+
+    @Test
+    @DisplayName("Top chatters and emotes are counted per window")
+    public void windows() {
+        ChatAnalytics analytics = new ChatAnalytics(ChatAnalyticsConfig.builder().window(Duration.ofHours(1L)).build());
+        long window = Duration.ofHours(1L).toMillis();
+        long current = System.currentTimeMillis() / window * window;
+
+        // previous window
+        analytics.onMessage(message("1", "25:0-4,6-10", "Kappa Kappa"), current - 1L);
+        analytics.onMessage(message("1", "", "hi"), current - 1L);
+        analytics.onMessage(message("2", "25:0-4", "Kappa"), current - 1L);
+        // current window
+        analytics.onMessage(message("3", "", "hello"), current);
+
+        WindowStats last = analytics.getLastWindow("100").get();
+        assertEquals(3L, last.getMessageCount());
+        assertEquals(3L, last.getEmoteCount());
+        assertEquals("1", last.getTopChatters().get(0).getKey());
+        assertEquals(2L, last.getTopChatters().get(0).getCount());
+        assertEquals("25", last.getTopEmotes().get(0).getKey());
+        assertEquals(3L, last.getTopEmotes().get(0).getCount());
+
+        WindowStats running = analytics.getCurrentWindow("100").get();
+        assertEquals(1L, running.getMessageCount());
+        assertEquals(1, analytics.estimateMessages("100", "3"));
+        assertEquals(0, analytics.estimateEmoteUses("100", "25"));
+        assertFalse(analytics.getCurrentWindow("200").isPresent());
+    }
+
+    private static ChannelMessageEvent message(String userId, String emotes, String text) {
+        IRCMessageEvent event = new IRCMessageEvent("@emotes=" + emotes + ";room-id=100;user-id=" + userId + " :user" + userId + "!user" + userId + "@user" + userId + ".tmi.twitch.tv PRIVMSG #channel :" + text, Collections.emptyMap(), Collections.emptyMap(), null);
+        return new ChannelMessageEvent(new EventChannel("100", "channel"), event, new EventUser(userId, "user" + userId), text, Collections.emptySet());
+    }
+
+}
@@ -0,0 +1,87 @@
+package com.github.twitch4j.chat.capture;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class CaptureTest {
+
+    @Test
+    @DisplayName("Recorded lines are read back in order, across blocks and reopened captures")
+    public void roundTrip() throws Exception {
+        Path file = Files.createTempFile("twitch4j", ".capture");
+        try {
+            List<String> lines = new ArrayList<>();
+            try (CaptureWriter writer = new CaptureWriter(file, 256)) {
+                for (int i = 0; i < 100; i++) {
+                    String line = "@badges=;color= :user" + i + "!user@user.tmi.twitch.tv PRIVMSG #twitch4j :message " + i + " \u2764";
+                    lines.add(line);
+                    writer.record(1_600_000_000_000L + i * 10L, line);
+                }
+            }
+            try (CaptureWriter writer = new CaptureWriter(file)) {
+                lines.add("PING :tmi.twitch.tv");
+                writer.record(1_500_000_000_000L, "PING :tmi.twitch.tv");
+            }
+
+            try (CaptureReader reader = new CaptureReader(file)) {
+                for (int i = 0; i < 100; i++) {
+                    assertTrue(reader.next());
+                    assertEquals(1_600_000_000_000L + i * 10L, reader.getTimestamp());
+                    assertEquals(lines.get(i), reader.getLine());
+                }
+                assertTrue(reader.next());
+                assertEquals(1_500_000_000_000L, reader.getTimestamp());
+                assertFalse(reader.next());
+            }
+
+            List<String> replayed = new ArrayList<>();
+            assertEquals(101L, CaptureReplayer.replay(file, replayed::add, 0));
+            assertEquals(lines, replayed);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    @DisplayName("A truncated last block ends the capture, and other files are not appended to")
+    public void truncatedAndForeignFiles() throws Exception {
+        Path file = Files.createTempFile("twitch4j", ".capture");
+        try {
+            try (CaptureWriter writer = new CaptureWriter(file)) {
+                writer.record(1_600_000_000_000L, "PING :tmi.twitch.tv");
+                writer.flush();
+                writer.record(1_600_000_000_010L, "PONG :tmi.twitch.tv");
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+
+            try (CaptureReader reader = new CaptureReader(file)) {
+                assertTrue(reader.next());
+                assertEquals("PING :tmi.twitch.tv", reader.getLine());
+                assertFalse(reader.next());
+            }
+
+            Files.write(file, "PING :tmi.twitch.tv\n".getBytes(StandardCharsets.UTF_8));
+            assertThrows(IOException.class, () -> new CaptureWriter(file));
+            assertEquals("PING :tmi.twitch.tv\n", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+}
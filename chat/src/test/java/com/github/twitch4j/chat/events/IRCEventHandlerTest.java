@@ -0,0 +1,125 @@
+package com.github.twitch4j.chat.events;
+
+import com.github.philippheuer.events4j.core.EventManager;
+import com.github.philippheuer.events4j.simple.SimpleEventHandler;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("unittest")
+public class IRCEventHandlerTest {
+
+    private static final String PRIVMSG = "@badge-info=;badges=;color=;display-name=Someone;emotes=;flags=;id=2d4e5a4b-8c1f-4d0e-9cc5-9a7c0ad6c3a2;mod=0;room-id=12345678;subscriber=0;tmi-sent-ts=1507246572675;turbo=0;user-id=22222222;user-type= :someone!someone@someone.tmi.twitch.tv PRIVMSG #somechannel :hello";
+
+    private static final String HOST_ON = "@msg-id=host_on :tmi.twitch.tv NOTICE #dallas :Now hosting xqcow.";
+
+    /**
+     * Simple class names of the events that were published by the handler (i.e. all but the irc messages)
+     */
+    private final List<String> published = new ArrayList<>();
+
+    private EventManager eventManager;
+
+    private IRCEventHandler handler;
+
+    @BeforeEach
+    public void setUp() {
+        eventManager = new EventManager() {
+            @Override
+            public void publish(Object event) {
+                if (!(event instanceof IRCMessageEvent)) published.add(event.getClass().getSimpleName());
+                super.publish(event);
+            }
+        };
+        eventManager.autoDiscovery();
+        eventManager.setDefaultEventHandler(SimpleEventHandler.class);
+        handler = new IRCEventHandler(eventManager);
+    }
+
+    @Test
+    @DisplayName("The captured corpus is routed to the handlers of each command and msg-id")
+    public void routeCorpus() throws IOException {
+        for (String line : readCorpus()) {
+            IRCMessageEvent event = new IRCMessageEvent(line, Collections.emptyMap(), Collections.emptyMap(), null);
+            if (event.isValid()) eventManager.publish(event);
+        }
+
+        Map<String, Integer> expected = new TreeMap<>();
+        expected.put("ChannelMessageEvent", 5);
+        expected.put("CheerEvent", 1);
+        expected.put("SubscriptionEvent", 1); // the subgift line lacks msg-param-recipient-user-name, so only the resub is published
+        expected.put("RaidEvent", 1);
+        expected.put("RitualEvent", 1);
+        expected.put("UserTimeoutEvent", 1);
+        expected.put("UserBanEvent", 1);
+        expected.put("ClearChatEvent", 1);
+        expected.put("EmoteOnlyEvent", 1);
+        expected.put("FollowersOnlyEvent", 1);
+        expected.put("Robot9000Event", 1);
+        expected.put("SlowModeEvent", 1);
+        expected.put("SubscribersOnlyEvent", 1);
+        expected.put("ChannelStateEvent", 2);
+        expected.put("UserStateEvent", 1);
+        expected.put("ChannelNoticeEvent", 7);
+        expected.put("HostOnEvent", 1);
+        expected.put("HostOffEvent", 1);
+        expected.put("ListModsEvent", 1);
+        expected.put("ListVipsEvent", 1);
+        expected.put("MessageDeleteError", 1);
+        expected.put("ChannelJoinEvent", 1);
+        expected.put("ChannelLeaveEvent", 1);
+        expected.put("ChannelModEvent", 2);
+        expected.put("PrivateMessageEvent", 2);
+        assertEquals(expected, counts(published));
+    }
+
+    @Test
+    @DisplayName("A failing handler does not prevent the other handlers from receiving the message")
+    public void handlerIsolation() {
+        List<String> received = new ArrayList<>();
+        handler.registerCommandHandler("PRIVMSG", e -> {
+            throw new IllegalStateException("command handler");
+        });
+        handler.registerCommandHandler("PRIVMSG", e -> received.add("command"));
+        handler.registerNoticeHandler("HOST_ON", e -> {
+            throw new IllegalStateException("notice handler");
+        });
+        handler.registerNoticeHandler("host_on", e -> received.add("notice"));
+
+        eventManager.publish(new IRCMessageEvent(PRIVMSG, Collections.emptyMap(), Collections.emptyMap(), null));
+        eventManager.publish(new IRCMessageEvent(HOST_ON, Collections.emptyMap(), Collections.emptyMap(), null));
+
+        assertEquals(Arrays.asList("command", "notice"), received);
+        assertEquals(Arrays.asList("ChannelMessageEvent", "ChannelNoticeEvent", "HostOnEvent"), published);
+    }
+
+    private static Map<String, Integer> counts(List<String> names) {
+        Map<String, Integer> counts = new TreeMap<>();
+        names.forEach(name -> counts.merge(name, 1, Integer::sum));
+        return counts;
+    }
+
+    private static List<String> readCorpus() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(IRCEventHandlerTest.class.getResourceAsStream("/irc-corpus.txt"), StandardCharsets.UTF_8))) {
+            return reader.lines().filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.github.twitch4j.chat.events.channel;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCMessageEventTest {
+
+    private static final Pattern LEGACY_PATTERN = Pattern.compile("^(?:@(?<tags>.+?) )?(?<clientName>.+?)(?: (?<command>[A-Z0-9]+) )(?:#(?<channel>.*?) ?)?(?<payload>[:\\-\\+](?<message>.+))?$");
+
+    private static final Pattern LEGACY_WHISPER_PATTERN = Pattern.compile("^(?:@(?<tags>.+?) )?:(?<clientName>.+?)!.+?(?: (?<command>[A-Z0-9]+) )(?:(?<channel>.*?) ?)??(?<payload>[:\\-\\+](?<message>.+))$");
+
+    private static final Pattern LEGACY_CLIENT_PATTERN = Pattern.compile("^:(.*?)!(.*?)@(.*?).tmi.twitch.tv$");
+
+    @Test
+    @DisplayName("Parsing matches the former regular expressions on the captured corpus")
+    public void parseCorpus() throws IOException {
+        for (String line : readCorpus()) {
+            IRCMessageEvent event = new IRCMessageEvent(line, Collections.emptyMap(), Collections.emptyMap(), null);
+
+            Matcher matcher = LEGACY_PATTERN.matcher(line);
+            if (!matcher.matches()) {
+                matcher = LEGACY_WHISPER_PATTERN.matcher(line);
+                if (!matcher.matches()) {
+                    assertFalse(event.isValid(), line);
+                    continue;
+                }
+            }
+
+            assertTrue(event.isValid(), line);
+            assertEquals(legacyTags(matcher.group("tags")), event.getTags(), line);
+            assertEquals(legacyTags(matcher.group("tags")), event.getRawTags(), line);
+            assertEquals(legacyClientName(matcher.group("clientName")), event.getClientName(), line);
+            assertEquals(matcher.group("command"), event.getCommandType(), line);
+            assertEquals(Optional.ofNullable(matcher.group("channel")), event.getChannelName(), line);
+            assertEquals(Optional.ofNullable(matcher.group("message")), event.getMessage(), line);
+            assertEquals(Optional.ofNullable(matcher.group("payload")), event.getPayload(), line);
+        }
+    }
+
+    @Test
+    @DisplayName("Whispers with upper case words are not mistaken for other commands")
+    public void parseWhisperWithUpperCaseWords() {
+        IRCMessageEvent event = new IRCMessageEvent("@badges=;color=;display-name=Whisperer;emotes=;message-id=8;thread-id=1_2;turbo=0;user-id=2;user-type= :whisperer!whisperer@whisperer.tmi.twitch.tv WHISPER bot :check this NOW :)", Collections.emptyMap(), Collections.emptyMap(), null);
+
+        assertEquals("WHISPER", event.getCommandType());
+        assertEquals(Optional.of("whisperer"), event.getClientName());
+        assertEquals(Optional.of("bot"), event.getChannelName());
+        assertEquals(Optional.of("check this NOW :)"), event.getMessage());
+    }
+
+    private static List<String> readCorpus() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(IRCMessageEventTest.class.getResourceAsStream("/irc-corpus.txt"), StandardCharsets.UTF_8))) {
+            return reader.lines().filter(StringUtils::isNotEmpty).collect(Collectors.toList());
+        }
+    }
+
+    private static Map<String, String> legacyTags(String raw) {
+        Map<String, String> map = new HashMap<>();
+        if (StringUtils.isBlank(raw)) return map;
+
+        for (String tag : raw.split(";")) {
+            String[] val = tag.split("=");
+            map.put(val[0], val.length > 1 ? val[1] : null);
+        }
+
+        return map;
+    }
+
+    private static Optional<String> legacyClientName(String raw) {
+        if (raw.equals(":tmi.twitch.tv") || raw.equals(":jtv")) {
+            return Optional.empty();
+        }
+
+        Matcher matcher = LEGACY_CLIENT_PATTERN.matcher(raw);
+        return matcher.matches() ? Optional.ofNullable(matcher.group(1)) : Optional.of(raw);
+    }
+
+}
@@ -10,6 +10,7 @@ import java.util.Collections;
 
 import static com.github.twitch4j.chat.flag.FlagParser.parseFlags;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
@@ -109,4 +110,28 @@ public class FlagParserTest {
         );
     }
 
+    @Test
+    @DisplayName("Malformed flags and scores are skipped")
+    public void malformed() {
+        assertEquals(
+            Arrays.asList(
+                AutoModFlag.builder().startIndex(0).endIndex(4).score(FlagType.PROFANITY, 6).build(),
+                AutoModFlag.builder().startIndex(10).endIndex(12).build()
+            ),
+            parseFlags("0-4:X.3/P.6/A.x/S,4:P.6,1-2-3:P.6,a-b:P.6,,10-12:I.")
+        );
+    }
+
+    @Test
+    @DisplayName("Scores can be read without boxing")
+    public void scores() {
+        AutoModFlag flag = parseFlags("0-2:A.0/P.6").get(0);
+        assertEquals(0, flag.getScore(FlagType.AGGRESSIVE));
+        assertEquals(6, flag.getScore(FlagType.PROFANITY));
+        assertEquals(-1, flag.getScore(FlagType.SEXUAL));
+        assertEquals(2, flag.getScores().size());
+        assertEquals(6, flag.getScores().get(FlagType.PROFANITY));
+        assertFalse(flag.getScores().containsKey(FlagType.SEXUAL));
+    }
+
 }
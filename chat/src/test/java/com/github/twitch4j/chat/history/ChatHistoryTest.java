@@ -0,0 +1,64 @@
+package com.github.twitch4j.chat.history;
+
+import com.github.twitch4j.chat.events.channel.ChannelMessageEvent;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import com.github.twitch4j.common.events.domain.EventChannel;
+import com.github.twitch4j.common.events.domain.EventUser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ChatHistoryTest {
+
+    @Test
+    @DisplayName("Messages are found by id and by user until they are overwritten")
+    public void lookups() {
+        ChatHistory history = new ChatHistory(4);
+        history.onMessage(message("m1", "1", "a"));
+        history.onMessage(message("m2", "2", "b"));
+        history.onMessage(message("m3", "1", "c"));
+        history.onMessage(message("m4", "1", "d"));
+
+        assertEquals("b", history.getMessage("100", "m2").get().getMessage());
+        assertEquals(texts("d", "c", "a"), texts(history.getRecentMessages("100", "1", 10)));
+        assertEquals(texts("d", "c"), texts(history.getRecentMessages("100", "1", 2)));
+        assertEquals(texts("d", "c", "b", "a"), texts(history.getRecentMessages("100", 10)));
+
+        // overwrites m1 and m2
+        history.onMessage(message("m5", "3", "e"));
+        history.onMessage(message("m6", "3", "f"));
+
+        assertEquals(4, history.size("100"));
+        assertFalse(history.getMessage("100", "m1").isPresent());
+        assertFalse(history.getMessage("100", "m2").isPresent());
+        assertTrue(history.getMessage("100", "m6").isPresent());
+        assertEquals(texts("d", "c"), texts(history.getRecentMessages("100", "1", 10)));
+        assertTrue(history.getRecentMessages("100", "2", 10).isEmpty());
+        assertEquals(texts("f", "e", "d"), texts(history.getRecentMessages("100", 3)));
+        assertTrue(history.getRecentMessages("200", 3).isEmpty());
+    }
+
+    private static ChannelMessageEvent message(String messageId, String userId, String text) {
+        IRCMessageEvent event = new IRCMessageEvent("@id=" + messageId + ";room-id=100;user-id=" + userId + " :user" + userId + "!user" + userId + "@user" + userId + ".tmi.twitch.tv PRIVMSG #channel :" + text, Collections.emptyMap(), Collections.emptyMap(), null);
+        return new ChannelMessageEvent(new EventChannel("100", "channel"), event, new EventUser(userId, "user" + userId), text, Collections.emptySet());
+    }
+
+    private static List<String> texts(String... texts) {
+        return Arrays.asList(texts);
+    }
+
+    private static List<String> texts(List<ChannelMessageEvent> messages) {
+        return messages.stream().map(ChannelMessageEvent::getMessage).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,55 @@
+package com.github.twitch4j.chat.metrics;
+
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class SimpleChatMetricsTest {
+
+    @Test
+    @DisplayName("Counters are kept per command and lane")
+    public void counters() {
+        SimpleChatMetrics metrics = new SimpleChatMetrics();
+        metrics.onMessageReceived("PRIVMSG");
+        metrics.onMessageReceived("PRIVMSG");
+        metrics.onMessageReceived("USERNOTICE");
+        metrics.onMessageSent("JOIN");
+        metrics.onCommandDropped(CommandPriority.BULK, EnqueueStatus.REJECTED);
+        metrics.onReconnect();
+
+        assertEquals(2L, metrics.getReceivedCount("PRIVMSG"));
+        assertEquals(1L, metrics.getReceivedCounts().get("USERNOTICE"));
+        assertEquals(0L, metrics.getReceivedCount("CLEARCHAT"));
+        assertEquals(1L, metrics.getSentCount("JOIN"));
+        assertEquals(1L, metrics.getDroppedCount(CommandPriority.BULK));
+        assertEquals(0L, metrics.getDroppedCount(CommandPriority.MODERATION));
+        assertEquals(1L, metrics.getReconnectCount());
+        assertEquals(-1L, metrics.getAvailableMessageTokens());
+        assertEquals(0L, metrics.getCommandQueueSize());
+    }
+
+    @Test
+    @DisplayName("Histogram percentiles are bounded by the power of two buckets")
+    public void histogram() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(100L, histogram.getCount());
+        assertEquals(100_000L, histogram.getMax());
+        assertEquals(50_500.0, histogram.getMean());
+
+        long median = histogram.getPercentile(0.5);
+        assertTrue(median >= 50_000L && median < 100_000L, String.valueOf(median));
+        assertEquals(100_000L, histogram.getPercentile(1.0));
+        assertEquals(0L, new LatencyHistogram().getPercentile(0.99));
+    }
+
+}
@@ -0,0 +1,268 @@
+package com.github.twitch4j.chat.tmi;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A single client connection of the {@link FakeTmiServer}: a minimal RFC 6455 websocket endpoint that speaks the TMI dialect of irc.
+ */
+@Slf4j
+public final class FakeTmiConnection {
+
+    private static final String WEBSOCKET_GUID = "258EAFA5-E914-47DA-95CA-C5AB0DC85B11";
+
+    private final FakeTmiServer server;
+
+    private final Socket socket;
+
+    private final OutputStream out;
+
+    /**
+     * Channels joined by this connection
+     */
+    @Getter
+    private final Set<String> channels = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Login of the connected user, once sent
+     */
+    @Getter
+    private volatile String nick;
+
+    private volatile boolean closed;
+
+    FakeTmiConnection(FakeTmiServer server, Socket socket) throws IOException {
+        this.server = server;
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+    }
+
+    void start() {
+        Thread thread = new Thread(this::run, "fake-tmi-connection-" + socket.getPort());
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Sends a single irc line as text frame
+     *
+     * @param line the line, without line terminator
+     */
+    public void sendLine(String line) {
+        if (closed) return;
+        final byte[] payload = (line + "\r\n").getBytes(StandardCharsets.UTF_8);
+        try {
+            synchronized (out) {
+                out.write(0x81); // FIN + text
+                if (payload.length < 126) {
+                    out.write(payload.length);
+                } else if (payload.length < 65536) {
+                    out.write(126);
+                    out.write(payload.length >>> 8);
+                    out.write(payload.length);
+                } else {
+                    out.write(127);
+                    for (int shift = 56; shift >= 0; shift -= 8) {
+                        out.write((int) ((long) payload.length >>> shift));
+                    }
+                }
+                out.write(payload);
+                out.flush();
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    /**
+     * Closes the connection without a close frame
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        server.onClosed(this);
+    }
+
+    private void run() {
+        try {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            handshake(in);
+
+            final ByteArrayOutputStream message = new ByteArrayOutputStream();
+            while (!closed) {
+                final int b0 = in.readUnsignedByte();
+                final int b1 = in.readUnsignedByte();
+                final int opcode = b0 & 0x0F;
+                long length = b1 & 0x7F;
+                if (length == 126) length = in.readUnsignedShort();
+                else if (length == 127) length = in.readLong();
+
+                final byte[] mask = new byte[4];
+                if ((b1 & 0x80) != 0) in.readFully(mask);
+                final byte[] payload = new byte[(int) length];
+                in.readFully(payload);
+                for (int i = 0; i < payload.length; i++) {
+                    payload[i] ^= mask[i & 3];
+                }
+
+                if (opcode == 0x8) {
+                    // close
+                    synchronized (out) {
+                        out.write(new byte[] { (byte) 0x88, 0 });
+                        out.flush();
+                    }
+                    break;
+                } else if (opcode == 0x9) {
+                    // ping
+                    synchronized (out) {
+                        out.write(0x8A);
+                        out.write(payload.length);
+                        out.write(payload);
+                        out.flush();
+                    }
+                } else if (opcode == 0x0 || opcode == 0x1) {
+                    message.write(payload);
+                    if ((b0 & 0x80) != 0) {
+                        for (String line : new String(message.toByteArray(), StandardCharsets.UTF_8).split("\r?\n")) {
+                            if (!line.isEmpty()) onLine(line);
+                        }
+                        message.reset();
+                    }
+                }
+            }
+        } catch (EOFException ignored) {
+            // client disconnected
+        } catch (IOException e) {
+            if (!closed) log.debug("Fake TMI connection failed", e);
+        } finally {
+            close();
+        }
+    }
+
+    private void handshake(InputStream in) throws IOException {
+        String key = null;
+        String header;
+        while (!(header = readHttpLine(in)).isEmpty()) {
+            final int colon = header.indexOf(':');
+            if (colon > 0 && header.substring(0, colon).trim().equalsIgnoreCase("Sec-WebSocket-Key"))
+                key = header.substring(colon + 1).trim();
+        }
+        if (key == null)
+            throw new IOException("Not a websocket handshake");
+
+        final String accept;
+        try {
+            accept = Base64.getEncoder().encodeToString(MessageDigest.getInstance("SHA-1").digest((key + WEBSOCKET_GUID).getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+
+        synchronized (out) {
+            out.write(("HTTP/1.1 101 Switching Protocols\r\nUpgrade: websocket\r\nConnection: Upgrade\r\nSec-WebSocket-Accept: " + accept + "\r\n\r\n").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+        }
+    }
+
+    private static String readHttpLine(InputStream in) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        int c;
+        while ((c = in.read()) != -1) {
+            if (c == '\n') break;
+            if (c != '\r') sb.append((char) c);
+        }
+        if (c == -1) throw new EOFException();
+        return sb.toString();
+    }
+
+    private void onLine(String raw) {
+        // message tags sent by the client (e.g. client-nonce) are not needed
+        final String line = raw.startsWith("@") && raw.indexOf(' ') > 0 ? raw.substring(raw.indexOf(' ') + 1) : raw;
+        final int space = line.indexOf(' ');
+        final String command = (space < 0 ? line : line.substring(0, space)).toUpperCase(Locale.ROOT);
+        final String params = space < 0 ? "" : line.substring(space + 1);
+
+        switch (command) {
+            case "CAP":
+                if (params.startsWith("REQ :"))
+                    sendLine(":tmi.twitch.tv CAP * ACK :" + params.substring(5));
+                break;
+
+            case "NICK":
+                nick = params.trim().toLowerCase(Locale.ROOT);
+                for (String welcome : new String[] { "001 " + nick + " :Welcome, GLHF!", "002 " + nick + " :Your host is tmi.twitch.tv", "003 " + nick + " :This server is rather new", "004 " + nick + " :-", "375 " + nick + " :-", "372 " + nick + " :You are in a maze of twisty passages, all alike.", "376 " + nick + " :>" }) {
+                    sendLine(":tmi.twitch.tv " + welcome);
+                }
+                sendLine("@badge-info=;badges=;color=;display-name=" + nick + ";emote-sets=0;user-id=1;user-type= :tmi.twitch.tv GLOBALUSERSTATE");
+                break;
+
+            case "JOIN":
+                for (String target : params.split(",")) {
+                    final String channel = target.trim().replaceFirst("^#", "").toLowerCase(Locale.ROOT);
+                    if (channel.isEmpty()) continue;
+                    if (!server.tryJoin(String.valueOf(nick))) {
+                        // twitch silently drops joins over the limit
+                        server.getRejectedJoinCount().incrementAndGet();
+                        continue;
+                    }
+                    channels.add(channel);
+                    server.getJoinCount().incrementAndGet();
+                    sendLine(":" + nick + "!" + nick + "@" + nick + ".tmi.twitch.tv JOIN #" + channel);
+                    sendLine("@badge-info=;badges=;color=;display-name=" + nick + ";emote-sets=0;mod=0;subscriber=0;user-type= :tmi.twitch.tv USERSTATE #" + channel);
+                    sendLine("@emote-only=0;followers-only=-1;r9k=0;rituals=0;room-id=" + FakeTmiServer.roomId(channel) + ";slow=0;subs-only=0 :tmi.twitch.tv ROOMSTATE #" + channel);
+                }
+                break;
+
+            case "PART":
+                for (String target : params.split(",")) {
+                    final String channel = target.trim().replaceFirst("^#", "").toLowerCase(Locale.ROOT);
+                    if (channels.remove(channel))
+                        sendLine(":" + nick + "!" + nick + "@" + nick + ".tmi.twitch.tv PART #" + channel);
+                }
+                break;
+
+            case "PRIVMSG": {
+                final String channel = params.substring(0, Math.max(params.indexOf(' '), 0)).replaceFirst("^#", "");
+                if (server.tryMessage(String.valueOf(nick))) {
+                    server.onMessageAccepted(line);
+                } else {
+                    server.getRejectedMessageCount().incrementAndGet();
+                    sendLine("@msg-id=msg_ratelimit :tmi.twitch.tv NOTICE #" + channel + " :Your message was not sent because you are sending messages too quickly.");
+                }
+                break;
+            }
+
+            case "PONG":
+                server.getPongCount().incrementAndGet();
+                break;
+
+            case "QUIT":
+                close();
+                break;
+
+            default:
+                // PASS, CAP END and unknown commands are ignored
+                break;
+        }
+    }
+
+}
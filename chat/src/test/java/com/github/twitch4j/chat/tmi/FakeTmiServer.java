@@ -0,0 +1,301 @@
+package com.github.twitch4j.chat.tmi;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Local stand-in for the Twitch chat (TMI) websocket server, for offline reconnect, rate limit and throughput tests.
+ * <p>
+ * The server answers the capability negotiation and login, tracks channel memberships per connection,
+ * enforces Twitch-like JOIN and PRIVMSG limits per user, generates a configurable firehose of channel traffic,
+ * and injects PING, RECONNECT and disconnect faults.
+ * <pre>{@code
+ * try (FakeTmiServer server = FakeTmiServer.start()) {
+ *     TwitchChat chat = TwitchChatBuilder.builder().withBaseUrl(server.getBaseUrl()).build();
+ *     ...
+ * }
+ * }</pre>
+ */
+@Slf4j
+public final class FakeTmiServer implements AutoCloseable {
+
+    /**
+     * Joins per user within {@link #JOIN_WINDOW_NANOS}
+     */
+    public static final int JOIN_LIMIT = 20;
+    static final long JOIN_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(10L);
+
+    /**
+     * Messages per user within {@link #MESSAGE_WINDOW_NANOS}
+     */
+    public static final int MESSAGE_LIMIT = 20;
+    static final long MESSAGE_WINDOW_NANOS = TimeUnit.SECONDS.toNanos(30L);
+
+    private final ServerSocket serverSocket;
+
+    private final Thread acceptThread;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "fake-tmi-firehose");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final List<FakeTmiConnection> connections = new CopyOnWriteArrayList<>();
+
+    private final Map<String, SlidingWindowLimiter> joinLimiters = new ConcurrentHashMap<>();
+
+    private final Map<String, SlidingWindowLimiter> messageLimiters = new ConcurrentHashMap<>();
+
+    private final List<String> receivedMessages = new CopyOnWriteArrayList<>();
+
+    private volatile ScheduledFuture<?> firehose;
+
+    private volatile boolean closed;
+
+    /**
+     * Number of accepted websocket connections, including reconnects
+     */
+    @Getter
+    private final AtomicLong connectionCount = new AtomicLong();
+
+    /**
+     * Number of channels that were joined
+     */
+    @Getter
+    private final AtomicLong joinCount = new AtomicLong();
+
+    /**
+     * Number of channel joins that were dropped for exceeding the join limit
+     */
+    @Getter
+    private final AtomicLong rejectedJoinCount = new AtomicLong();
+
+    /**
+     * Number of messages that were rejected for exceeding the message limit
+     */
+    @Getter
+    private final AtomicLong rejectedMessageCount = new AtomicLong();
+
+    /**
+     * Number of PONG replies received
+     */
+    @Getter
+    private final AtomicLong pongCount = new AtomicLong();
+
+    /**
+     * Number of lines sent by the firehose
+     */
+    @Getter
+    private final AtomicLong firehoseCount = new AtomicLong();
+
+    private FakeTmiServer() throws IOException {
+        this.serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        this.acceptThread = new Thread(this::acceptLoop, "fake-tmi-accept");
+        this.acceptThread.setDaemon(true);
+        this.acceptThread.start();
+    }
+
+    /**
+     * Starts a server on a random local port
+     *
+     * @return the server
+     * @throws IOException if the server socket could not be bound
+     */
+    public static FakeTmiServer start() throws IOException {
+        return new FakeTmiServer();
+    }
+
+    /**
+     * @return the url to pass to {@code TwitchChatBuilder#withBaseUrl}
+     */
+    public String getBaseUrl() {
+        return "ws://127.0.0.1:" + serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the currently open connections
+     */
+    public List<FakeTmiConnection> getConnections() {
+        return new ArrayList<>(connections);
+    }
+
+    /**
+     * @return the PRIVMSG lines that were accepted from the clients, in order
+     */
+    public List<String> getReceivedMessages() {
+        return receivedMessages;
+    }
+
+    /**
+     * Waits until the open connections have joined a number of channels in total
+     *
+     * @param channels the number of channels
+     * @param timeout  the maximum time to wait, in milliseconds
+     * @return whether the channels were joined in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitJoinedChannels(int channels, long timeout) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + timeout;
+        while (System.currentTimeMillis() < deadline) {
+            int joined = 0;
+            for (FakeTmiConnection connection : connections) {
+                joined += connection.getChannels().size();
+            }
+            if (joined >= channels) return true;
+            Thread.sleep(10L);
+        }
+        return false;
+    }
+
+    /**
+     * Starts (or replaces) the firehose, which sends generated traffic into the joined channels
+     *
+     * @param config the traffic to generate
+     */
+    public void startFirehose(FirehoseConfig config) {
+        stopFirehose();
+        final long intervalMillis = 10L;
+        final double perTick = config.getMessagesPerSecond() * intervalMillis / 1000.0;
+        final double[] carry = { 0.0 };
+        firehose = scheduler.scheduleAtFixedRate(() -> {
+            carry[0] += perTick;
+            final int n = (int) carry[0];
+            carry[0] -= n;
+            for (int i = 0; i < n; i++) {
+                sendGenerated(config);
+            }
+        }, 0L, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the firehose
+     */
+    public void stopFirehose() {
+        final ScheduledFuture<?> current = firehose;
+        if (current != null) current.cancel(false);
+        firehose = null;
+    }
+
+    /**
+     * Sends a PING to all connections
+     */
+    public void sendPing() {
+        for (FakeTmiConnection connection : connections) {
+            connection.sendLine("PING :tmi.twitch.tv");
+        }
+    }
+
+    /**
+     * Sends a RECONNECT to all connections and then closes them, as twitch does before a server restart
+     */
+    public void sendReconnect() {
+        for (FakeTmiConnection connection : connections) {
+            connection.sendLine(":tmi.twitch.tv RECONNECT");
+            connection.close();
+        }
+    }
+
+    /**
+     * Drops all connections without a close frame
+     */
+    public void dropConnections() {
+        for (FakeTmiConnection connection : connections) {
+            connection.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        stopFirehose();
+        scheduler.shutdownNow();
+        try {
+            serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        dropConnections();
+    }
+
+    boolean tryJoin(String user) {
+        return joinLimiters.computeIfAbsent(user, u -> new SlidingWindowLimiter(JOIN_LIMIT, JOIN_WINDOW_NANOS)).tryAcquire();
+    }
+
+    boolean tryMessage(String user) {
+        return messageLimiters.computeIfAbsent(user, u -> new SlidingWindowLimiter(MESSAGE_LIMIT, MESSAGE_WINDOW_NANOS)).tryAcquire();
+    }
+
+    void onMessageAccepted(String line) {
+        receivedMessages.add(line);
+    }
+
+    void onClosed(FakeTmiConnection connection) {
+        connections.remove(connection);
+    }
+
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                FakeTmiConnection connection = new FakeTmiConnection(this, socket);
+                connections.add(connection);
+                connectionCount.incrementAndGet();
+                connection.start();
+            } catch (IOException e) {
+                if (!closed) log.warn("Fake TMI server failed to accept a connection", e);
+            }
+        }
+    }
+
+    private void sendGenerated(FirehoseConfig config) {
+        if (connections.isEmpty()) return;
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        final FakeTmiConnection connection = connections.get(random.nextInt(connections.size()));
+        final List<String> channels = new ArrayList<>(connection.getChannels());
+        if (channels.isEmpty()) return;
+
+        final String channel = channels.get(random.nextInt(channels.size()));
+        final int chatter = random.nextInt(config.getChatters());
+        final String login = "chatter" + chatter;
+        final String badges = config.getBadgeMixes().get(chatter % config.getBadgeMixes().size());
+        final String common = "badge-info=;badges=" + badges + ";color=#1E90FF;display-name=Chatter" + chatter + ";emotes=;flags=;id=" + new UUID(random.nextLong(), random.nextLong())
+            + ";mod=" + (badges.contains("moderator") ? 1 : 0) + ";room-id=" + roomId(channel) + ";subscriber=" + (badges.contains("subscriber") ? 1 : 0)
+            + ";tmi-sent-ts=" + System.currentTimeMillis() + ";turbo=0;user-id=" + (100000 + chatter) + ";user-type=";
+
+        final double roll = random.nextDouble();
+        final String line;
+        if (roll < config.getUsernoticeRatio()) {
+            line = "@" + common + ";login=" + login + ";msg-id=resub;msg-param-cumulative-months=7;msg-param-should-share-streak=0;msg-param-sub-plan-name=Channel\\sSubscription;msg-param-sub-plan=1000;system-msg=Chatter" + chatter + "\\ssubscribed\\sat\\sTier\\s1.\\sThey've\\ssubscribed\\sfor\\s7\\smonths!"
+                + " :tmi.twitch.tv USERNOTICE #" + channel + " :still here";
+        } else if (roll < config.getUsernoticeRatio() + config.getBitsRatio()) {
+            line = "@bits=100;" + common + " :" + login + "!" + login + "@" + login + ".tmi.twitch.tv PRIVMSG #" + channel + " :cheer100 nice stream";
+        } else {
+            line = "@" + common + " :" + login + "!" + login + "@" + login + ".tmi.twitch.tv PRIVMSG #" + channel + " :message " + random.nextInt(1000000);
+        }
+
+        connection.sendLine(line);
+        firehoseCount.incrementAndGet();
+    }
+
+    static String roomId(String channel) {
+        return String.valueOf(10000 + (channel.hashCode() & 0xFFFFF));
+    }
+
+}
@@ -0,0 +1,100 @@
+package com.github.twitch4j.chat.tmi;
+
+import com.github.twitch4j.chat.TwitchChat;
+import com.github.twitch4j.chat.TwitchChatBuilder;
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@Tag("integration")
+public class FakeTmiServerTest {
+
+    private FakeTmiServer server;
+
+    private TwitchChat chat;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        server = FakeTmiServer.start();
+        chat = TwitchChatBuilder.builder().withBaseUrl(server.getBaseUrl()).build();
+        for (int i = 0; i < 5; i++) {
+            chat.joinChannel("channel" + i);
+        }
+        assertTrue(server.awaitJoinedChannels(5, 5000L), "channels were not joined");
+    }
+
+    @AfterEach
+    public void tearDown() {
+        chat.close();
+        server.close();
+    }
+
+    @Test
+    @DisplayName("Firehose throughput, measured in published events per second")
+    public void throughput() throws Exception {
+        final AtomicLong events = new AtomicLong();
+        chat.getEventManager().onEvent(IRCMessageEvent.class, e -> {
+            if ("PRIVMSG".equals(e.getCommandType()) || "USERNOTICE".equals(e.getCommandType())) events.incrementAndGet();
+        });
+
+        final long start = System.nanoTime();
+        server.startFirehose(FirehoseConfig.builder().messagesPerSecond(5000).build());
+        Thread.sleep(2000L);
+        server.stopFirehose();
+
+        final long sent = server.getFirehoseCount().get();
+        final long deadline = System.currentTimeMillis() + 5000L;
+        while (events.get() < sent && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        final double seconds = (System.nanoTime() - start) / 1e9;
+
+        log.info("Published {} of {} firehose messages at {} events/sec", events.get(), sent, Math.round(events.get() / seconds));
+        assertEquals(sent, events.get());
+    }
+
+    @Test
+    @DisplayName("Channels are rejoined after a RECONNECT")
+    public void reconnect() throws Exception {
+        final long start = System.nanoTime();
+        server.sendReconnect();
+        assertTrue(server.awaitJoinedChannels(5, 10000L), "channels were not rejoined");
+
+        log.info("Recovered from RECONNECT in {} ms", (System.nanoTime() - start) / 1_000_000L);
+        assertEquals(2L, server.getConnectionCount().get());
+    }
+
+    @Test
+    @DisplayName("PING is answered")
+    public void ping() throws Exception {
+        server.sendPing();
+        final long deadline = System.currentTimeMillis() + 2000L;
+        while (server.getPongCount().get() == 0L && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+        assertEquals(1L, server.getPongCount().get());
+    }
+
+    @Test
+    @DisplayName("The client does not exceed the server-side message limit")
+    public void messageRateLimit() throws Exception {
+        for (int i = 0; i < FakeTmiServer.MESSAGE_LIMIT + 10; i++) {
+            chat.sendMessage("channel" + (i % 5), "message " + i);
+        }
+        Thread.sleep(3000L);
+
+        assertEquals(0L, server.getRejectedMessageCount().get());
+        assertTrue(server.getReceivedMessages().size() <= FakeTmiServer.MESSAGE_LIMIT);
+    }
+
+}
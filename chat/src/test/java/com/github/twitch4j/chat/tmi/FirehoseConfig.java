@@ -0,0 +1,58 @@
+package com.github.twitch4j.chat.tmi;
+
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Traffic generated by {@link FakeTmiServer#startFirehose(FirehoseConfig)} into the joined channels.
+ */
+@Value
+@Builder
+public class FirehoseConfig {
+
+    /**
+     * Messages per second, over all connections and channels
+     */
+    @Builder.Default
+    int messagesPerSecond = 1000;
+
+    /**
+     * Share of USERNOTICE (resub) messages
+     */
+    @Builder.Default
+    double usernoticeRatio = 0.05;
+
+    /**
+     * Share of PRIVMSG messages with bits
+     */
+    @Builder.Default
+    double bitsRatio = 0.02;
+
+    /**
+     * Number of distinct chatters
+     */
+    @Builder.Default
+    int chatters = 5000;
+
+    /**
+     * Badge tag values picked at random for each chatter
+     */
+    @Singular
+    List<String> badgeMixes;
+
+    /**
+     * @return the badge mixes, or a default mix of common badges
+     */
+    public List<String> getBadgeMixes() {
+        return badgeMixes.isEmpty() ? DEFAULT_BADGES : badgeMixes;
+    }
+
+    private static final List<String> DEFAULT_BADGES = Arrays.asList(
+        "", "", "", "premium/1", "subscriber/0", "subscriber/12,premium/1", "subscriber/3012,sub-gifter/5", "vip/1,subscriber/6", "moderator/1,subscriber/24", "glhf-pledge/1"
+    );
+
+}
@@ -0,0 +1,31 @@
+package com.github.twitch4j.chat.tmi;
+
+import java.util.ArrayDeque;
+
+/**
+ * Server-side rate limit: at most {@code limit} events within any window.
+ */
+final class SlidingWindowLimiter {
+
+    private final int limit;
+
+    private final long windowNanos;
+
+    private final ArrayDeque<Long> events = new ArrayDeque<>();
+
+    SlidingWindowLimiter(int limit, long windowNanos) {
+        this.limit = limit;
+        this.windowNanos = windowNanos;
+    }
+
+    synchronized boolean tryAcquire() {
+        final long now = System.nanoTime();
+        while (!events.isEmpty() && now - events.peekFirst() >= windowNanos) {
+            events.pollFirst();
+        }
+        if (events.size() >= limit) return false;
+        events.addLast(now);
+        return true;
+    }
+
+}
@@ -0,0 +1,67 @@
+package com.github.twitch4j.chat.util;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ChatRateLimiterTest {
+
+    private static Bucket bucket(long capacity) {
+        return Bucket4j.builder().addLimit(Bandwidth.simple(capacity, Duration.ofHours(1))).build();
+    }
+
+    @Test
+    @DisplayName("A throttled channel does not consume the tokens of the other buckets")
+    public void perChannelLimit() {
+        Bucket account = bucket(100);
+        Bucket unprivileged = bucket(20);
+        ChatRateLimiter limiter = new ChatRateLimiter(account, unprivileged, Bandwidth.simple(1, Duration.ofHours(1)));
+
+        assertEquals(0L, limiter.tryConsume("a"));
+        assertTrue(limiter.tryConsume("a") > 0L);
+        assertEquals(0L, limiter.tryConsume("b"));
+
+        assertEquals(98L, account.getAvailableTokens());
+        assertEquals(18L, unprivileged.getAvailableTokens());
+    }
+
+    @Test
+    @DisplayName("Privileged channels are only limited by the account bucket")
+    public void privilegedChannel() {
+        Bucket account = bucket(3);
+        Bucket unprivileged = bucket(1);
+        ChatRateLimiter limiter = new ChatRateLimiter(account, unprivileged, Bandwidth.simple(1, Duration.ofHours(1)));
+
+        assertEquals(0L, limiter.tryConsume("a"));
+        assertTrue(limiter.tryConsume("b") > 0L);
+
+        limiter.setPrivileged("b", true);
+        assertEquals(0L, limiter.tryConsume("b"));
+        assertEquals(0L, limiter.tryConsume("b"));
+        assertTrue(limiter.tryConsume("b") > 0L);
+
+        limiter.setPrivileged("b", false);
+        assertTrue(limiter.tryConsume("b") > 0L);
+        assertEquals(0L, unprivileged.getAvailableTokens());
+    }
+
+    @Test
+    @DisplayName("The target channel is extracted from outgoing commands")
+    public void channel() {
+        assertEquals("channel", ChatRateLimiter.getChannel("PRIVMSG #Channel :hello"));
+        assertEquals("channel", ChatRateLimiter.getChannel("@client-nonce=abc;reply-parent-msg-id=def PRIVMSG #channel :hi"));
+        assertNull(ChatRateLimiter.getChannel("JOIN #channel"));
+        assertNull(ChatRateLimiter.getChannel("@tags"));
+    }
+
+}
@@ -0,0 +1,47 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Tag("unittest")
+public class CommandMatcherTest {
+
+    @Test
+    @DisplayName("Any command after a prefix matches when no command names are registered")
+    public void anyCommand() {
+        CommandMatcher matcher = new CommandMatcher(Arrays.asList("!", "?"), Collections.emptyList());
+
+        CommandMatcher.Match match = matcher.match("!so  twitch4j now");
+        assertEquals("!", match.getPrefix());
+        assertEquals("so", match.getCommandName());
+        assertEquals("so  twitch4j now", match.getCommand());
+        assertEquals(Arrays.asList("twitch4j", "now"), match.getArguments());
+
+        assertEquals("", matcher.match("?").getCommandName());
+        assertNull(matcher.match("hello !so"));
+    }
+
+    @Test
+    @DisplayName("Only registered command names match, preferring the longest prefix")
+    public void registeredCommands() {
+        CommandMatcher matcher = new CommandMatcher(Arrays.asList("!", "!!"), Arrays.asList("Uptime", "up"));
+
+        CommandMatcher.Match match = matcher.match("!!UPTIME");
+        assertEquals("!!", match.getPrefix());
+        assertEquals("Uptime", match.getCommandName());
+        assertEquals(Collections.emptyList(), match.getArguments());
+
+        assertEquals("up", matcher.match("!up 1").getCommandName());
+        assertNull(matcher.match("!upt"));
+        assertNull(matcher.match("!uptimes"));
+        assertNull(matcher.match("!lurk"));
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Tag("unittest")
+public class IRCFrameSplitterTest {
+
+    private static List<String> split(String frame) {
+        List<String> lines = new ArrayList<>();
+        IRCFrameSplitter.forEachLine(frame, lines::add);
+        return lines;
+    }
+
+    @Test
+    @DisplayName("Frames are split on any line terminator and empty lines are skipped")
+    public void split() {
+        assertEquals(Arrays.asList("a", "b", "c", "d"), split("a\r\nb\n\rc\r\r\nd\r\n"));
+        assertEquals(Collections.singletonList("PING :tmi.twitch.tv"), split("\r\nPING :tmi.twitch.tv"));
+        assertEquals(Collections.emptyList(), split("\r\n"));
+        assertEquals(Collections.emptyList(), split(""));
+    }
+
+    @Test
+    @DisplayName("A frame without line terminator is not copied")
+    public void singleLine() {
+        String frame = ":tmi.twitch.tv PONG tmi.twitch.tv :tmi.twitch.tv";
+        assertSame(frame, split(frame).get(0));
+    }
+
+}
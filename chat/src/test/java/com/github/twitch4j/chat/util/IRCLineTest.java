@@ -0,0 +1,55 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCLineTest {
+
+    @Test
+    @DisplayName("Tokenize a line with tags, prefix, middle and trailing parameters")
+    public void tokenizeFull() {
+        IRCLine line = IRCLine.tokenize("@badges=;color=#FF0000 :user!user@user.tmi.twitch.tv PRIVMSG #channel :hello : world");
+
+        assertTrue(line.hasCommand());
+        assertEquals("badges=;color=#FF0000", line.getTags());
+        assertEquals("user!user@user.tmi.twitch.tv", line.getPrefix());
+        assertEquals("PRIVMSG", line.getCommand());
+        assertTrue(line.isCommand("PRIVMSG"));
+        assertFalse(line.isCommand("PRIVMS"));
+        assertEquals("#channel", line.getMiddleParam(0));
+        assertNull(line.getMiddleParam(1));
+        assertEquals("hello : world", line.getTrailing());
+    }
+
+    @Test
+    @DisplayName("Tokenize lines without tags, prefix or parameters")
+    public void tokenizePartial() {
+        IRCLine ping = IRCLine.tokenize("PING :tmi.twitch.tv");
+        assertFalse(ping.hasTags());
+        assertFalse(ping.hasPrefix());
+        assertEquals("PING", ping.getCommand());
+        assertEquals("tmi.twitch.tv", ping.getTrailing());
+
+        IRCLine reconnect = IRCLine.tokenize(":tmi.twitch.tv RECONNECT");
+        assertEquals("RECONNECT", reconnect.getCommand());
+        assertFalse(reconnect.hasParams());
+        assertNull(reconnect.getTrailing());
+
+        IRCLine mode = IRCLine.tokenize(":jtv MODE #channel +o user");
+        assertEquals("#channel", mode.getMiddleParam(0));
+        assertEquals("+o", mode.getMiddleParam(1));
+        assertEquals("user", mode.getMiddleParam(2));
+        assertFalse(mode.hasTrailing());
+
+        assertFalse(IRCLine.tokenize("@tags-without-anything-else").hasCommand());
+        assertFalse(IRCLine.tokenize("").hasCommand());
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.common.util.EscapeUtils;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IRCTagsTest {
+
+    private static final String LINE = "@badges=moderator/1;color=;display-name=Some\\sOne;flag;reply-parent-msg-body=1+1=2;user-id=123 :some!some@some.tmi.twitch.tv PRIVMSG #channel :hi";
+
+    private static IRCTags tags() {
+        IRCLine line = IRCLine.tokenize(LINE);
+        return new IRCTags(LINE, line.getTagsStart(), line.getTagsEnd());
+    }
+
+    @Test
+    @DisplayName("Lookups return the escaped values")
+    public void lookup() {
+        IRCTags tags = tags();
+
+        assertEquals("moderator/1", tags.get("badges"));
+        assertEquals("Some\\sOne", tags.get("display-name"));
+        assertEquals("1+1=2", tags.get("reply-parent-msg-body"));
+        assertEquals("123", tags.get("user-id"));
+        assertTrue(tags.containsKey("color"));
+        assertNull(tags.get("color"));
+        assertTrue(tags.containsKey("flag"));
+        assertNull(tags.get("flag"));
+        assertFalse(tags.containsKey("user"));
+        assertNull(tags.get("user"));
+        assertEquals(6, tags.size());
+    }
+
+    @Test
+    @DisplayName("Unescaped values are cached")
+    public void unescaped() {
+        IRCTags tags = tags();
+
+        assertEquals("Some One", tags.getUnescaped("display-name"));
+        assertSame(tags.getUnescaped("display-name"), tags.getUnescaped("display-name"));
+        assertNull(tags.getUnescaped("color"));
+        assertNull(tags.getUnescaped("missing"));
+    }
+
+    @Test
+    @DisplayName("Tag values are unescaped in a single pass, also from a region of the raw line")
+    public void unescape() {
+        String plain = "moderator/1";
+        assertSame(plain, EscapeUtils.unescapeTagValue(plain));
+        assertNull(EscapeUtils.unescapeTagValue(null));
+        assertEquals("a;b c\\d\r\ne", EscapeUtils.unescapeTagValue("a\\:b\\sc\\\\d\\r\\ne"));
+        assertEquals("\\:", EscapeUtils.unescapeTagValue("\\\\:"));
+        assertEquals("\\x\\", EscapeUtils.unescapeTagValue("\\x\\"));
+        assertEquals("Some One", EscapeUtils.unescapeTagValue(LINE, LINE.indexOf("Some"), LINE.indexOf(";flag")));
+        assertEquals("Some\\", EscapeUtils.unescapeTagValue(LINE, LINE.indexOf("Some"), LINE.indexOf("Some") + 5));
+
+        for (String unescaped : new String[] { "", "x", "a;b", "a b", "a\\b", "\r\n", "Hello\\sWorld\\:" }) {
+            assertEquals(unescaped, EscapeUtils.unescapeTagValue(EscapeUtils.escapeTagValue(unescaped)));
+        }
+    }
+
+    @Test
+    @DisplayName("The view is equal to an eagerly parsed map and cannot be modified")
+    public void equalityAndReadOnly() {
+        Map<String, String> expected = new HashMap<>();
+        expected.put("badges", "moderator/1");
+        expected.put("color", null);
+        expected.put("display-name", "Some\\sOne");
+        expected.put("flag", null);
+        expected.put("reply-parent-msg-body", "1+1=2");
+        expected.put("user-id", "123");
+
+        IRCTags tags = tags();
+        assertEquals(expected, tags);
+        assertEquals(expected.hashCode(), tags.hashCode());
+        assertThrows(UnsupportedOperationException.class, () -> tags.put("user-id", "456"));
+        assertThrows(UnsupportedOperationException.class, tags::clear);
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IngressFiltersTest {
+
+    private static final IRCLine CHEER = IRCLine.tokenize("@badges=;bits=100;emotes= :user!user@user.tmi.twitch.tv PRIVMSG #Twitch4J :cheer100");
+    private static final IRCLine MESSAGE = IRCLine.tokenize("@badges=;bits-balance=5;emotes= :user!user@user.tmi.twitch.tv PRIVMSG #twitch4j :hi");
+    private static final IRCLine NOTICE = IRCLine.tokenize("@msg-id=raid :tmi.twitch.tv USERNOTICE #twitchdev");
+
+    @Test
+    @DisplayName("Lines are matched by command, channel and tag presence")
+    public void filters() {
+        assertTrue(IngressFilters.commands("usernotice").accept(NOTICE));
+        assertFalse(IngressFilters.commands("USERNOTICE").accept(MESSAGE));
+
+        IngressFilter channels = IngressFilters.channels(Arrays.asList("twitch4j", "other"));
+        assertTrue(channels.accept(CHEER));
+        assertFalse(channels.accept(NOTICE));
+
+        IngressFilter bits = IngressFilters.hasTag("bits");
+        assertTrue(bits.accept(CHEER));
+        assertFalse(bits.accept(MESSAGE));
+        assertFalse(IngressFilters.hasTag("emotes").accept(CHEER));
+
+        IngressFilter rejection = IngressFilters.tagValueStartsWith("msg-id", "msg_");
+        assertTrue(rejection.accept(IRCLine.tokenize("@msg-id=msg_ratelimit :tmi.twitch.tv NOTICE #twitch4j :slow down")));
+        assertFalse(rejection.accept(IRCLine.tokenize("@msg-id=msg :tmi.twitch.tv NOTICE #twitch4j :short")));
+        assertTrue(rejection.accept(IRCLine.tokenize("@badges=;msg-id=msg_ :tmi.twitch.tv NOTICE #twitch4j :prefix only")));
+        assertFalse(rejection.accept(NOTICE));
+        assertFalse(rejection.accept(CHEER));
+    }
+
+    @Test
+    @DisplayName("Filters are combined")
+    public void combined() {
+        IngressFilter filter = IngressFilters.commands("USERNOTICE").and(IngressFilters.channels(Arrays.asList("twitchdev")))
+            .or(IngressFilters.commands("PRIVMSG").and(IngressFilters.hasTag("bits")));
+
+        assertTrue(filter.accept(NOTICE));
+        assertTrue(filter.accept(CHEER));
+        assertFalse(filter.accept(MESSAGE));
+        assertTrue(filter.negate().accept(MESSAGE));
+    }
+
+}
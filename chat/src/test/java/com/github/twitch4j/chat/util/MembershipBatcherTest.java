@@ -0,0 +1,134 @@
+package com.github.twitch4j.chat.util;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class MembershipBatcherTest {
+
+    private static final int MAX_LINE_LENGTH = 510;
+
+    private static Bucket bucket(long capacity) {
+        return Bucket4j.builder().addLimit(Bandwidth.simple(capacity, Duration.ofHours(1))).build();
+    }
+
+    private static String name(char c, int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    @Test
+    @DisplayName("Lines are split at 510 characters and channel names that never fit are dropped")
+    public void splitLines() {
+        MembershipBatcher batcher = new MembershipBatcher(bucket(1000), MAX_LINE_LENGTH);
+        batcher.queue(name('x', MAX_LINE_LENGTH), true);
+        Set<String> expected = new HashSet<>();
+        for (int i = 0; i < 300; i++) {
+            String channel = String.format("channel%03d", i);
+            batcher.queue(channel, true);
+            expected.add(channel);
+        }
+
+        Set<String> joined = new HashSet<>();
+        int lineCount = 0;
+        while (!batcher.isEmpty()) {
+            List<String> lines = batcher.nextBatch();
+            assertEquals(1, lines.size());
+            String line = lines.get(0);
+            assertTrue(line.startsWith("JOIN #"));
+            assertTrue(line.length() <= MAX_LINE_LENGTH, line);
+            for (String channel : line.substring(5).split(",")) {
+                assertTrue(joined.add(channel.substring(1)));
+            }
+            lineCount++;
+        }
+
+        assertEquals(expected, joined);
+        assertEquals(8, lineCount); // up to 42 channels per line
+        assertEquals(0, batcher.getPendingJoinCount());
+        assertEquals(300L, batcher.getSentJoinCount());
+    }
+
+    @Test
+    @DisplayName("Only the latest request per channel is sent, with parts before joins")
+    public void interleaving() {
+        Bucket bucket = bucket(10);
+        MembershipBatcher batcher = new MembershipBatcher(bucket, MAX_LINE_LENGTH);
+
+        batcher.queue("a", true);
+        batcher.queue("b", false);
+        batcher.queue("a", false);
+        batcher.queue("b", true);
+        batcher.queue("c", true);
+        batcher.queue("c", false);
+        batcher.queue("d", true);
+        batcher.queue("d", true);
+        assertEquals(2, batcher.getPendingJoinCount());
+        assertEquals(2, batcher.getPendingPartCount());
+
+        assertEquals(Arrays.asList("PART #a,#c", "JOIN #b,#d"), batcher.nextBatch());
+        assertTrue(batcher.isEmpty());
+        assertEquals(0, batcher.getPendingJoinCount());
+        assertEquals(0, batcher.getPendingPartCount());
+        assertEquals(8L, bucket.getAvailableTokens());
+        assertEquals(2L, batcher.getSentJoinCount());
+
+        // a new connection only rejoins the channels
+        batcher.queue("e", false);
+        batcher.reset(Collections.singletonList("b"));
+        assertEquals(1, batcher.getPendingJoinCount());
+        assertEquals(0, batcher.getPendingPartCount());
+        assertEquals(Collections.singletonList("JOIN #b"), batcher.nextBatch());
+    }
+
+    @Test
+    @DisplayName("Joins are limited by the granted tokens, and unused tokens are returned")
+    public void partialGrant() {
+        Bucket small = bucket(3);
+        MembershipBatcher batcher = new MembershipBatcher(small, MAX_LINE_LENGTH);
+        for (int i = 0; i < 5; i++) {
+            batcher.queue("c" + i, true);
+        }
+
+        assertEquals(Collections.singletonList("JOIN #c0,#c1,#c2"), batcher.nextBatch());
+        assertEquals(2, batcher.getPendingJoinCount());
+        assertEquals(0L, small.getAvailableTokens());
+
+        // rate limited joins do not hold back parts
+        assertTrue(batcher.nextBatch().isEmpty());
+        batcher.queue("p", false);
+        assertEquals(Collections.singletonList("PART #p"), batcher.nextBatch());
+        assertFalse(batcher.isEmpty());
+        assertEquals(2, batcher.getPendingJoinCount());
+
+        // only two of the four long channel names fit into a line
+        Bucket large = bucket(10);
+        MembershipBatcher longNames = new MembershipBatcher(large, MAX_LINE_LENGTH);
+        for (char c = 'a'; c < 'e'; c++) {
+            longNames.queue(name(c, 200), true);
+        }
+
+        List<String> lines = longNames.nextBatch();
+        assertEquals(Collections.singletonList("JOIN #" + name('a', 200) + ",#" + name('b', 200)), lines);
+        assertEquals(8L, large.getAvailableTokens());
+        assertEquals(2, longNames.getPendingJoinCount());
+        assertEquals(2L, longNames.getSentJoinCount());
+    }
+
+}
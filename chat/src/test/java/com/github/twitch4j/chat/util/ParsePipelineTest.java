@@ -0,0 +1,57 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.events.channel.IRCMessageEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class ParsePipelineTest {
+
+    @Test
+    @DisplayName("Events of a channel are published in the order they were received")
+    public void orderedPerChannel() throws InterruptedException {
+        final int channels = 8, messages = 200;
+        final CountDownLatch latch = new CountDownLatch(channels * messages);
+        final Map<String, List<String>> published = new ConcurrentHashMap<>();
+
+        ParsePipelineConfig config = ParsePipelineConfig.builder().parseThreads(4).dispatchThreads(4).dispatchStripes(4).parseQueueCapacity(16).stripeCapacity(16).build();
+        ParsePipeline pipeline = new ParsePipeline("test", config, line -> {
+            if (ThreadLocalRandom.current().nextInt(10) == 0) Thread.yield();
+            return new IRCMessageEvent(line, Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList());
+        }, event -> {
+            published.computeIfAbsent(event.getChannelName().get(), c -> Collections.synchronizedList(new ArrayList<>())).add(event.getMessage().get());
+            latch.countDown();
+        });
+
+        for (int i = 0; i < messages; i++) {
+            for (int c = 0; c < channels; c++) {
+                pipeline.submit(IRCLine.tokenize(":user!user@user.tmi.twitch.tv PRIVMSG #channel" + c + " :" + i));
+            }
+        }
+
+        assertTrue(latch.await(10L, TimeUnit.SECONDS));
+        pipeline.close();
+
+        assertEquals(channels, published.size());
+        published.values().forEach(list -> {
+            for (int i = 0; i < messages; i++) {
+                assertEquals(String.valueOf(i), list.get(i));
+            }
+        });
+        assertEquals(0, pipeline.getDispatchQueueSize());
+    }
+
+}
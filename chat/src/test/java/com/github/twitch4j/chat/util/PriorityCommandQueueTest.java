@@ -0,0 +1,108 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.CommandPriority;
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import com.github.twitch4j.chat.enums.OverflowPolicy;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Tag("unittest")
+public class PriorityCommandQueueTest {
+
+    private static PriorityCommandQueue queue(CommandPriority priority, CommandLaneConfig config) {
+        Map<CommandPriority, CommandLaneConfig> lanes = new EnumMap<>(CommandPriority.class);
+        lanes.put(priority, config);
+        return new PriorityCommandQueue(100, lanes);
+    }
+
+    @Test
+    @DisplayName("Lanes are drained in proportion to their weights")
+    public void weightedDrain() {
+        PriorityCommandQueue queue = new PriorityCommandQueue(100, null);
+        for (int i = 0; i < 30; i++) {
+            for (CommandPriority priority : CommandPriority.values()) {
+                queue.offer(priority, priority.name());
+            }
+        }
+
+        List<String> sent = new ArrayList<>();
+        long wait = queue.drain((priority, command) -> sent.size() < 15 ? 0L : 1000L, sent::add);
+
+        assertEquals(1000L, wait);
+        assertEquals(15, sent.size());
+        assertEquals(8, Collections.frequency(sent, "MODERATION"));
+        assertEquals(4, Collections.frequency(sent, "WHISPER"));
+        assertEquals(2, Collections.frequency(sent, "REPLY"));
+        assertEquals(1, Collections.frequency(sent, "BULK"));
+        assertEquals("MODERATION", sent.get(0));
+    }
+
+    @Test
+    @DisplayName("A rate limited command does not block the other commands")
+    public void rateLimited() {
+        PriorityCommandQueue queue = new PriorityCommandQueue(100, null);
+        queue.offer(CommandPriority.BULK, "PRIVMSG #a :1");
+        queue.offer(CommandPriority.BULK, "PRIVMSG #b :2");
+        queue.offer(CommandPriority.BULK, "PRIVMSG #a :3");
+
+        List<String> sent = new ArrayList<>();
+        long wait = queue.drain((priority, command) -> command.startsWith("PRIVMSG #a") ? 50L : 0L, sent::add);
+
+        assertEquals(50L, wait);
+        assertEquals(Collections.singletonList("PRIVMSG #b :2"), sent);
+        assertEquals(2, queue.size(CommandPriority.BULK));
+    }
+
+    @Test
+    @DisplayName("Commands that fail to be sent are kept at the front of their lane")
+    public void failedSend() {
+        PriorityCommandQueue queue = new PriorityCommandQueue(100, null);
+        queue.offer(CommandPriority.BULK, "1");
+        queue.offer(CommandPriority.BULK, "2");
+
+        assertEquals(-1L, queue.drain((priority, command) -> 0L, command -> false));
+
+        List<String> sent = new ArrayList<>();
+        assertEquals(-1L, queue.drain((priority, command) -> 0L, sent::add));
+        assertEquals(2, sent.size());
+        assertEquals("1", sent.get(0));
+    }
+
+    @Test
+    @DisplayName("Overflow policies")
+    public void overflow() {
+        PriorityCommandQueue dropNewest = queue(CommandPriority.BULK, CommandLaneConfig.builder().capacity(1).build());
+        assertEquals(EnqueueStatus.QUEUED, dropNewest.offer(CommandPriority.BULK, "1"));
+        assertEquals(EnqueueStatus.REJECTED, dropNewest.offer(CommandPriority.BULK, "2"));
+
+        PriorityCommandQueue dropOldest = queue(CommandPriority.BULK, CommandLaneConfig.builder().capacity(1).overflowPolicy(OverflowPolicy.DROP_OLDEST).build());
+        List<String> evicted = new ArrayList<>();
+        dropOldest.offer(CommandPriority.BULK, "1", evicted::add);
+        assertEquals(EnqueueStatus.QUEUED_DROPPED_OLDEST, dropOldest.offer(CommandPriority.BULK, "2", evicted::add));
+        assertEquals(Collections.singletonList("1"), evicted);
+        List<String> sent = new ArrayList<>();
+        dropOldest.drain((priority, command) -> 0L, sent::add);
+        assertEquals(Collections.singletonList("2"), sent);
+
+        List<String> rejected = new ArrayList<>();
+        PriorityCommandQueue callback = queue(CommandPriority.REPLY, CommandLaneConfig.builder().capacity(1).overflowPolicy(OverflowPolicy.CALLBACK).overflowCallback((priority, command) -> rejected.add(command)).build());
+        callback.offer(CommandPriority.REPLY, "1");
+        assertEquals(EnqueueStatus.REJECTED, callback.offer(CommandPriority.REPLY, "2"));
+        assertEquals(Collections.singletonList("2"), rejected);
+
+        PriorityCommandQueue block = queue(CommandPriority.BULK, CommandLaneConfig.builder().capacity(1).overflowPolicy(OverflowPolicy.BLOCK).blockTimeout(Duration.ofMillis(10L)).build());
+        block.offer(CommandPriority.BULK, "1");
+        assertEquals(EnqueueStatus.TIMED_OUT, block.offer(CommandPriority.BULK, "2"));
+    }
+
+}
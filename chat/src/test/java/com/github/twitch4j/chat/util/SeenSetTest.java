@@ -0,0 +1,54 @@
+package com.github.twitch4j.chat.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class SeenSetTest {
+
+    @Test
+    @DisplayName("Keys are only added once within the window")
+    public void duplicates() {
+        SeenSet seen = new SeenSet();
+        assertTrue(seen.add(SeenSet.hash("885196de-cb67-427a-baa8-82f9b0fcd05f")));
+        assertFalse(seen.add(SeenSet.hash("885196de-cb67-427a-baa8-82f9b0fcd05f")));
+        assertTrue(seen.add(SeenSet.hash("3d830c12-9c8c-4f7c-bb8a-b5b82c2e5f0e")));
+        assertNotEquals(SeenSet.hash("ab"), SeenSet.hash("ba"));
+
+        seen.clear();
+        assertTrue(seen.add(SeenSet.hash("885196de-cb67-427a-baa8-82f9b0fcd05f")));
+    }
+
+    @Test
+    @DisplayName("Keys added for a source are only duplicates when added by another source")
+    public void sources() {
+        SeenSet seen = new SeenSet();
+        long key = SeenSet.hash(":tmi.twitch.tv NOTICE #somechannel :hello");
+        assertTrue(seen.add(key, 1));
+        assertTrue(seen.add(key, 1));
+        assertFalse(seen.add(key, 0));
+        assertTrue(seen.add(key, 1));
+        assertTrue(seen.add(SeenSet.hash("other"), 0));
+        assertThrows(IllegalArgumentException.class, () -> seen.add(key, SeenSet.MAX_SOURCES));
+    }
+
+    @Test
+    @DisplayName("Keys expire after the window")
+    public void expiry() throws InterruptedException {
+        SeenSet seen = new SeenSet(16, Duration.ofMillis(50L));
+        assertTrue(seen.add(42L));
+        assertFalse(seen.add(42L));
+
+        Thread.sleep(200L);
+        assertTrue(seen.add(42L));
+    }
+
+}
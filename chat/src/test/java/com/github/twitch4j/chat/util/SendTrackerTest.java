@@ -0,0 +1,129 @@
+package com.github.twitch4j.chat.util;
+
+import com.github.twitch4j.chat.enums.EnqueueStatus;
+import com.github.twitch4j.chat.exception.MessageRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class SendTrackerTest {
+
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+
+    @AfterEach
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Echoed nonces complete the tracked messages")
+    public void acknowledge() throws Exception {
+        SendTracker tracker = new SendTracker(executor, Duration.ofMinutes(1L));
+        CompletableFuture<SendAcknowledgment> future = tracker.track("channel", "abc");
+        tracker.onSent("abc");
+
+        assertFalse(tracker.acknowledge("other", null));
+        assertTrue(tracker.acknowledge("abc", "msg-1"));
+
+        SendAcknowledgment ack = future.get(1L, TimeUnit.SECONDS);
+        assertEquals("channel", ack.getChannel());
+        assertEquals("msg-1", ack.getMessageId());
+        assertTrue(tracker.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Rejections fail the oldest sent message of the channel")
+    public void reject() {
+        SendTracker tracker = new SendTracker(executor, Duration.ofMinutes(1L));
+        CompletableFuture<SendAcknowledgment> first = tracker.track("channel", "1");
+        CompletableFuture<SendAcknowledgment> second = tracker.track("channel", "2");
+        CompletableFuture<SendAcknowledgment> unsent = tracker.track("channel", "3");
+        tracker.onSent("1");
+        tracker.onSent("2");
+
+        assertFalse(tracker.reject("other", "msg_ratelimit", null));
+        assertTrue(tracker.reject("channel", "msg_duplicate", "Your message is identical to the one you sent less than 30 seconds ago."));
+        assertTrue(tracker.acknowledge("2", null));
+        assertFalse(tracker.reject("channel", "msg_ratelimit", null));
+
+        MessageRejectedException e = (MessageRejectedException) assertThrows(ExecutionException.class, first::get).getCause();
+        assertEquals("msg_duplicate", e.getNoticeId());
+        assertFalse(e.isRetryable());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        assertFalse(unsent.isDone());
+
+        tracker.reject("3", EnqueueStatus.REJECTED);
+        e = (MessageRejectedException) assertThrows(ExecutionException.class, unsent::get).getCause();
+        assertEquals(EnqueueStatus.REJECTED, e.getEnqueueStatus());
+        assertTrue(e.isRetryable());
+    }
+
+    @Test
+    @DisplayName("Rejections of untracked messages and unrelated notices do not fail tracked messages")
+    public void rejectUntracked() {
+        SendTracker tracker = new SendTracker(executor, Duration.ofMinutes(1L));
+        CompletableFuture<SendAcknowledgment> first = tracker.track("channel", "1");
+        CompletableFuture<SendAcknowledgment> second = tracker.track("channel", "2");
+        tracker.onSent("1");
+        tracker.onSentUntracked("channel");
+        tracker.onSent("2");
+        tracker.onSentUntracked("channel");
+        tracker.onSentUntracked("other");
+
+        assertFalse(tracker.reject("channel", "msg_banned", "You are permanently banned from talking in channel."));
+        assertFalse(tracker.reject("channel", "msg_channel_suspended", null));
+        assertTrue(tracker.acknowledge("1", null));
+        assertFalse(tracker.reject("channel", "msg_ratelimit", null));
+        assertTrue(tracker.reject("channel", "msg_duplicate", null));
+        assertTrue(first.isDone() && !first.isCompletedExceptionally());
+        assertTrue(second.isCompletedExceptionally());
+
+        // the untracked message after the last tracked message remains until it is answered
+        assertFalse(tracker.isEmpty());
+        assertFalse(tracker.reject("channel", "msg_ratelimit", null));
+        assertTrue(tracker.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Untracked messages sent before an acknowledged message are forgotten")
+    public void acknowledgeAfterUntracked() {
+        SendTracker tracker = new SendTracker(executor, Duration.ofMinutes(1L));
+        CompletableFuture<SendAcknowledgment> first = tracker.track("channel", "1");
+        CompletableFuture<SendAcknowledgment> second = tracker.track("channel", "2");
+        tracker.onSent("1");
+        tracker.onSentUntracked("channel");
+        tracker.onSent("2");
+
+        assertTrue(tracker.acknowledge("2", null));
+        assertTrue(tracker.reject("channel", "msg_slowmode", null));
+        assertTrue(first.isCompletedExceptionally());
+        assertTrue(second.isDone() && !second.isCompletedExceptionally());
+        assertTrue(tracker.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Unacknowledged messages time out")
+    public void timeout() {
+        SendTracker tracker = new SendTracker(executor, Duration.ofMillis(10L));
+        CompletableFuture<SendAcknowledgment> future = tracker.track("channel", "abc");
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5L, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof TimeoutException);
+        assertTrue(tracker.isEmpty());
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.github.twitch4j.common.util;
+
+import com.github.twitch4j.common.enums.CommandPermission;
+import lombok.Value;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache from a raw badges string to its parsed badges and the resulting permissions.
+ * <p>
+ * A few hundred distinct badge combinations cover nearly all chatters, so the badges tag of a message
+ * is usually resolved without parsing it again. Once the cache reaches {@link #MAX_SIZE} combinations, it is cleared.
+ */
+public final class BadgeCache {
+
+    /**
+     * Maximum number of cached badge combinations, per owner flag
+     */
+    public static final int MAX_SIZE = 2048;
+
+    private static final Map<String, Badges> CACHE = new ConcurrentHashMap<>();
+
+    private static final Map<String, Badges> OWNER_CACHE = new ConcurrentHashMap<>();
+
+    private static final Badges EMPTY = new Badges(Collections.emptyMap(), Collections.unmodifiableSet(EnumSet.of(CommandPermission.EVERYONE)));
+
+    private static final Badges EMPTY_OWNER = new Badges(Collections.emptyMap(), Collections.unmodifiableSet(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.OWNER)));
+
+    private BadgeCache() {
+    }
+
+    /**
+     * Resolves a badges string, such as {@code broadcaster/1,subscriber/12}
+     *
+     * @param raw   the raw badges string, or null
+     * @param owner whether the user is a bot owner, see {@link CommandPermission#OWNER}
+     * @return the immutable badges and permissions
+     */
+    public static Badges get(String raw, boolean owner) {
+        if (StringUtils.isBlank(raw))
+            return owner ? EMPTY_OWNER : EMPTY;
+
+        final Map<String, Badges> cache = owner ? OWNER_CACHE : CACHE;
+        Badges badges = cache.get(raw);
+        if (badges == null) {
+            badges = parse(raw, owner);
+            if (cache.size() >= MAX_SIZE) cache.clear();
+            cache.put(raw, badges);
+        }
+        return badges;
+    }
+
+    /**
+     * Parses a badges string in a single pass
+     */
+    private static Badges parse(String raw, boolean owner) {
+        final Map<String, String> map = new HashMap<>();
+        final int n = raw.length();
+        int start = 0;
+        while (start < n) {
+            int end = raw.indexOf(',', start);
+            if (end < 0) end = n;
+
+            if (end > start) {
+                final int slash = raw.indexOf('/', start);
+                if (slash >= 0 && slash < end) {
+                    map.put(unescape(raw.substring(start, slash)), slash + 1 < end ? unescape(raw.substring(slash + 1, end)) : null);
+                } else {
+                    map.put(unescape(raw.substring(start, end)), null);
+                }
+            }
+
+            start = end + 1;
+        }
+
+        final Set<CommandPermission> permissions = TwitchUtils.getPermissionsFromBadges(map);
+        if (owner) permissions.add(CommandPermission.OWNER);
+
+        return new Badges(Collections.unmodifiableMap(map), Collections.unmodifiableSet(permissions));
+    }
+
+    private static String unescape(String s) {
+        return s.indexOf('\\') >= 0 ? s.replace("\\s", " ") : s;
+    }
+
+    /**
+     * Parsed badges and the resulting permissions
+     */
+    @Value
+    public static class Badges {
+
+        /**
+         * Badge names mapped to their versions (read-only)
+         */
+        Map<String, String> badges;
+
+        /**
+         * Permissions granted by the badges (read-only)
+         */
+        Set<CommandPermission> permissions;
+
+    }
+
+}
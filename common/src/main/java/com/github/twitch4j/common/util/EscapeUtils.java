@@ -1,6 +1,6 @@
 package com.github.twitch4j.common.util;
 
-import org.apache.commons.lang3.StringUtils;
+import lombok.NonNull;
 
 public class EscapeUtils {
 
@@ -62,29 +62,89 @@ public class EscapeUtils {
 
     /**
      * Unescapes a value used in a IRCv3 message tag.
+     * <p>
+     * Returns the same instance when the value contains no backslash.
+     * Unknown escape sequences and a trailing backslash are kept as they are.
      *
      * @param value the escaped message tag value
      * @return the unescaped value
      * @see <a href="https://ircv3.net/specs/extensions/message-tags.html">Offical spec</a>
      */
     public static String unescapeTagValue(String value) {
-        return StringUtils.replaceEach(
-            value,
-            new String[] {
-                "\\:",
-                "\\s",
-                "\\\\",
-                "\\r",
-                "\\n"
-            },
-            new String[] {
-                ";",
-                " ",
-                "\\",
-                "\r",
-                "\n"
+        if (value == null) return null;
+        return unescapeTagValue(value, 0, value.length());
+    }
+
+    /**
+     * Unescapes a region of a sequence that contains an IRCv3 message tag value, such as a raw irc line.
+     *
+     * @param value the sequence that contains the escaped message tag value
+     * @param start the index of the first character of the value
+     * @param end   the index after the last character of the value
+     * @return the unescaped value
+     * @see #unescapeTagValue(String)
+     */
+    public static String unescapeTagValue(@NonNull CharSequence value, int start, int end) {
+        if (start < 0 || end < start || end > value.length())
+            throw new IndexOutOfBoundsException("Invalid region [" + start + ", " + end + ")");
+
+        // Determine the index of the first backslash in the region
+        int firstEscape = -1;
+        for (int i = start; i < end; i++) {
+            if (value.charAt(i) == '\\') {
+                firstEscape = i;
+                break;
             }
-        );
+        }
+
+        // When there is nothing to unescape, avoid copying the value
+        if (firstEscape < 0) {
+            if (start == 0 && end == value.length() && value instanceof String) return (String) value;
+            return value.subSequence(start, end).toString();
+        }
+
+        // Determine the exact length of the unescaped value
+        int length = firstEscape - start;
+        for (int i = firstEscape; i < end; i++, length++) {
+            if (value.charAt(i) == '\\' && i + 1 < end && unescape(value.charAt(i + 1)) != 0) i++;
+        }
+
+        // Decode in a single pass
+        final char[] unescaped = new char[length];
+        int n = 0;
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < end) {
+                char replacement = unescape(value.charAt(i + 1));
+                if (replacement != 0) {
+                    c = replacement;
+                    i++;
+                }
+            }
+            unescaped[n++] = c;
+        }
+        return new String(unescaped);
+    }
+
+    /**
+     * @param c the character after a backslash
+     * @return the unescaped character, or 0 if the sequence is not a known escape
+     */
+    private static char unescape(char c) {
+        switch (c) {
+            case ':':
+                return ';';
+            case 's':
+                return ' ';
+            case '\\':
+                return '\\';
+            case 'r':
+                return '\r';
+            case 'n':
+                return '\n';
+            default:
+                return 0;
+        }
     }
 
 }
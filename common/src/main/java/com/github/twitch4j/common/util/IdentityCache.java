@@ -0,0 +1,123 @@
+package com.github.twitch4j.common.util;
+
+import com.github.twitch4j.common.events.domain.EventChannel;
+import com.github.twitch4j.common.events.domain.EventUser;
+
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded cache of canonical {@link EventChannel} and {@link EventUser} instances and lower case channel names.
+ * <p>
+ * The same channels and chatters appear in most events, so events share these (immutable) instances instead of allocating their own.
+ * Each table is direct-mapped: an identity is looked up in a single slot, and replaces whatever identity occupied that slot before.
+ * The tables thus never grow and need no locks; a miss merely allocates like before.
+ */
+public final class IdentityCache {
+
+    /**
+     * Number of slots for channels and channel names
+     */
+    public static final int CHANNEL_CAPACITY = 4096;
+
+    /**
+     * Number of slots for users
+     */
+    public static final int USER_CAPACITY = 16384;
+
+    private static final AtomicReferenceArray<EventChannel> CHANNELS = new AtomicReferenceArray<>(CHANNEL_CAPACITY);
+
+    private static final AtomicReferenceArray<EventUser> USERS = new AtomicReferenceArray<>(USER_CAPACITY);
+
+    private static final AtomicReferenceArray<String> NAMES = new AtomicReferenceArray<>(CHANNEL_CAPACITY);
+
+    private IdentityCache() {
+    }
+
+    /**
+     * @param id   the channel id, or null
+     * @param name the channel name, or null
+     * @return an EventChannel with the id and name
+     */
+    public static EventChannel channel(String id, String name) {
+        final int slot = slot(id, name, CHANNEL_CAPACITY);
+        EventChannel channel = CHANNELS.get(slot);
+        if (channel == null || !Objects.equals(channel.getId(), id) || !Objects.equals(channel.getName(), name)) {
+            channel = new EventChannel(id, name);
+            CHANNELS.lazySet(slot, channel);
+        }
+        return channel;
+    }
+
+    /**
+     * @param id   the user id, or null
+     * @param name the user name, or null
+     * @return an EventUser with the id and name
+     */
+    public static EventUser user(String id, String name) {
+        final int slot = slot(id, name, USER_CAPACITY);
+        EventUser user = USERS.get(slot);
+        if (user == null || !Objects.equals(user.getId(), id) || !Objects.equals(user.getName(), name)) {
+            user = new EventUser(id, name);
+            USERS.lazySet(slot, user);
+        }
+        return user;
+    }
+
+    /**
+     * Lower-cases a channel (or user) name, reusing the lower case string of earlier calls
+     *
+     * @param name the name, or null
+     * @return the lower case name
+     */
+    public static String lowerCase(String name) {
+        if (name == null) return null;
+
+        // hash the lower case chars without creating the lower case string
+        int h = 0;
+        boolean lower = true;
+        for (int i = 0, n = name.length(); i < n; i++) {
+            final char c = name.charAt(i);
+            // outside of ascii, String#toLowerCase is not char by char (e.g. it may change the length)
+            if (c >= 0x80) return name.toLowerCase(Locale.ROOT);
+            final char l = Character.toLowerCase(c);
+            if (c != l) lower = false;
+            h = 31 * h + l;
+        }
+
+        final int slot = spread(h) & (CHANNEL_CAPACITY - 1);
+        final String cached = NAMES.get(slot);
+        if (cached != null && equalsLowerCase(cached, name))
+            return cached;
+
+        final String result = lower ? name : name.toLowerCase(Locale.ROOT);
+        NAMES.lazySet(slot, result);
+        return result;
+    }
+
+    /**
+     * @return whether the lower case string equals the other string, once lower-cased
+     */
+    private static boolean equalsLowerCase(String lowerCase, String s) {
+        if (lowerCase.length() != s.length()) return false;
+        for (int i = 0, n = s.length(); i < n; i++) {
+            if (lowerCase.charAt(i) != Character.toLowerCase(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static int slot(String id, String name, int capacity) {
+        // prefer the id, which is stable across renames and present in most events
+        final int h = id != null ? id.hashCode() : Objects.hashCode(name);
+        return spread(h) & (capacity - 1);
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+}
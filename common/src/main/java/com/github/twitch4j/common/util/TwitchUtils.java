@@ -30,84 +30,100 @@ public class TwitchUtils {
     }
 
     public static Set<CommandPermission> getPermissionsFromTags(@NonNull Map<String, Object> tags, @NonNull Map<String, String> badges, String userId, Collection<String> botOwnerIds) {
-        Set<CommandPermission> permissionSet = EnumSet.of(CommandPermission.EVERYONE);
+        final boolean owner = userId != null && botOwnerIds != null && botOwnerIds.contains(userId);
 
         // Check for Permissions
-        if (tags.containsKey("badges")) {
-            if (tags.get("badges") instanceof String) {
-                // needed for irc
-                badges.putAll(parseBadges((String) tags.get("badges")));
-            } else {
-                List<Map<String, String>> badgeList = (List<Map<String, String>>) tags.get("badges");
-                if (badgeList != null) {
-                    badgeList.forEach(badge -> badges.put(badge.get("id"), "1"));
-                }
+        final Object rawBadges = tags.get("badges");
+        final BadgeCache.Badges resolved;
+        if (rawBadges instanceof String) {
+            // needed for irc
+            resolved = BadgeCache.get((String) rawBadges, owner);
+        } else if (rawBadges instanceof List) {
+            // needed for pubsub whispers
+            StringBuilder sb = new StringBuilder();
+            for (Map<String, String> badge : (List<Map<String, String>>) rawBadges) {
+                if (sb.length() > 0) sb.append(',');
+                sb.append(badge.get("id")).append("/1");
             }
+            resolved = BadgeCache.get(sb.toString(), owner);
+        } else {
+            resolved = BadgeCache.get(null, owner);
+        }
 
-            // Broadcaster
-            if (badges.containsKey("broadcaster")) {
-                permissionSet.add(CommandPermission.BROADCASTER);
-                permissionSet.add(CommandPermission.MODERATOR);
-            }
-            // Twitch Prime
-            if (badges.containsKey("premium")) {
-                permissionSet.add(CommandPermission.PRIME_TURBO);
-            }
-            // Moderator
-            if (badges.containsKey("moderator")) {
-                permissionSet.add(CommandPermission.MODERATOR);
-            }
-            // Partner
-            if (badges.containsKey("partner")) {
-                permissionSet.add(CommandPermission.PARTNER);
-            }
-            // VIP
-            if (badges.containsKey("vip")) {
-                permissionSet.add(CommandPermission.VIP);
-            }
-            // Turbo
-            if (badges.containsKey("turbo")) {
-                permissionSet.add(CommandPermission.PRIME_TURBO);
-            }
-            // Twitch Staff
-            if (badges.containsKey("staff")) {
-                permissionSet.add(CommandPermission.TWITCHSTAFF);
-            }
-            // Subscriber
-            if(badges.containsKey("subscriber")) {
-                permissionSet.add(CommandPermission.SUBSCRIBER);
-            }
-            // SubGifter
-            if(badges.containsKey("sub-gifter")) {
-                permissionSet.add(CommandPermission.SUBGIFTER);
-            }
-            // Founder
-            if(badges.containsKey("founder")) {
-                permissionSet.add(CommandPermission.FOUNDER);
-                permissionSet.add(CommandPermission.SUBSCRIBER);
-
-                // also contains info about the tier if needed
-                /*
-                if (badges.get("founder").equals("0")) {
-                    // Tier 1 Founder
-                } else if (badges.get("founder").equals("1")) {
-                    // Tier 2 Founder
-                } else if (badges.get("founder").equals("2")) {
-                    // Tier 3 Founder
-                }
-                */
-            }
-            // Hype Train Conductor
-            String hypeBadge = badges.get("hype-train");
-            if ("1".equals(hypeBadge)) {
-                permissionSet.add(CommandPermission.CURRENT_HYPE_TRAIN_CONDUCTOR);
-            } else if ("2".equals(hypeBadge)) {
-                permissionSet.add(CommandPermission.FORMER_HYPE_TRAIN_CONDUCTOR);
+        badges.putAll(resolved.getBadges());
+        return EnumSet.copyOf(resolved.getPermissions());
+    }
+
+    /**
+     * Computes the permissions granted by a set of badges
+     *
+     * @param badges the badge names mapped to their versions
+     * @return a mutable set of the permissions, which always includes {@link CommandPermission#EVERYONE}
+     * @see BadgeCache#get(String, boolean)
+     */
+    static Set<CommandPermission> getPermissionsFromBadges(@NonNull Map<String, String> badges) {
+        Set<CommandPermission> permissionSet = EnumSet.of(CommandPermission.EVERYONE);
+
+        // Broadcaster
+        if (badges.containsKey("broadcaster")) {
+            permissionSet.add(CommandPermission.BROADCASTER);
+            permissionSet.add(CommandPermission.MODERATOR);
+        }
+        // Twitch Prime
+        if (badges.containsKey("premium")) {
+            permissionSet.add(CommandPermission.PRIME_TURBO);
+        }
+        // Moderator
+        if (badges.containsKey("moderator")) {
+            permissionSet.add(CommandPermission.MODERATOR);
+        }
+        // Partner
+        if (badges.containsKey("partner")) {
+            permissionSet.add(CommandPermission.PARTNER);
+        }
+        // VIP
+        if (badges.containsKey("vip")) {
+            permissionSet.add(CommandPermission.VIP);
+        }
+        // Turbo
+        if (badges.containsKey("turbo")) {
+            permissionSet.add(CommandPermission.PRIME_TURBO);
+        }
+        // Twitch Staff
+        if (badges.containsKey("staff")) {
+            permissionSet.add(CommandPermission.TWITCHSTAFF);
+        }
+        // Subscriber
+        if(badges.containsKey("subscriber")) {
+            permissionSet.add(CommandPermission.SUBSCRIBER);
+        }
+        // SubGifter
+        if(badges.containsKey("sub-gifter")) {
+            permissionSet.add(CommandPermission.SUBGIFTER);
+        }
+        // Founder
+        if(badges.containsKey("founder")) {
+            permissionSet.add(CommandPermission.FOUNDER);
+            permissionSet.add(CommandPermission.SUBSCRIBER);
+
+            // also contains info about the tier if needed
+            /*
+            if (badges.get("founder").equals("0")) {
+                // Tier 1 Founder
+            } else if (badges.get("founder").equals("1")) {
+                // Tier 2 Founder
+            } else if (badges.get("founder").equals("2")) {
+                // Tier 3 Founder
             }
+            */
+        }
+        // Hype Train Conductor
+        String hypeBadge = badges.get("hype-train");
+        if ("1".equals(hypeBadge)) {
+            permissionSet.add(CommandPermission.CURRENT_HYPE_TRAIN_CONDUCTOR);
+        } else if ("2".equals(hypeBadge)) {
+            permissionSet.add(CommandPermission.FORMER_HYPE_TRAIN_CONDUCTOR);
         }
-
-        if (userId != null && botOwnerIds != null && botOwnerIds.contains(userId))
-            permissionSet.add(CommandPermission.OWNER);
 
         return permissionSet;
     }
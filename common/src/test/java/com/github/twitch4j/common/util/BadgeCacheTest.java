@@ -0,0 +1,129 @@
+package com.github.twitch4j.common.util;
+
+import com.github.twitch4j.common.enums.CommandPermission;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class BadgeCacheTest {
+
+    private static final List<String> BADGES = Arrays.asList(
+        null,
+        "",
+        "premium",
+        "premium/",
+        "broadcaster/1,subscriber/12",
+        "moderator/1,partner/1,vip/1,turbo/1,staff/1,sub-gifter/5",
+        "some\\sbadge/1,subscriber/3000",
+        "founder/0,hype-train/1",
+        "founder/2,hype-train/2,bits/1000",
+        "hype-train/3,glhf-pledge/1"
+    );
+
+    @Test
+    @DisplayName("Cached badges and permissions match the split based parsing")
+    public void matchesSplitParsing() {
+        for (String raw : BADGES) {
+            for (boolean owner : new boolean[] { false, true }) {
+                BadgeCache.Badges badges = BadgeCache.get(raw, owner);
+                Map<String, String> expected = TwitchUtils.parseBadges(raw);
+
+                assertEquals(expected, badges.getBadges(), raw);
+                assertEquals(legacyPermissions(expected, owner), badges.getPermissions(), raw);
+                assertSame(badges, BadgeCache.get(raw, owner), raw);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Escaped and version-less badges are parsed like before")
+    public void specialBadges() {
+        assertEquals(Collections.singletonMap("premium", null), BadgeCache.get("premium", false).getBadges());
+        assertEquals(Collections.singletonMap("some badge", "1"), BadgeCache.get("some\\sbadge/1", false).getBadges());
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.PRIME_TURBO), BadgeCache.get("premium", false).getPermissions());
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.OWNER), BadgeCache.get("", true).getPermissions());
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE, CommandPermission.FOUNDER, CommandPermission.SUBSCRIBER, CommandPermission.CURRENT_HYPE_TRAIN_CONDUCTOR),
+            BadgeCache.get("founder/0,hype-train/1", false).getPermissions());
+
+        // the cached results are shared, so they must not be modifiable
+        assertThrows(UnsupportedOperationException.class, () -> BadgeCache.get("premium", false).getPermissions().add(CommandPermission.OWNER));
+        assertThrows(UnsupportedOperationException.class, () -> BadgeCache.get("premium", false).getBadges().clear());
+    }
+
+    @Test
+    @DisplayName("PubSub badge lists resolve to the same badges and permissions as before")
+    public void pubSubBadgeList() {
+        List<Map<String, String>> badgeList = Arrays.asList(badge("moderator"), badge("founder"), badge("premium"));
+        Map<String, Object> tags = new HashMap<>();
+        tags.put("badges", badgeList);
+
+        Map<String, String> expected = new HashMap<>();
+        badgeList.forEach(badge -> expected.put(badge.get("id"), "1"));
+
+        for (boolean owner : new boolean[] { false, true }) {
+            Map<String, String> badges = new HashMap<>();
+            Set<CommandPermission> permissions = TwitchUtils.getPermissionsFromTags(tags, badges, "12345", owner ? Collections.singleton("12345") : Collections.emptySet());
+
+            assertEquals(expected, badges);
+            assertEquals(legacyPermissions(expected, owner), permissions);
+
+            // the returned set belongs to the caller
+            permissions.add(CommandPermission.VIP);
+            assertEquals(legacyPermissions(expected, owner), BadgeCache.get("moderator/1,founder/1,premium/1", owner).getPermissions());
+        }
+
+        Map<String, String> badges = new HashMap<>();
+        assertEquals(EnumSet.of(CommandPermission.EVERYONE), TwitchUtils.getPermissionsFromTags(Collections.emptyMap(), badges, null, null));
+        assertTrue(badges.isEmpty());
+    }
+
+    private static Map<String, String> badge(String id) {
+        return Collections.singletonMap("id", id);
+    }
+
+    /**
+     * The permission checks of getPermissionsFromTags before the cache was added
+     */
+    private static Set<CommandPermission> legacyPermissions(Map<String, String> badges, boolean owner) {
+        Set<CommandPermission> permissionSet = EnumSet.of(CommandPermission.EVERYONE);
+        if (badges.containsKey("broadcaster")) {
+            permissionSet.add(CommandPermission.BROADCASTER);
+            permissionSet.add(CommandPermission.MODERATOR);
+        }
+        if (badges.containsKey("premium")) permissionSet.add(CommandPermission.PRIME_TURBO);
+        if (badges.containsKey("moderator")) permissionSet.add(CommandPermission.MODERATOR);
+        if (badges.containsKey("partner")) permissionSet.add(CommandPermission.PARTNER);
+        if (badges.containsKey("vip")) permissionSet.add(CommandPermission.VIP);
+        if (badges.containsKey("turbo")) permissionSet.add(CommandPermission.PRIME_TURBO);
+        if (badges.containsKey("staff")) permissionSet.add(CommandPermission.TWITCHSTAFF);
+        if (badges.containsKey("subscriber")) permissionSet.add(CommandPermission.SUBSCRIBER);
+        if (badges.containsKey("sub-gifter")) permissionSet.add(CommandPermission.SUBGIFTER);
+        if (badges.containsKey("founder")) {
+            permissionSet.add(CommandPermission.FOUNDER);
+            permissionSet.add(CommandPermission.SUBSCRIBER);
+        }
+        String hypeBadge = badges.get("hype-train");
+        if ("1".equals(hypeBadge)) {
+            permissionSet.add(CommandPermission.CURRENT_HYPE_TRAIN_CONDUCTOR);
+        } else if ("2".equals(hypeBadge)) {
+            permissionSet.add(CommandPermission.FORMER_HYPE_TRAIN_CONDUCTOR);
+        }
+        if (owner) permissionSet.add(CommandPermission.OWNER);
+        return permissionSet;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.github.twitch4j.common.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class IdentityCacheTest {
+
+    @Test
+    @DisplayName("Mixed case names return the cached lower case instance")
+    public void cachedLowerCase() {
+        String lower = IdentityCache.lowerCase("IdentityCache_MixedCase");
+        assertEquals("identitycache_mixedcase", lower);
+        assertSame(lower, IdentityCache.lowerCase("IDENTITYCACHE_MIXEDCASE"));
+        assertSame(lower, IdentityCache.lowerCase("identitycache_mixedcase"));
+        assertNull(IdentityCache.lowerCase(null));
+    }
+
+    @Test
+    @DisplayName("Lower case names are returned unchanged")
+    public void unchangedLowerCase() {
+        String name = new String("identitycache_lowercase");
+        assertSame(name, IdentityCache.lowerCase(name));
+        assertSame(name, IdentityCache.lowerCase("IdentityCache_LowerCase"));
+    }
+
+    @Test
+    @DisplayName("A name that collides with a cached name replaces it without mixing them up")
+    public void collision() {
+        String first = IdentityCache.lowerCase("IdentityCache_Collision");
+        String other = null;
+        for (int i = 0; i < 1_000_000 && other == null; i++) {
+            String candidate = "Candidate" + i;
+            assertEquals(candidate.toLowerCase(Locale.ROOT), IdentityCache.lowerCase(candidate));
+
+            String again = IdentityCache.lowerCase("IDENTITYCACHE_COLLISION");
+            assertEquals("identitycache_collision", again);
+            if (again != first) other = candidate;
+        }
+        assertTrue(other != null, "no colliding name found");
+
+        // the slot now holds the first name again, so the other name is lower-cased anew
+        String otherLower = IdentityCache.lowerCase(other);
+        assertEquals(other.toLowerCase(Locale.ROOT), otherLower);
+        assertNotSame(first, IdentityCache.lowerCase("IdentityCache_Collision"));
+        assertEquals("identitycache_collision", IdentityCache.lowerCase("IdentityCache_Collision"));
+    }
+
+    @Test
+    @DisplayName("Names whose lower case form has another length match String#toLowerCase")
+    public void lengthChangingLowerCase() {
+        String dotted = "\u0130stanbul"; // capital I with dot above
+        assertEquals(dotted.toLowerCase(Locale.ROOT), IdentityCache.lowerCase(dotted));
+
+        // the same hash as the dotted name, once lower-cased char by char
+        assertEquals("istanbul", IdentityCache.lowerCase("Istanbul"));
+        assertEquals(dotted.toLowerCase(Locale.ROOT), IdentityCache.lowerCase(dotted));
+        assertEquals("istanbul", IdentityCache.lowerCase("ISTANBUL"));
+    }
+
+}
@@ -11,6 +11,7 @@ import com.github.twitch4j.common.events.domain.EventUser;
 import com.github.twitch4j.common.events.user.PrivateMessageEvent;
 import com.github.twitch4j.common.util.CryptoUtils;
 import com.github.twitch4j.common.util.ExponentialBackoffStrategy;
+import com.github.twitch4j.common.util.IdentityCache;
 import com.github.twitch4j.common.util.TimeUtils;
 import com.github.twitch4j.common.util.TwitchUtils;
 import com.github.twitch4j.common.util.TypeConvert;
@@ -375,7 +376,7 @@ public class TwitchPubSub implements AutoCloseable {
 
                                 String fromId = msgDataParsed.get("from_id").asText();
                                 String displayName = (String) tags.get("display_name");
-                                EventUser eventUser = new EventUser(fromId, displayName);
+                                EventUser eventUser = IdentityCache.user(fromId, displayName);
 
                                 String body = msgDataParsed.get("body").asText();
 
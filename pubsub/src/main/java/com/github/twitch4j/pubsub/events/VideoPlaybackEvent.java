@@ -2,6 +2,7 @@ package com.github.twitch4j.pubsub.events;
 
 import com.github.twitch4j.common.events.TwitchEvent;
 import com.github.twitch4j.common.events.domain.EventChannel;
+import com.github.twitch4j.common.util.IdentityCache;
 import com.github.twitch4j.pubsub.domain.VideoPlaybackData;
 import lombok.EqualsAndHashCode;
 import lombok.NonNull;
@@ -16,6 +17,6 @@ public class VideoPlaybackEvent extends TwitchEvent {
     VideoPlaybackData data;
 
     public EventChannel getChannel() {
-        return new EventChannel(channelId, channelName);
+        return IdentityCache.channel(channelId, channelName);
     }
 }
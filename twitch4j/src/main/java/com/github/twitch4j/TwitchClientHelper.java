@@ -5,9 +5,9 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.philippheuer.events4j.core.domain.Event;
 import com.github.twitch4j.chat.events.channel.FollowEvent;
 import com.github.twitch4j.common.events.domain.EventChannel;
-import com.github.twitch4j.common.events.domain.EventUser;
 import com.github.twitch4j.common.util.CollectionUtils;
 import com.github.twitch4j.common.util.ExponentialBackoffStrategy;
+import com.github.twitch4j.common.util.IdentityCache;
 import com.github.twitch4j.domain.ChannelCache;
 import com.github.twitch4j.events.ChannelChangeGameEvent;
 import com.github.twitch4j.events.ChannelChangeTitleEvent;
@@ -146,7 +146,7 @@ public class TwitchClientHelper implements AutoCloseable {
                     // Disabled name updates while Helix returns display name https://github.com/twitchdev/issues/issues/3
                     if (stream != null && currentChannelCache.getUserName() == null)
                         currentChannelCache.setUserName(stream.getUserName());
-                    final EventChannel channel = new EventChannel(userId, currentChannelCache.getUserName());
+                    final EventChannel channel = IdentityCache.channel(userId, currentChannelCache.getUserName());
 
                     boolean dispatchGoLiveEvent = false;
                     boolean dispatchGoOfflineEvent = false;
@@ -239,7 +239,7 @@ public class TwitchClientHelper implements AutoCloseable {
                         channelName = followList.get(0).getToName();
                         currentChannelCache.setUserName(channelName);
                     }
-                    EventChannel channel = new EventChannel(channelId, channelName);
+                    EventChannel channel = IdentityCache.channel(channelId, channelName);
 
                     // Follow Count Event
                     Integer followCount = executionResult.getTotal();
@@ -258,7 +258,7 @@ public class TwitchClientHelper implements AutoCloseable {
                         // is new follower?
                         if (follow.getFollowedAtInstant().isAfter(currentChannelCache.getLastFollowCheck())) {
                             // dispatch event
-                            FollowEvent event = new FollowEvent(channel, new EventUser(follow.getFromId(), follow.getFromName()));
+                            FollowEvent event = new FollowEvent(channel, IdentityCache.user(follow.getFromId(), follow.getFromName()));
                             twitchClient.getEventManager().publish(event);
                         }
                     }
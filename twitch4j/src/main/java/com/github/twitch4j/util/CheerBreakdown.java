@@ -0,0 +1,96 @@
+package com.github.twitch4j.util;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The bits of a message per cheermote prefix and tier, see {@link CheermoteMatcher#scan(String)}
+ */
+@Value
+public class CheerBreakdown {
+
+    /**
+     * The cheers, grouped by prefix and tier, in order of their first occurrence
+     */
+    List<Entry> entries;
+
+    /**
+     * The sum of the bits of all cheers
+     */
+    long totalBits;
+
+    /**
+     * @param prefix the cheermote prefix (case-insensitive)
+     * @return the bits cheered with the prefix, over all tiers
+     */
+    public long getBits(String prefix) {
+        long bits = 0L;
+        for (Entry entry : entries) {
+            if (entry.getPrefix().equalsIgnoreCase(prefix)) bits += entry.getBits();
+        }
+        return bits;
+    }
+
+    /**
+     * @return whether the message has no cheers
+     */
+    public boolean isEmpty() {
+        return entries.isEmpty();
+    }
+
+    /**
+     * The cheers of one prefix and tier
+     */
+    @Value
+    public static class Entry {
+
+        /**
+         * The cheermote prefix, as in the cheermote (e.g. "Cheer")
+         */
+        String prefix;
+
+        /**
+         * The id of the reached tier (e.g. "100"), or null if the cheermote has no matching tier
+         */
+        String tier;
+
+        /**
+         * The number of cheers
+         */
+        int count;
+
+        /**
+         * The sum of the bits
+         */
+        long bits;
+
+    }
+
+    static final class Builder {
+
+        private final List<Entry> entries = new ArrayList<>(2);
+
+        private long totalBits;
+
+        void add(String prefix, String tier, long bits) {
+            totalBits += bits;
+            for (int i = 0; i < entries.size(); i++) {
+                final Entry entry = entries.get(i);
+                if (entry.getPrefix().equals(prefix) && (tier == null ? entry.getTier() == null : tier.equals(entry.getTier()))) {
+                    entries.set(i, new Entry(prefix, tier, entry.getCount() + 1, entry.getBits() + bits));
+                    return;
+                }
+            }
+            entries.add(new Entry(prefix, tier, 1, bits));
+        }
+
+        CheerBreakdown build() {
+            return new CheerBreakdown(entries.isEmpty() ? Collections.emptyList() : Collections.unmodifiableList(entries), totalBits);
+        }
+
+    }
+
+}
@@ -0,0 +1,255 @@
+package com.github.twitch4j.util;
+
+import com.github.twitch4j.helix.domain.Cheermote;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Finds the cheermotes (e.g. {@code Cheer100} or {@code Kappa500}) in chat messages with an Aho-Corasick automaton over the cheermote prefixes.
+ * <p>
+ * A message is scanned once, regardless of the number of prefixes. Like twitch, a cheer is a whole word made of a prefix
+ * (in any case) followed by the number of bits. Each cheer is attributed to the highest tier of its cheermote that the bits reach.
+ * Instances are immutable and thread-safe.
+ */
+public final class CheermoteMatcher {
+
+    private static final CheermoteMatcher EMPTY = new CheermoteMatcher(Collections.emptyList());
+
+    /**
+     * The cheermotes, by lower case prefix
+     */
+    private final Map<String, Cheermote> cheermotes;
+
+    /**
+     * The latest {@link Cheermote#getLastUpdated()} of the cheermotes, to detect changes
+     */
+    @Getter
+    private final Instant lastUpdated;
+
+    /**
+     * Character class of each char below 128; other chars are looked up in {@link #otherClasses}
+     */
+    private final int[] asciiClasses = new int[128];
+
+    private final Map<Character, Integer> otherClasses = new HashMap<>();
+
+    /**
+     * Number of character classes; class 0 holds all chars that do not occur in a prefix
+     */
+    private final int classCount;
+
+    /**
+     * Transitions of the automaton (failure links resolved): {@code next[state * classCount + class]}
+     */
+    private final int[] next;
+
+    /**
+     * Length of the prefix that ends in each state, or 0
+     */
+    private final int[] matchLength;
+
+    /**
+     * The nearest state along the failure links that ends a prefix, or -1
+     */
+    private final int[] outputLink;
+
+    /**
+     * Prefix that ends in each state, as in the cheermote
+     */
+    private final String[] matchPrefix;
+
+    /**
+     * Builds the automaton
+     *
+     * @param cheermotes the cheermotes, e.g. from {@link com.github.twitch4j.helix.TwitchHelix#getCheermotes(String, String)}
+     */
+    public CheermoteMatcher(@NonNull Collection<Cheermote> cheermotes) {
+        this.cheermotes = new LinkedHashMap<>();
+        for (Cheermote cheermote : cheermotes) {
+            if (cheermote.getPrefix() != null && !cheermote.getPrefix().isEmpty() && cheermote.getTiers() != null)
+                this.cheermotes.putIfAbsent(cheermote.getPrefix().toLowerCase(Locale.ROOT), cheermote);
+        }
+        this.lastUpdated = lastUpdated(cheermotes);
+
+        // character classes
+        int classes = 1;
+        for (String prefix : this.cheermotes.keySet()) {
+            for (int i = 0; i < prefix.length(); i++) {
+                final char c = prefix.charAt(i);
+                if (classOf(c) == 0) {
+                    if (c < 128) asciiClasses[c] = classes++;
+                    else otherClasses.put(c, classes++);
+                }
+            }
+        }
+        this.classCount = classes;
+
+        // trie
+        final List<int[]> trie = new ArrayList<>();
+        final List<String> prefixes = new ArrayList<>();
+        trie.add(newRow());
+        prefixes.add(null);
+        for (Map.Entry<String, Cheermote> entry : this.cheermotes.entrySet()) {
+            final String prefix = entry.getKey();
+            int state = 0;
+            for (int i = 0; i < prefix.length(); i++) {
+                final int cls = classOf(prefix.charAt(i));
+                if (trie.get(state)[cls] < 0) {
+                    trie.get(state)[cls] = trie.size();
+                    trie.add(newRow());
+                    prefixes.add(null);
+                }
+                state = trie.get(state)[cls];
+            }
+            prefixes.set(state, entry.getValue().getPrefix());
+        }
+
+        final int states = trie.size();
+        this.next = new int[states * classCount];
+        this.matchLength = new int[states];
+        this.outputLink = new int[states];
+        this.matchPrefix = prefixes.toArray(new String[0]);
+        final int[] fail = new int[states];
+        for (int s = 0; s < states; s++) {
+            if (matchPrefix[s] != null) matchLength[s] = matchPrefix[s].length();
+        }
+
+        // breadth-first: resolve the failure links into the transitions
+        final int[] queue = new int[states];
+        int head = 0, tail = 0;
+        outputLink[0] = -1;
+        for (int cls = 0; cls < classCount; cls++) {
+            final int child = trie.get(0)[cls];
+            if (child > 0) {
+                next[cls] = child;
+                fail[child] = 0;
+                queue[tail++] = child;
+            }
+        }
+        while (head < tail) {
+            final int state = queue[head++];
+            outputLink[state] = matchLength[fail[state]] > 0 ? fail[state] : outputLink[fail[state]];
+            for (int cls = 0; cls < classCount; cls++) {
+                final int child = trie.get(state)[cls];
+                if (child > 0) {
+                    next[state * classCount + cls] = child;
+                    fail[child] = next[fail[state] * classCount + cls];
+                    queue[tail++] = child;
+                } else {
+                    next[state * classCount + cls] = next[fail[state] * classCount + cls];
+                }
+            }
+        }
+    }
+
+    /**
+     * @return a matcher without cheermotes
+     */
+    public static CheermoteMatcher empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @return the number of cheermote prefixes
+     */
+    public int size() {
+        return cheermotes.size();
+    }
+
+    /**
+     * Finds the cheers of a message
+     *
+     * @param message the chat message, may be null
+     * @return the bits per cheermote prefix and tier
+     */
+    public CheerBreakdown scan(String message) {
+        final CheerBreakdown.Builder breakdown = new CheerBreakdown.Builder();
+        if (message == null || cheermotes.isEmpty()) return breakdown.build();
+
+        final int n = message.length();
+        int state = 0;
+        int wordStart = 0;
+        for (int i = 0; i < n; i++) {
+            final char c = message.charAt(i);
+            if (Character.isWhitespace(c)) {
+                state = 0;
+                wordStart = i + 1;
+                continue;
+            }
+
+            state = next[state * classCount + classOf(Character.toLowerCase(c))];
+
+            // a cheer is a prefix at the start of the word, followed by digits up to the end of the word
+            final int length = i + 1 - wordStart;
+            for (int s = matchLength[state] > 0 ? state : outputLink[state]; s > 0 && matchLength[s] >= length; s = outputLink[s]) {
+                if (matchLength[s] != length) continue;
+
+                int end = i + 1;
+                long bits = 0L;
+                while (end < n && end - i <= 10 && message.charAt(end) >= '0' && message.charAt(end) <= '9') {
+                    bits = bits * 10 + (message.charAt(end++) - '0');
+                }
+                if (end > i + 1 && bits > 0 && (end == n || Character.isWhitespace(message.charAt(end)))) {
+                    final Cheermote cheermote = cheermotes.get(matchPrefix[s].toLowerCase(Locale.ROOT));
+                    breakdown.add(cheermote.getPrefix(), tierOf(cheermote, bits), bits);
+                    i = end - 1; // skip the bits
+                    state = 0;
+                }
+                break;
+            }
+        }
+        return breakdown.build();
+    }
+
+    /**
+     * @return the latest update of the cheermotes, or the epoch if unknown
+     */
+    static Instant lastUpdated(Collection<Cheermote> cheermotes) {
+        Instant latest = Instant.EPOCH;
+        for (Cheermote cheermote : cheermotes) {
+            if (cheermote.getLastUpdated() != null && cheermote.getLastUpdated().isAfter(latest))
+                latest = cheermote.getLastUpdated();
+        }
+        return latest;
+    }
+
+    private int classOf(char c) {
+        if (c < 128) return asciiClasses[c];
+        final Integer cls = otherClasses.get(c);
+        return cls != null ? cls : 0;
+    }
+
+    private int[] newRow() {
+        final int[] row = new int[classCount];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * @return the id of the highest tier whose minimum is reached, or null
+     */
+    private static String tierOf(Cheermote cheermote, long bits) {
+        String tier = null;
+        long tierMin = -1L;
+        for (Cheermote.Tier t : cheermote.getTiers()) {
+            final long min = t.getMinBits() != null ? t.getMinBits() : 0L;
+            if (min <= bits && min > tierMin) {
+                tier = t.getId();
+                tierMin = min;
+            }
+        }
+        return tier;
+    }
+
+}
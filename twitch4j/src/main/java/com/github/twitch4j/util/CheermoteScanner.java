@@ -0,0 +1,141 @@
+package com.github.twitch4j.util;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.twitch4j.chat.events.channel.CheerEvent;
+import com.github.twitch4j.helix.TwitchHelix;
+import com.github.twitch4j.helix.domain.Cheermote;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Breaks the bits of {@link CheerEvent}s down by cheermote prefix and tier, using a {@link CheermoteMatcher} per channel.
+ * <p>
+ * The cheermotes of a channel (global and custom) are fetched via {@link TwitchHelix#getCheermotes(String, String)} on first use,
+ * and fetched again in the background once the refresh interval has passed.
+ * The automaton is only rebuilt if the latest {@link Cheermote#getLastUpdated()} has changed.
+ * If the cheermotes of a channel cannot be fetched, an empty matcher is used for a minute before trying again.
+ */
+@Slf4j
+public class CheermoteScanner {
+
+    /**
+     * Cache key of the global cheermotes, as cache keys may not be null
+     */
+    private static final String GLOBAL = "";
+
+    /**
+     * Time to use an empty matcher after the cheermotes of a channel could not be fetched
+     */
+    private static final Duration FAILURE_EXPIRY = Duration.ofMinutes(1L);
+
+    private final TwitchHelix helix;
+
+    private final String authToken;
+
+    /**
+     * Matchers by channel id
+     */
+    private final LoadingCache<String, CheermoteMatcher> matchers;
+
+    /**
+     * Empty matchers of the channels whose cheermotes could not be fetched, so that not every cheer fetches them again
+     */
+    private final Cache<String, CheermoteMatcher> failures = Caffeine.newBuilder()
+        .expireAfterWrite(FAILURE_EXPIRY.toMillis(), TimeUnit.MILLISECONDS)
+        .maximumSize(10_000)
+        .build();
+
+    /**
+     * Constructor, refreshing the cheermotes every hour
+     *
+     * @param helix     TwitchHelix
+     * @param authToken Auth Token (app or user access token)
+     */
+    public CheermoteScanner(TwitchHelix helix, String authToken) {
+        this(helix, authToken, Duration.ofHours(1L));
+    }
+
+    /**
+     * Constructor
+     *
+     * @param helix           TwitchHelix
+     * @param authToken       Auth Token (app or user access token)
+     * @param refreshInterval Time after which the cheermotes of a channel are fetched again
+     */
+    public CheermoteScanner(@NonNull TwitchHelix helix, String authToken, @NonNull Duration refreshInterval) {
+        this.helix = helix;
+        this.authToken = authToken;
+        this.matchers = Caffeine.newBuilder()
+            .refreshAfterWrite(refreshInterval.toMillis(), TimeUnit.MILLISECONDS)
+            .expireAfterAccess(1, TimeUnit.DAYS)
+            .maximumSize(10_000)
+            .build(new CacheLoader<String, CheermoteMatcher>() {
+                @Override
+                public CheermoteMatcher load(@NonNull String channelId) {
+                    return new CheermoteMatcher(fetch(channelId));
+                }
+
+                @Override
+                public CheermoteMatcher reload(@NonNull String channelId, @NonNull CheermoteMatcher oldMatcher) {
+                    final List<Cheermote> cheermotes = fetch(channelId);
+                    if (CheermoteMatcher.lastUpdated(cheermotes).equals(oldMatcher.getLastUpdated()))
+                        return oldMatcher;
+                    return new CheermoteMatcher(cheermotes);
+                }
+            });
+    }
+
+    /**
+     * Breaks the bits of a cheer down
+     *
+     * @param event the cheer
+     * @return the bits per cheermote prefix and tier
+     */
+    public CheerBreakdown scan(@NonNull CheerEvent event) {
+        return getMatcher(event.getChannel().getId()).scan(event.getMessage());
+    }
+
+    /**
+     * Gets the matcher of a channel, fetching its cheermotes if necessary
+     *
+     * @param channelId the id of the channel, or null for the global cheermotes only
+     * @return the matcher, or an empty matcher if the cheermotes could not be fetched
+     */
+    public CheermoteMatcher getMatcher(String channelId) {
+        final String key = channelId != null ? channelId : GLOBAL;
+        final CheermoteMatcher failed = failures.getIfPresent(key);
+        if (failed != null) return failed;
+
+        try {
+            return matchers.get(key);
+        } catch (Exception e) {
+            log.warn("Failed to fetch the cheermotes of channel {}", channelId, e);
+            final CheermoteMatcher empty = CheermoteMatcher.empty();
+            failures.put(key, empty);
+            return empty;
+        }
+    }
+
+    /**
+     * Discards the matcher of a channel, so that its cheermotes are fetched on the next use
+     *
+     * @param channelId the id of the channel, or null for the global cheermotes
+     */
+    public void invalidate(String channelId) {
+        final String key = channelId != null ? channelId : GLOBAL;
+        failures.invalidate(key);
+        matchers.invalidate(key);
+    }
+
+    private List<Cheermote> fetch(String channelId) {
+        return helix.getCheermotes(authToken, GLOBAL.equals(channelId) ? null : channelId).execute().getCheermotes();
+    }
+
+}
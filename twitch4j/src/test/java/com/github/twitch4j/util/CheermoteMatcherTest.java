@@ -0,0 +1,47 @@
+package com.github.twitch4j.util;
+
+import com.github.twitch4j.common.util.TypeConvert;
+import com.github.twitch4j.helix.domain.CheermoteList;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("unittest")
+public class CheermoteMatcherTest {
+
+    private static final String CHEERMOTES = "{\"data\":[" +
+        "{\"prefix\":\"Cheer\",\"tiers\":[{\"id\":\"1\",\"min_bits\":1},{\"id\":\"100\",\"min_bits\":100},{\"id\":\"1000\",\"min_bits\":1000}],\"last_updated\":\"2018-05-22T00:06:04Z\"}," +
+        "{\"prefix\":\"Cheerwhal\",\"tiers\":[{\"id\":\"1\",\"min_bits\":1},{\"id\":\"100\",\"min_bits\":100}],\"last_updated\":\"2019-05-22T00:06:04Z\"}," +
+        "{\"prefix\":\"DoodleCheer\",\"tiers\":[{\"id\":\"1\",\"min_bits\":1}],\"last_updated\":\"2018-05-22T00:06:04Z\"}," +
+        "{\"prefix\":\"Kappa\",\"tiers\":[{\"id\":\"1\",\"min_bits\":1},{\"id\":\"100\",\"min_bits\":100}],\"last_updated\":\"2018-05-22T00:06:04Z\"}" +
+        "]}";
+
+    @Test
+    @DisplayName("Cheers are broken down by prefix and tier")
+    public void scan() {
+        CheermoteMatcher matcher = new CheermoteMatcher(TypeConvert.jsonToObject(CHEERMOTES, CheermoteList.class).getCheermotes());
+        assertEquals(4, matcher.size());
+        assertEquals(Instant.parse("2019-05-22T00:06:04Z"), matcher.getLastUpdated());
+
+        CheerBreakdown breakdown = matcher.scan("cheer100 Cheer150 Kappa5 great stream Cheerwhal1000 DoodleCheer10 xCheer100 Cheer100x Cheer");
+        assertEquals(1265L, breakdown.getTotalBits());
+        assertEquals(250L, breakdown.getBits("Cheer"));
+        assertEquals(10L, breakdown.getBits("doodlecheer"));
+
+        CheerBreakdown.Entry cheer = breakdown.getEntries().get(0);
+        assertEquals("Cheer", cheer.getPrefix());
+        assertEquals("100", cheer.getTier());
+        assertEquals(2, cheer.getCount());
+        assertEquals("1", breakdown.getEntries().get(1).getTier());
+        assertEquals("100", breakdown.getEntries().get(2).getTier());
+
+        assertTrue(matcher.scan("no cheers here").isEmpty());
+        assertTrue(CheermoteMatcher.empty().scan("Cheer100").isEmpty());
+    }
+
+}